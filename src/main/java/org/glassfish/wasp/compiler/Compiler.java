@@ -209,7 +209,7 @@ public class Compiler {
 
             // Optimizations by Tag Plugins
             TagPluginManager tagPluginManager = options.getTagPluginManager();
-            tagPluginManager.apply(pageNodes, errDispatcher, pageInfo);
+            tagPluginManager.apply(pageNodes, errDispatcher, pageInfo, pagesCompilationContext.isTagFile());
 
             // Optimization: concatenate contiguous template texts.
             TextOptimizer.concatenate(this, pageNodes);
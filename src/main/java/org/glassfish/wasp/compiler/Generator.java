@@ -1618,7 +1618,7 @@ class Generator {
                     break;
                 case '#':
                     boolean unescapePound = false;
-                    if (isTagFile) {
+                    if (ctxt.isTagFile()) {
                         String verS = ctxt.getTagInfo().getTagLibrary().getRequiredVersion();
                         Double version = Double.valueOf(verS);
                         if (version < 2.1) {
@@ -1760,6 +1760,25 @@ class Generator {
             }
         }
 
+        @Override
+        public void visit(Node.BodyContentGenerator n) throws WaspException {
+            // Keep count of the pushed BodyContent, so that an enclosing
+            // TryCatchFinally tag handler can pop it
+            if (n.isPush()) {
+                out.printil("out = _jspx_page_context.pushBody();");
+                if (pushBodyCountVar != null) {
+                    out.printin(pushBodyCountVar);
+                    out.println("[0]++;");
+                }
+            } else {
+                out.printil("out = _jspx_page_context.popBody();");
+                if (pushBodyCountVar != null) {
+                    out.printin(pushBodyCountVar);
+                    out.println("[0]--;");
+                }
+            }
+        }
+
         private TagHandlerInfo getTagHandlerInfo(Node.CustomTag n) throws WaspException {
             HashMap<String, TagHandlerInfo> handlerInfosByShortName = handlerInfos.get(n.getPrefix());
             if (handlerInfosByShortName == null) {
@@ -2021,6 +2040,13 @@ class Generator {
             out.printin("//  ");
             out.println(n.getQName());
 
+            Method inlineMethod = findInlineTagMethod(n, tagHandlerClass);
+            if (inlineMethod != null) {
+                generateInlineTagCall(n, handlerInfo, tagHandlerVar, inlineMethod);
+                n.setEndJavaLine(out.getJavaLine());
+                return;
+            }
+
             // Declare AT_BEGIN scripting variables
             declareScriptingVars(n, VariableInfo.AT_BEGIN);
             saveScriptingVars(n, VariableInfo.AT_BEGIN);
@@ -2092,6 +2118,68 @@ class Generator {
             n.setEndJavaLine(out.getJavaLine());
         }
 
+        /*
+         * Returns the static entry point generated for an inline tag file (see TagFileProcessor.isInlineable()), or null if
+         * the tag must go through its SimpleTag handler. A tag file compiled in prototype mode, or one that does not qualify,
+         * has no such method, so its invocations fall back to the class-based path.
+         */
+        private Method findInlineTagMethod(Node.CustomTag n, Class<?> tagHandlerClass) throws WaspException {
+            if (!n.isTagFile() || !n.hasEmptyBody() || findJspBody(n) != null) {
+                return null;
+            }
+
+            int paramCount = n.getTagInfo().getAttributes().length + 1;
+            for (Method method : tagHandlerClass.getMethods()) {
+                if (method.getName().equals(TagFileProcessor.INLINE_METHOD_NAME) && Modifier.isStatic(method.getModifiers())
+                        && method.getParameterCount() == paramCount) {
+                    return method;
+                }
+            }
+
+            return null;
+        }
+
+        /*
+         * Generates a call to the static entry point of an inline tag file. Attribute values are evaluated in the order the
+         * attributes appear on the tag, as the setter calls of the class-based path would be, and passed in the order the
+         * tag file declares its attributes. Attributes that are not specified are passed as null.
+         */
+        private void generateInlineTagCall(Node.CustomTag n, TagHandlerInfo handlerInfo, String tagHandlerVar, Method inlineMethod) throws WaspException {
+            TagAttributeInfo[] attrInfos = n.getTagInfo().getAttributes();
+            Class<?>[] paramTypes = inlineMethod.getParameterTypes();
+            String[] args = new String[attrInfos.length];
+
+            Node.JspAttribute[] attrs = n.getJspAttributes();
+            for (int i = 0; attrs != null && i < attrs.length; i++) {
+                String attrValue = evaluateAttribute(handlerInfo, attrs[i], n, tagHandlerVar);
+                if (attrValue == null) {
+                    continue;
+                }
+                for (int j = 0; j < attrInfos.length; j++) {
+                    if (attrInfos[j].getName().equals(attrs[i].getLocalName())) {
+                        args[j] = tagHandlerVar + "_attr" + j;
+                        out.printin(JspUtil.getCanonicalName(paramTypes[j + 1]));
+                        out.print(" ");
+                        out.print(args[j]);
+                        out.print(" = ");
+                        out.print(attrValue);
+                        out.println(";");
+                        break;
+                    }
+                }
+            }
+
+            out.printin(JspUtil.getCanonicalName(n.getTagHandlerClass()));
+            out.print(".");
+            out.print(TagFileProcessor.INLINE_METHOD_NAME);
+            out.print("(_jspx_page_context");
+            for (String arg : args) {
+                out.print(", ");
+                out.print(arg == null ? "null" : arg);
+            }
+            out.println(");");
+        }
+
         private void declareScriptingVars(Node.CustomTag n, int scope) {
 
             // Skip if the page is scriptless
@@ -2855,7 +2943,8 @@ class Generator {
         }
         if (gen.ctxt.isTagFile()) {
             WaspTagInfo tagInfo = (WaspTagInfo) gen.ctxt.getTagInfo();
-            gen.generateTagHandlerPreamble(tagInfo, page);
+            boolean inline = !gen.ctxt.isPrototypeMode() && !gen.genBytes && TagFileProcessor.isInlineable(page, tagInfo);
+            gen.generateTagHandlerPreamble(tagInfo, page, inline);
 
             if (gen.ctxt.isPrototypeMode()) {
                 return;
@@ -2863,7 +2952,9 @@ class Generator {
 
             gen.generateXmlProlog(page);
             gen.fragmentHelperClass.generatePreamble();
-            page.visit(gen.new GenerateVisitor(gen.ctxt.isTagFile(), out, gen.methodsBuffered, gen.fragmentHelperClass));
+            // The body of an inline tag file lives in a static method, so EL is
+            // evaluated against _jspx_page_context rather than this.getJspContext()
+            page.visit(gen.new GenerateVisitor(!inline, out, gen.methodsBuffered, gen.fragmentHelperClass));
             gen.generateTagHandlerPostamble(tagInfo);
         } else {
             gen.generatePreamble(page);
@@ -2876,8 +2967,12 @@ class Generator {
 
     /*
      * Generates tag handler preamble.
+     *
+     * For an inline tag file (see TagFileProcessor.isInlineable()), doTag() and the static inline entry point both
+     * delegate to a static _jspx_doTag() method that takes the attribute values as parameters, and the preamble opens
+     * that method instead of doTag().
      */
-    private void generateTagHandlerPreamble(WaspTagInfo tagInfo, Node.Nodes tag) throws WaspException {
+    private void generateTagHandlerPreamble(WaspTagInfo tagInfo, Node.Nodes tag, boolean inline) throws WaspException {
 
         // Generate package declaration
         String className = tagInfo.getTagClassName();
@@ -2933,8 +3028,18 @@ class Generator {
         // Methods here
         genPreambleMethods();
 
+        if (inline) {
+            generateInlineTagEntryPoints(tagInfo);
+        }
+
         // Now the doTag() method
-        out.printil("public void doTag() throws JspException, java.io.IOException {");
+        if (inline) {
+            out.printin("private static void _jspx_doTag(JspContext jspContext");
+            generateInlineTagParameters(tagInfo);
+            out.println(") throws JspException, java.io.IOException {");
+        } else {
+            out.printil("public void doTag() throws JspException, java.io.IOException {");
+        }
 
         if (ctxt.isPrototypeMode()) {
             out.printil("}");
@@ -2961,13 +3066,63 @@ class Generator {
         if (isPoolingEnabled && !tagHandlerPoolNames.isEmpty()) {
             out.printil("_jspInit(config);");
         }
-        generatePageScopedVariables(tagInfo);
+        generatePageScopedVariables(tagInfo, inline);
         out.println();
 
         out.printil("try {");
         out.pushIndent();
     }
 
+    /*
+     * Generates doTag() and the public static inline entry point of an inline tag file. Both pass the attribute values on
+     * to the static _jspx_doTag() method; the entry point also creates the JspContextWrapper that setJspContext() would
+     * otherwise have created.
+     */
+    private void generateInlineTagEntryPoints(TagInfo tagInfo) {
+        TagAttributeInfo[] attrInfos = tagInfo.getAttributes();
+
+        out.printil("public void doTag() throws JspException, java.io.IOException {");
+        out.pushIndent();
+        out.printin("_jspx_doTag(jspContext");
+        for (TagAttributeInfo attrInfo : attrInfos) {
+            out.print(", ");
+            out.print(toGetterMethod(attrInfo.getName()));
+        }
+        out.println(");");
+        out.popIndent();
+        out.printil("}");
+        out.println();
+
+        out.printin("public static void ");
+        out.print(TagFileProcessor.INLINE_METHOD_NAME);
+        out.print("(JspContext _jspx_ctx");
+        generateInlineTagParameters(tagInfo);
+        out.println(") throws JspException, java.io.IOException {");
+        out.pushIndent();
+        out.printin("_jspx_doTag(new org.glassfish.wasp.runtime.JspContextWrapper(_jspx_ctx, ");
+        out.print(Boolean.toString(pageInfo.isErrorOnELNotFound()));
+        out.print(")");
+        for (int i = 0; i < attrInfos.length; i++) {
+            out.print(", _jspx_attr_" + i);
+        }
+        out.println(");");
+        out.popIndent();
+        out.printil("}");
+        out.println();
+    }
+
+    /*
+     * Generates the attribute parameters of the static methods of an inline tag file, in attribute declaration order.
+     */
+    private void generateInlineTagParameters(TagInfo tagInfo) {
+        TagAttributeInfo[] attrInfos = tagInfo.getAttributes();
+        for (int i = 0; i < attrInfos.length; i++) {
+            out.print(", ");
+            out.print(JspUtil.toJavaSourceType(attrInfos[i].getTypeName()));
+            out.print(" _jspx_attr_" + i);
+        }
+    }
+
     private void generateTagHandlerPostamble(TagInfo tagInfo) {
         out.popIndent();
 
@@ -3171,18 +3326,19 @@ class Generator {
      * Creates a page-scoped variable for each declared tag attribute. Also, if the tag accepts dynamic attributes, a
      * page-scoped variable is made available for each dynamic attribute that was passed in.
      */
-    private void generatePageScopedVariables(WaspTagInfo tagInfo) {
+    private void generatePageScopedVariables(WaspTagInfo tagInfo, boolean inline) {
 
         // "normal" attributes
         TagAttributeInfo[] attrInfos = tagInfo.getAttributes();
         for (int i = 0; i < attrInfos.length; i++) {
             String attrName = attrInfos[i].getName();
-            out.printil("if( " + toGetterMethod(attrName) + " != null ) {");
+            String attrValue = inline ? "_jspx_attr_" + i : toGetterMethod(attrName);
+            out.printil("if( " + attrValue + " != null ) {");
             out.pushIndent();
             out.printin("_jspx_page_context.setAttribute(");
             out.print(quote(attrName));
             out.print(", ");
-            out.print(toGetterMethod(attrName));
+            out.print(attrValue);
             out.println(");");
             if (attrInfos[i].isDeferredValue()) {
                 // If the attribute is a deferred value, also set it to an EL
@@ -3191,7 +3347,7 @@ class Generator {
                 out.print("_jspx_page_context, ");
                 out.print(quote(attrName));
                 out.print(", ");
-                out.print(toGetterMethod(attrName));
+                out.print(attrValue);
                 out.println(");");
             }
 
@@ -3202,7 +3358,7 @@ class Generator {
                 out.print("_jspx_page_context, ");
                 out.print(quote(attrName));
                 out.print(", ");
-                out.print(toGetterMethod(attrName));
+                out.print(attrValue);
                 out.println(");");
             }
             out.popIndent();
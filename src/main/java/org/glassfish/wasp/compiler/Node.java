@@ -1657,6 +1657,28 @@ abstract class Node implements TagConstants {
         }
     }
 
+    /**
+     * Used only by tag plugins, to push or pop a <code>BodyContent</code> the way the code generated for a tag handler
+     * returning <code>EVAL_BODY_BUFFERED</code> does.
+     */
+    public static class BodyContentGenerator extends Node {
+        boolean push; // push or pop the BodyContent
+
+        public BodyContentGenerator(Mark start, boolean push) {
+            super(start, null);
+            this.push = push;
+        }
+
+        @Override
+        public void accept(Visitor v) throws WaspException {
+            v.visit(this);
+        }
+
+        public boolean isPush() {
+            return push;
+        }
+    }
+
     /**
      * Represents the body of a &lt;jsp:text&gt; element
      */
@@ -2315,5 +2337,9 @@ abstract class Node implements TagConstants {
         public void visit(AttributeGenerator n) throws WaspException {
             doVisit(n);
         }
+
+        public void visit(BodyContentGenerator n) throws WaspException {
+            doVisit(n);
+        }
     }
 }
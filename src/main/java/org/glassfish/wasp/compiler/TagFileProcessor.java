@@ -55,6 +55,11 @@ import jakarta.servlet.jsp.tagext.VariableInfo;
 
 class TagFileProcessor {
 
+    /**
+     * Name of the static entry point generated for tag files that can be invoked without a tag handler instance.
+     */
+    static final String INLINE_METHOD_NAME = "_jspx_inline";
+
     private ArrayList<Compiler> tempCompilers;
 
     /**
@@ -494,6 +499,59 @@ class TagFileProcessor {
         return tagFileVisitor.getTagInfo();
     }
 
+    /**
+     * Determines whether a tag file can be compiled in inline mode, in which the generated class also exposes a static
+     * {@link #INLINE_METHOD_NAME} method that callers invoke directly with the attribute values, instead of instantiating
+     * the SimpleTag handler and calling its setters and doTag().
+     *
+     * <p>
+     * This is only possible for simple tag files whose body never needs the handler instance: no dynamic attributes, no
+     * scripting variables, no fragment or deferred attributes, and a body made of template text and EL expressions only
+     * (so no nested tags, scripting elements, <code>jsp:invoke</code> or <code>jsp:doBody</code>). All other tag files
+     * keep the class-based invocation path.
+     *
+     * @param page the parsed tag file
+     * @param tagInfo the TagInfo assembled from the directives in the tag file
+     * @return true if the tag file can be invoked through a static method
+     */
+    static boolean isInlineable(Node.Nodes page, TagInfo tagInfo) {
+        if (tagInfo.hasDynamicAttributes() || tagInfo.getTagVariableInfos().length > 0) {
+            return false;
+        }
+
+        for (TagAttributeInfo attributeInfo : tagInfo.getAttributes()) {
+            if (attributeInfo.isFragment() || attributeInfo.isDeferredValue() || attributeInfo.isDeferredMethod()) {
+                return false;
+            }
+        }
+
+        InlineableBodyVisitor visitor = new InlineableBodyVisitor();
+        try {
+            page.visit(visitor);
+        } catch (WaspException e) {
+            return false;
+        }
+
+        return visitor.inlineable;
+    }
+
+    /**
+     * Checks that a tag file body only contains nodes whose generated code does not depend on the tag handler instance.
+     */
+    private static class InlineableBodyVisitor extends Node.Visitor {
+
+        private boolean inlineable = true;
+
+        @Override
+        protected void doVisit(Node n) throws WaspException {
+            if (!(n instanceof Node.Root || n instanceof Node.JspRoot || n instanceof Node.TagDirective || n instanceof Node.AttributeDirective
+                    || n instanceof Node.IncludeDirective || n instanceof Node.TaglibDirective || n instanceof Node.Comment
+                    || n instanceof Node.JspText || n instanceof Node.TemplateText || n instanceof Node.ELExpression)) {
+                inlineable = false;
+            }
+        }
+    }
+
     /**
      * Compiles and loads a tagfile.
      */
@@ -30,6 +30,7 @@ import org.glassfish.wasp.compiler.tagplugin.TagPlugin;
 import org.glassfish.wasp.compiler.tagplugin.TagPluginContext;
 import org.glassfish.wasp.xmlparser.ParserUtils;
 import org.glassfish.wasp.xmlparser.TreeNode;
+import org.xml.sax.Attributes;
 
 /**
  * Manages tag plugin optimizations.
@@ -46,12 +47,13 @@ public class TagPluginManager {
     private HashMap<String, TagPlugin> tagPlugins = null;
     private ServletContext ctxt;
     private PageInfo pageInfo;
+    private boolean isTagFile;
 
     public TagPluginManager(ServletContext ctxt) {
         this.ctxt = ctxt;
     }
 
-    public void apply(Node.Nodes page, ErrorDispatcher err, PageInfo pageInfo) throws WaspException {
+    public void apply(Node.Nodes page, ErrorDispatcher err, PageInfo pageInfo, boolean isTagFile) throws WaspException {
 
         init(err);
         if (tagPlugins == null || tagPlugins.size() == 0) {
@@ -59,6 +61,7 @@ public class TagPluginManager {
         }
 
         this.pageInfo = pageInfo;
+        this.isTagFile = isTagFile;
 
         page.visit(new Node.Visitor() {
             @Override
@@ -135,7 +138,7 @@ public class TagPluginManager {
             return;
         }
 
-        TagPluginContext tagPluginContext = new TagPluginContextImpl(n, pageInfo);
+        TagPluginContext tagPluginContext = new TagPluginContextImpl(n, pageInfo, isTagFile);
         n.setTagPluginContext(tagPluginContext);
         tagPlugin.doTag(tagPluginContext);
     }
@@ -144,11 +147,13 @@ public class TagPluginManager {
         private Node.CustomTag node;
         private Node.Nodes curNodes;
         private PageInfo pageInfo;
+        private boolean isTagFile;
         private HashMap<String, Object> pluginAttributes;
 
-        TagPluginContextImpl(Node.CustomTag n, PageInfo pageInfo) {
+        TagPluginContextImpl(Node.CustomTag n, PageInfo pageInfo, boolean isTagFile) {
             this.node = n;
             this.pageInfo = pageInfo;
+            this.isTagFile = isTagFile;
             curNodes = new Node.Nodes();
             n.setAtETag(curNodes);
             curNodes = new Node.Nodes();
@@ -199,6 +204,15 @@ public class TagPluginManager {
             return attr.getValue();
         }
 
+        @Override
+        public boolean isDeferredAttribute(String attribute) {
+            Node.JspAttribute attr = getNodeAttribute(attribute);
+            if (attr == null || attr.getEL() == null) {
+                return false;
+            }
+            return attr.getEL().hasPoundExpression();
+        }
+
         @Override
         public boolean isAttributeSpecified(String attribute) {
             return getNodeAttribute(attribute) != null;
@@ -232,11 +246,72 @@ public class TagPluginManager {
             curNodes.add(new Node.AttributeGenerator(node.getStart(), attributeName, node));
         }
 
+        @Override
+        public void generatePushBody() {
+            curNodes.add(new Node.BodyContentGenerator(node.getStart(), true));
+        }
+
+        @Override
+        public void generatePopBody() {
+            curNodes.add(new Node.BodyContentGenerator(node.getStart(), false));
+        }
+
         @Override
         public void dontUseTagPlugin() {
             node.setUseTagPlugin(false);
         }
 
+        @Override
+        public boolean hasBody() {
+            return node.getBody() != null && node.getBody().size() > 0;
+        }
+
+        @Override
+        public boolean hasOnlyChildTags(String tagHandlerClass) {
+            if (node.getBody() == null) {
+                return true;
+            }
+
+            ChildTagVisitor visitor = new ChildTagVisitor(node, tagHandlerClass);
+            try {
+                node.getBody().visit(visitor);
+            } catch (WaspException e) {
+                return false;
+            }
+            return visitor.onlyChildTags;
+        }
+
+        @Override
+        public boolean isNestedInTag(String tagHandlerClass) {
+            for (Node parent = node.getParent(); parent != null; parent = parent.getParent()) {
+                if (!(parent instanceof Node.CustomTag)) {
+                    continue;
+                }
+                for (Class<?> c = ((Node.CustomTag) parent).getTagHandlerClass(); c != null; c = c.getSuperclass()) {
+                    if (c.getName().equals(tagHandlerClass)) {
+                        return true;
+                    }
+                }
+            }
+            // The actions of the page invoking a tag file are out of sight
+            return isTagFile;
+        }
+
+        @Override
+        public boolean isReferencedInBody(String name) {
+            if (node.getBody() == null) {
+                return false;
+            }
+
+            BodyReferenceVisitor visitor = new BodyReferenceVisitor(name);
+            try {
+                node.getBody().visit(visitor);
+            } catch (WaspException e) {
+                return true;
+            }
+            return visitor.referenced;
+        }
+
         @Override
         public void generateBody() {
             // Since we'll generate the body anyway, this is really a nop,
@@ -255,4 +330,84 @@ public class TagPluginManager {
             return null;
         }
     }
+
+    /*
+     * Looks for the name of a scoped variable in the expressions, scripting elements and attributes of a tag body.
+     */
+    private static class BodyReferenceVisitor extends Node.Visitor {
+
+        private static final String STANDARD_TAGLIB_PACKAGE = "org.glassfish.wasp.taglibs.standard.";
+
+        private final String name;
+        boolean referenced;
+
+        BodyReferenceVisitor(String name) {
+            this.name = name;
+        }
+
+        @Override
+        protected void doVisit(Node n) {
+            if (referenced) {
+                return;
+            }
+            if (n.getText() != null && n.getText().contains(name)) {
+                referenced = true;
+                return;
+            }
+
+            Attributes attrs = n.getAttributes();
+            for (int i = 0; attrs != null && i < attrs.getLength(); i++) {
+                if (attrs.getValue(i).contains(name)) {
+                    referenced = true;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void visit(Node.TemplateText n) {
+            // Template text holds no expressions; those are parsed into ELExpression nodes
+        }
+
+        @Override
+        public void visit(Node.Comment n) {
+        }
+
+        @Override
+        public void visit(Node.CustomTag n) throws WaspException {
+            Class<?> handlerClass = n.getTagHandlerClass();
+            if (handlerClass != null && !handlerClass.getName().startsWith(STANDARD_TAGLIB_PACKAGE)) {
+                // May read the page scope directly
+                referenced = true;
+                return;
+            }
+            doVisit(n);
+            visitBody(n);
+        }
+    }
+
+    /*
+     * Checks that every custom action in a tag body is a direct child with the given tag handler class.
+     */
+    private static class ChildTagVisitor extends Node.Visitor {
+
+        private final Node parent;
+        private final String tagHandlerClass;
+        boolean onlyChildTags = true;
+
+        ChildTagVisitor(Node parent, String tagHandlerClass) {
+            this.parent = parent;
+            this.tagHandlerClass = tagHandlerClass;
+        }
+
+        @Override
+        public void visit(Node.CustomTag n) throws WaspException {
+            Class<?> handlerClass = n.getTagHandlerClass();
+            if (n.getParent() != parent || handlerClass == null || !handlerClass.getName().equals(tagHandlerClass)) {
+                onlyChildTags = false;
+                return;
+            }
+            visitBody(n);
+        }
+    }
 }
@@ -66,6 +66,12 @@ public interface TagPluginContext {
      */
     boolean isConstantAttribute(String attribute);
 
+    /**
+     * @return true if the attribute is specified and its value is a deferred (<code>#{...}</code>) expression, which is
+     * passed to the tag handler as a <code>ValueExpression</code> or <code>MethodExpression</code>.
+     */
+    boolean isDeferredAttribute(String attribute);
+
     /**
      * @return A string that is the value of a constant attribute. Undefined if the attribute is not a (translation-time)
      * constant. null if the attribute is not specified.
@@ -80,11 +86,59 @@ public interface TagPluginContext {
      */
     void generateAttribute(String attribute);
 
+    /**
+     * Tells whether the body of the tag may refer to the given scoped variable, so that a plugin can skip exposing
+     * variables nobody reads. The answer is conservative: it is true if the name appears in any expression, scripting
+     * element or action attribute in the body, or if the body contains a custom action outside the standard tag library,
+     * which might look the variable up by itself.
+     *
+     * @param name Name of the scoped variable
+     * @return false only if the body cannot refer to the variable
+     */
+    boolean isReferencedInBody(String name);
+
+    /**
+     * @return true if the tag has a non-empty body.
+     */
+    boolean hasBody();
+
+    /**
+     * Tells whether all custom actions in the body are direct children of the tag handled by the given tag handler
+     * class, as is the case for a tag whose body may only hold a list of parameters.
+     *
+     * @param tagHandlerClass Fully qualified name of the tag handler class
+     * @return true if the body holds no other custom actions, nested or not
+     */
+    boolean hasOnlyChildTags(String tagHandlerClass);
+
+    /**
+     * Tells whether the tag is nested, at any depth, in a custom action whose tag handler is the given class or a
+     * subclass of it. Such an ancestor is found by tag handlers through <code>findAncestorWithClass</code>, which
+     * generated code cannot do. In a tag file, the actions enclosing the invocation of the tag file cannot be seen at
+     * translation time, so the answer is always true there.
+     *
+     * @param tagHandlerClass Fully qualified name of the tag handler class
+     * @return true if there is, or may be, such an enclosing custom action
+     */
+    boolean isNestedInTag(String tagHandlerClass);
+
     /*
      * Generate codes for the body of the custom tag
      */
     void generateBody();
 
+    /**
+     * Generate codes that push a new <code>BodyContent</code> as the current <code>out</code>, and account for it like
+     * the codes generated for a tag handler returning <code>EVAL_BODY_BUFFERED</code>, so that an enclosing
+     * <code>TryCatchFinally</code> tag handler can pop it if an exception is thrown.
+     */
+    void generatePushBody();
+
+    /**
+     * Generate codes that pop the <code>BodyContent</code> pushed by the codes of {@link #generatePushBody()}.
+     */
+    void generatePopBody();
+
     /**
      * Abandon optimization for this tag handler, and instruct Wasp to generate the tag handler calls, as usual. Should be
      * invoked if errors are detected, or when the tag body is deemed too compilicated for optimization.
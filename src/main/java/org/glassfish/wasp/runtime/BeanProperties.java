@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2026 Contributors to Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.wasp.runtime;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.glassfish.wasp.WaspException;
+import org.glassfish.wasp.compiler.Localizer;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Per-class property access plan used by {@link JspRuntimeLibrary} for <code>jsp:getProperty</code> and
+ * <code>jsp:setProperty</code>.
+ *
+ * <p>
+ * A plan is computed once per bean class and kept in a {@link ClassValue}, so lookups are lock-free and the plan goes
+ * away together with the class loader of the bean. Each property carries its read and write methods as
+ * {@link MethodHandle}s and a coercer, chosen once from the property type, that turns a request parameter into the
+ * value handed to the setter.
+ */
+final class BeanProperties {
+
+    private static final ClassValue<BeanProperties> PLANS = new ClassValue<>() {
+        @Override
+        protected BeanProperties computeValue(Class<?> beanClass) {
+            try {
+                return new BeanProperties(beanClass, Introspector.getBeanInfo(beanClass));
+            } catch (IntrospectionException ex) {
+                // Not cached by ClassValue, so the next lookup introspects again
+                throw new UndeclaredThrowableException(ex);
+            }
+        }
+    };
+
+    private final Class<?> beanClass;
+    private final boolean hasBeanInfo;
+    private final Map<String, Property> properties;
+
+    private BeanProperties(Class<?> beanClass, BeanInfo info) {
+        this.beanClass = beanClass;
+        this.hasBeanInfo = info != null;
+        this.properties = new HashMap<>();
+
+        if (info != null) {
+            PropertyDescriptor[] pds = info.getPropertyDescriptors();
+            for (PropertyDescriptor pd : pds) {
+                // First descriptor with a given name wins, like the linear search it replaces
+                properties.putIfAbsent(pd.getName(), new Property(pd));
+            }
+        }
+    }
+
+    /**
+     * Returns the plan for the given bean class, introspecting it on first use.
+     */
+    static BeanProperties forClass(Class<?> beanClass) throws WaspException {
+        try {
+            return PLANS.get(beanClass);
+        } catch (UndeclaredThrowableException ex) {
+            throw new WaspException(ex.getUndeclaredThrowable());
+        }
+    }
+
+    /**
+     * Returns the named property, or <code>null</code> if the bean has no such property.
+     */
+    Property get(String name) {
+        return properties.get(name);
+    }
+
+    /**
+     * Returns the named property, failing if it has no read method.
+     */
+    Property readable(String name) throws WaspException {
+        Property property = lookup(name);
+        if (property.readMethod == null) {
+            if (property.type == null) {
+                throw new WaspException(Localizer.getMessage("jsp.error.beans.noproperty", name, beanClass.getName()));
+            }
+            throw new WaspException(Localizer.getMessage("jsp.error.beans.nomethod", name, beanClass.getName()));
+        }
+
+        return property;
+    }
+
+    /**
+     * Returns the named property, failing if it has no write method.
+     */
+    Property writable(String name) throws WaspException {
+        Property property = lookup(name);
+        if (property.writeMethod == null) {
+            if (property.type == null) {
+                throw new WaspException(Localizer.getMessage("jsp.error.beans.noproperty", name, beanClass.getName()));
+            }
+            throw new WaspException(
+                    Localizer.getMessage("jsp.error.beans.nomethod.setproperty", name, property.type.getName(), beanClass.getName()));
+        }
+
+        return property;
+    }
+
+    private Property lookup(String name) throws WaspException {
+        if (!hasBeanInfo) {
+            // just in case introspection silently fails.
+            throw new WaspException(Localizer.getMessage("jsp.error.beans.nobeaninfo", beanClass.getName()));
+        }
+
+        Property property = properties.get(name);
+        if (property == null) {
+            throw new WaspException(Localizer.getMessage("jsp.error.beans.noproperty", name, beanClass.getName()));
+        }
+
+        return property;
+    }
+
+    /**
+     * Returns the coercer that converts a String into a value of type <code>t</code>, following the rules of
+     * {@link JspRuntimeLibrary#convert(String, String, Class, Class)}.
+     */
+    static Coercer coercerFor(Class<?> t, Class<?> propertyEditorClass) {
+        if (propertyEditorClass != null) {
+            return (propertyName, s) -> JspRuntimeLibrary.getValueFromBeanInfoPropertyEditor(t, propertyName, s, propertyEditorClass);
+        }
+        if (t == Boolean.class || t == Boolean.TYPE) {
+            return (propertyName, s) -> s.equalsIgnoreCase("on") || s.equalsIgnoreCase("true") ? Boolean.TRUE : Boolean.FALSE;
+        }
+        if (t == Byte.class || t == Byte.TYPE) {
+            return (propertyName, s) -> Byte.valueOf(s);
+        }
+        if (t == Character.class || t == Character.TYPE) {
+            return (propertyName, s) -> s.length() > 0 ? Character.valueOf(s.charAt(0)) : null;
+        }
+        if (t == Short.class || t == Short.TYPE) {
+            return (propertyName, s) -> Short.valueOf(s);
+        }
+        if (t == Integer.class || t == Integer.TYPE) {
+            return (propertyName, s) -> Integer.valueOf(s);
+        }
+        if (t == Float.class || t == Float.TYPE) {
+            return (propertyName, s) -> Float.valueOf(s);
+        }
+        if (t == Long.class || t == Long.TYPE) {
+            return (propertyName, s) -> Long.valueOf(s);
+        }
+        if (t == Double.class || t == Double.TYPE) {
+            return (propertyName, s) -> Double.valueOf(s);
+        }
+        if (t == String.class) {
+            return (propertyName, s) -> s;
+        }
+        if (t == File.class) {
+            return (propertyName, s) -> new File(s);
+        }
+        if (t == Object.class) {
+            return (propertyName, s) -> new Object[] { s };
+        }
+
+        return (propertyName, s) -> JspRuntimeLibrary.getValueFromPropertyEditorManager(t, propertyName, s);
+    }
+
+    /**
+     * Converts a non-null String into a property value.
+     */
+    @FunctionalInterface
+    interface Coercer {
+        Object coerce(String propertyName, String s) throws Exception;
+    }
+
+    /**
+     * A single bean property with its precomputed accessors.
+     */
+    static final class Property {
+
+        private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+        final String name;
+        final Class<?> type;
+        final Class<?> propertyEditorClass;
+        final Method readMethod;
+        final Method writeMethod;
+
+        private final MethodHandle reader;
+        private final MethodHandle writer;
+        private final Class<?> valueType;
+        private final Coercer coercer;
+
+        Property(PropertyDescriptor pd) {
+            this.name = pd.getName();
+            this.type = pd.getPropertyType();
+            this.propertyEditorClass = pd.getPropertyEditorClass();
+            this.readMethod = pd.getReadMethod();
+            this.writeMethod = pd.getWriteMethod();
+            this.reader = unreflect(readMethod, methodType(Object.class, Object.class));
+            this.writer = unreflect(writeMethod, methodType(void.class, Object.class, Object.class));
+            this.valueType = writeMethod == null ? null : methodType(writeMethod.getParameterTypes()[0]).wrap().returnType();
+            this.coercer = type == null || type.isArray() ? null : coercerFor(type, propertyEditorClass);
+        }
+
+        /**
+         * Invokes the read method on the given bean. Fails just like {@link Method#invoke}, so an exception thrown by the
+         * read method comes wrapped in an {@link InvocationTargetException}.
+         */
+        Object get(Object bean) throws Exception {
+            if (reader == null || !readMethod.getDeclaringClass().isInstance(bean)) {
+                // Let reflection report a bad receiver
+                return readMethod.invoke(bean, (Object[]) null);
+            }
+
+            try {
+                return (Object) reader.invokeExact(bean);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+
+        /**
+         * Invokes the write method on the given bean. Fails just like {@link Method#invoke}, so an exception thrown by
+         * the write method comes wrapped in an {@link InvocationTargetException}.
+         */
+        void set(Object bean, Object value) throws Exception {
+            if (writer == null || !writeMethod.getDeclaringClass().isInstance(bean) || !valueType.isInstance(value)) {
+                // Let reflection report a bad receiver or argument, and apply widening conversions
+                writeMethod.invoke(bean, value);
+                return;
+            }
+
+            try {
+                writer.invokeExact(bean, value);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+
+        /**
+         * Converts a non-null request parameter into a value for the write method.
+         */
+        Object coerce(String s) throws Exception {
+            return coercer.coerce(name, s);
+        }
+
+        private static MethodHandle unreflect(Method method, MethodType erasedType) {
+            if (method == null) {
+                return null;
+            }
+
+            try {
+                return LOOKUP.unreflect(method).asType(erasedType);
+            } catch (IllegalAccessException ex) {
+                // Fall back to reflective invocation, which reports the access problem at call time
+                return null;
+            }
+        }
+    }
+}
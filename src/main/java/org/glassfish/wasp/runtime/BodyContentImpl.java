@@ -161,6 +161,42 @@ public class BodyContentImpl extends BodyContent {
         }
     }
 
+    /**
+     * Write a character sequence, replacing the XML special characters by their entity references. Characters are
+     * copied straight into the body buffer and the entities substituted in place, without an intermediate copy of the
+     * text.
+     *
+     * @param text The text to be escaped and written
+     * @see XmlEscaper
+     */
+    public void writeEscapedXml(CharSequence text) throws IOException {
+        if (writer != null) {
+            XmlEscaper.write(writer, text);
+            return;
+        }
+
+        ensureOpen();
+        int length = text.length();
+        if (length >= bufferSize - nextChar) {
+            reAllocBuff(length);
+        }
+
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            char[] escaped = XmlEscaper.entityFor(c);
+            if (escaped == null) {
+                cb[nextChar++] = c;
+            } else {
+                // Room for the rest of the text is reserved, the entity needs its extra characters on top of that
+                if (escaped.length + length - i >= bufferSize - nextChar) {
+                    reAllocBuff(escaped.length + length - i);
+                }
+                System.arraycopy(escaped, 0, cb, nextChar, escaped.length);
+                nextChar += escaped.length;
+            }
+        }
+    }
+
     /**
      * Write a line separator. The line separator string is defined by the system property <tt>line.separator</tt>, and is
      * not necessarily a single newline ('\n') character.
@@ -205,9 +241,9 @@ public class BodyContentImpl extends BodyContent {
     @Override
     public void print(char c) throws IOException {
         if (writer != null) {
-            writer.write(String.valueOf(c));
+            writer.write(c);
         } else {
-            write(String.valueOf(c));
+            write(c);
         }
     }
 
@@ -224,7 +260,7 @@ public class BodyContentImpl extends BodyContent {
         if (writer != null) {
             writer.write(String.valueOf(i));
         } else {
-            write(String.valueOf(i));
+            writeDecimal(i);
         }
     }
 
@@ -241,8 +277,22 @@ public class BodyContentImpl extends BodyContent {
         if (writer != null) {
             writer.write(String.valueOf(l));
         } else {
-            write(String.valueOf(l));
+            writeDecimal(l);
+        }
+    }
+
+    /**
+     * Formats the value straight into the buffer, without creating a String.
+     */
+    private void writeDecimal(long l) throws IOException {
+        ensureOpen();
+        int len = DecimalDigits.stringSize(l);
+        if (len >= bufferSize - nextChar) {
+            reAllocBuff(len);
         }
+
+        DecimalDigits.getChars(l, nextChar + len, cb);
+        nextChar += len;
     }
 
     /**
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2026 Contributors to Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.wasp.runtime;
+
+/**
+ * Formats integers into a caller supplied <code>char[]</code>, producing the same characters as
+ * {@link Long#toString(long)}, so {@link JspWriterImpl} and {@link BodyContentImpl} can print numbers without
+ * allocating a String per value.
+ */
+final class DecimalDigits {
+
+    private DecimalDigits() {
+    }
+
+    /**
+     * Returns the number of characters needed to print the given value, including the sign.
+     */
+    static int stringSize(long x) {
+        // Work on the negative value, which also covers Long.MIN_VALUE
+        int d = 1;
+        if (x >= 0) {
+            d = 0;
+            x = -x;
+        }
+
+        long p = -10;
+        for (int i = 1; i < 19; i++) {
+            if (x > p) {
+                return i + d;
+            }
+            p = 10 * p;
+        }
+
+        return 19 + d;
+    }
+
+    /**
+     * Writes the given value into <code>buf</code>, with its last character at <code>end - 1</code>. The caller
+     * reserves {@link #stringSize(long)} characters in front of <code>end</code>.
+     */
+    static void getChars(long x, int end, char[] buf) {
+        boolean negative = x < 0;
+        if (!negative) {
+            x = -x;
+        }
+
+        int pos = end;
+        while (x <= -10) {
+            long q = x / 10;
+            buf[--pos] = (char) ('0' + (q * 10 - x));
+            x = q;
+        }
+        buf[--pos] = (char) ('0' - x);
+
+        if (negative) {
+            buf[pos - 1] = '-';
+        }
+    }
+}
@@ -27,7 +27,6 @@ import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -65,7 +64,7 @@ public class JspContextWrapper extends PageContext {
     // Invoking JSP context
     private PageContext invokingJspCtxt;
 
-    private Hashtable<String, Object> pageAttributes;
+    private final PageAttributes pageAttributes;
 
     // ArrayList of NESTED scripting variables
     private List<String> nestedVars;
@@ -80,6 +79,9 @@ public class JspContextWrapper extends PageContext {
     private Map<String, Object> originalNestedVars;
     private ELContext elContext;
 
+    // Used instead of the tag when there is no tag handler instance
+    private boolean errorOnELNotFound;
+
     public JspContextWrapper(JspTag jspTag, JspContext jspContext, ArrayList<String> nestedVars, ArrayList<String> atBeginVars, ArrayList<String> atEndVars,
             Map<String, String> aliases) {
         this.jspTag = jspTag;
@@ -87,7 +89,7 @@ public class JspContextWrapper extends PageContext {
         this.nestedVars = nestedVars;
         this.atBeginVars = atBeginVars;
         this.atEndVars = atEndVars;
-        this.pageAttributes = new Hashtable<>(16);
+        this.pageAttributes = new PageAttributes();
         this.aliases = aliases;
 
         if (nestedVars != null) {
@@ -96,6 +98,15 @@ public class JspContextWrapper extends PageContext {
         syncBeginTagFile();
     }
 
+    /**
+     * Creates a wrapper for a tag file invoked through its static inline entry point, which has no tag handler instance
+     * and declares no scripting variables.
+     */
+    public JspContextWrapper(JspContext jspContext, boolean errorOnELNotFound) {
+        this(null, jspContext, null, null, null, null);
+        this.errorOnELNotFound = errorOnELNotFound;
+    }
+
     @Override
     public void initialize(Servlet servlet, ServletRequest request, ServletResponse response, String errorPageURL, boolean needsSession, int bufferSize,
             boolean autoFlush) throws IOException, IllegalStateException, IllegalArgumentException {
@@ -218,7 +229,7 @@ public class JspContextWrapper extends PageContext {
     @Override
     public Enumeration<String> getAttributeNamesInScope(int scope) {
         if (scope == PAGE_SCOPE) {
-            return pageAttributes.keys();
+            return pageAttributes.names();
         }
 
         return invokingJspCtxt.getAttributeNamesInScope(scope);
@@ -309,7 +320,7 @@ public class JspContextWrapper extends PageContext {
             return ((JspSourceDependent) jspTag).getErrorOnELNotFound();
         }
 
-        return false;
+        return errorOnELNotFound;
     }
 
     @Override
@@ -27,8 +27,6 @@ import jakarta.servlet.jsp.JspWriter;
 import jakarta.servlet.jsp.PageContext;
 import jakarta.servlet.jsp.tagext.BodyContent;
 
-import java.beans.BeanInfo;
-import java.beans.Introspector;
 import java.beans.PropertyEditor;
 import java.beans.PropertyEditorManager;
 import java.io.IOException;
@@ -216,37 +214,7 @@ public class JspRuntimeLibrary {
                     return null;
                 }
             }
-            if (propertyEditorClass != null) {
-                return getValueFromBeanInfoPropertyEditor(t, propertyName, s, propertyEditorClass);
-            } else if (t.equals(Boolean.class) || t.equals(Boolean.TYPE)) {
-                if (s.equalsIgnoreCase("on") || s.equalsIgnoreCase("true")) {
-                    return Boolean.TRUE;
-                } else {
-                    return Boolean.FALSE;
-                }
-            } else if (t.equals(Byte.class) || t.equals(Byte.TYPE)) {
-                return Byte.valueOf(s);
-            } else if (t.equals(Character.class) || t.equals(Character.TYPE)) {
-                return s.length() > 0 ? Character.valueOf(s.charAt(0)) : null;
-            } else if (t.equals(Short.class) || t.equals(Short.TYPE)) {
-                return Short.valueOf(s);
-            } else if (t.equals(Integer.class) || t.equals(Integer.TYPE)) {
-                return Integer.valueOf(s);
-            } else if (t.equals(Float.class) || t.equals(Float.TYPE)) {
-                return Float.valueOf(s);
-            } else if (t.equals(Long.class) || t.equals(Long.TYPE)) {
-                return Long.valueOf(s);
-            } else if (t.equals(Double.class) || t.equals(Double.TYPE)) {
-                return Double.valueOf(s);
-            } else if (t.equals(String.class)) {
-                return s;
-            } else if (t.equals(java.io.File.class)) {
-                return new java.io.File(s);
-            } else if (t.getName().equals("java.lang.Object")) {
-                return new Object[] { s };
-            } else {
-                return getValueFromPropertyEditorManager(t, propertyName, s);
-            }
+            return BeanProperties.coercerFor(t, propertyEditorClass).coerce(propertyName, s);
         } catch (Exception ex) {
             throw new WaspException(ex);
         }
@@ -255,11 +223,13 @@ public class JspRuntimeLibrary {
 
     // __begin introspectMethod
     public static void introspect(Object bean, ServletRequest request) throws WaspException {
+        // Resolve the property plan once for the whole parameter loop
+        BeanProperties properties = BeanProperties.forClass(bean.getClass());
         Enumeration<String> e = request.getParameterNames();
         while (e.hasMoreElements()) {
             String name = e.nextElement();
             String value = request.getParameter(name);
-            introspecthelper(bean, name, value, request, name, true);
+            introspecthelper(properties, bean, name, value, request, name, true);
         }
     }
     // __end introspectMethod
@@ -267,23 +237,16 @@ public class JspRuntimeLibrary {
     // __begin introspecthelperMethod
     public static void introspecthelper(Object bean, String prop, String value, ServletRequest request, String param, boolean ignoreMethodNF)
             throws WaspException {
-        Method method = null;
-        Class<?> type = null;
-        Class<?> propertyEditorClass = null;
+        introspecthelper(BeanProperties.forClass(bean.getClass()), bean, prop, value, request, param, ignoreMethodNF);
+    }
+
+    private static void introspecthelper(BeanProperties properties, Object bean, String prop, String value, ServletRequest request, String param,
+            boolean ignoreMethodNF) throws WaspException {
+        BeanProperties.Property property = properties.get(prop);
+        Method method = property == null ? null : property.writeMethod;
+        Class<?> type = property == null ? null : property.type;
 
         try {
-            java.beans.BeanInfo info = java.beans.Introspector.getBeanInfo(bean.getClass());
-            if (info != null) {
-                java.beans.PropertyDescriptor pd[] = info.getPropertyDescriptors();
-                for (int i = 0; i < pd.length; i++) {
-                    if (pd[i].getName().equals(prop)) {
-                        method = pd[i].getWriteMethod();
-                        type = pd[i].getPropertyType();
-                        propertyEditorClass = pd[i].getPropertyEditorClass();
-                        break;
-                    }
-                }
-            }
             if (method != null) {
                 if (type.isArray()) {
                     if (request == null) {
@@ -298,17 +261,17 @@ public class JspRuntimeLibrary {
                     }
 
                     if (t.equals(String.class)) {
-                        method.invoke(bean, new Object[] { values });
+                        property.set(bean, values);
                     } else {
-                        createTypedArray(prop, bean, method, values, t, propertyEditorClass);
+                        createTypedArray(prop, bean, method, values, t, property.propertyEditorClass);
                     }
                 } else {
                     if (value == null || param != null && value.equals("")) {
                         return;
                     }
-                    Object oval = convert(prop, value, type, propertyEditorClass);
+                    Object oval = property.coerce(value);
                     if (oval != null) {
-                        method.invoke(bean, oval);
+                        property.set(bean, oval);
                     }
                 }
             }
@@ -521,8 +484,7 @@ public class JspRuntimeLibrary {
         }
         Object value = null;
         try {
-            Method method = getReadMethod(o.getClass(), prop);
-            value = method.invoke(o, (Object[]) null);
+            value = BeanProperties.forClass(o.getClass()).readable(prop).get(o);
         } catch (Exception ex) {
             throw new WaspException(ex);
         }
@@ -541,8 +503,8 @@ public class JspRuntimeLibrary {
     public static void handleSetPropertyExpression(Object bean, String prop, String expression, PageContext pageContext, ProtectedFunctionMapper functionMapper)
             throws WaspException {
         try {
-            Method method = getWriteMethod(bean.getClass(), prop);
-            method.invoke(bean, PageContextImpl.evaluateExpression(expression, method.getParameterTypes()[0], pageContext, functionMapper));
+            BeanProperties.Property property = BeanProperties.forClass(bean.getClass()).writable(prop);
+            property.set(bean, PageContextImpl.evaluateExpression(expression, property.writeMethod.getParameterTypes()[0], pageContext, functionMapper));
         } catch (Exception ex) {
             throw new WaspException(ex);
         }
@@ -550,8 +512,7 @@ public class JspRuntimeLibrary {
 
     public static void handleSetProperty(Object bean, String prop, Object value) throws WaspException {
         try {
-            Method method = getWriteMethod(bean.getClass(), prop);
-            method.invoke(bean, value);
+            BeanProperties.forClass(bean.getClass()).writable(prop).set(bean, value);
         } catch (Exception ex) {
             throw new WaspException(ex);
         }
@@ -559,8 +520,7 @@ public class JspRuntimeLibrary {
 
     public static void handleSetProperty(Object bean, String prop, int value) throws WaspException {
         try {
-            Method method = getWriteMethod(bean.getClass(), prop);
-            method.invoke(bean, Integer.valueOf(value));
+            BeanProperties.forClass(bean.getClass()).writable(prop).set(bean, Integer.valueOf(value));
         } catch (Exception ex) {
             throw new WaspException(ex);
         }
@@ -568,8 +528,7 @@ public class JspRuntimeLibrary {
 
     public static void handleSetProperty(Object bean, String prop, short value) throws WaspException {
         try {
-            Method method = getWriteMethod(bean.getClass(), prop);
-            method.invoke(bean, Short.valueOf(value));
+            BeanProperties.forClass(bean.getClass()).writable(prop).set(bean, Short.valueOf(value));
         } catch (Exception ex) {
             throw new WaspException(ex);
         }
@@ -577,8 +536,7 @@ public class JspRuntimeLibrary {
 
     public static void handleSetProperty(Object bean, String prop, long value) throws WaspException {
         try {
-            Method method = getWriteMethod(bean.getClass(), prop);
-            method.invoke(bean, Long.valueOf(value));
+            BeanProperties.forClass(bean.getClass()).writable(prop).set(bean, Long.valueOf(value));
         } catch (Exception ex) {
             throw new WaspException(ex);
         }
@@ -586,8 +544,7 @@ public class JspRuntimeLibrary {
 
     public static void handleSetProperty(Object bean, String prop, double value) throws WaspException {
         try {
-            Method method = getWriteMethod(bean.getClass(), prop);
-            method.invoke(bean, Double.valueOf(value));
+            BeanProperties.forClass(bean.getClass()).writable(prop).set(bean, Double.valueOf(value));
         } catch (Exception ex) {
             throw new WaspException(ex);
         }
@@ -595,8 +552,7 @@ public class JspRuntimeLibrary {
 
     public static void handleSetProperty(Object bean, String prop, float value) throws WaspException {
         try {
-            Method method = getWriteMethod(bean.getClass(), prop);
-            method.invoke(bean, Float.valueOf(value));
+            BeanProperties.forClass(bean.getClass()).writable(prop).set(bean, Float.valueOf(value));
         } catch (Exception ex) {
             throw new WaspException(ex);
         }
@@ -604,8 +560,7 @@ public class JspRuntimeLibrary {
 
     public static void handleSetProperty(Object bean, String prop, char value) throws WaspException {
         try {
-            Method method = getWriteMethod(bean.getClass(), prop);
-            method.invoke(bean, Character.valueOf(value));
+            BeanProperties.forClass(bean.getClass()).writable(prop).set(bean, Character.valueOf(value));
         } catch (Exception ex) {
             throw new WaspException(ex);
         }
@@ -613,8 +568,7 @@ public class JspRuntimeLibrary {
 
     public static void handleSetProperty(Object bean, String prop, byte value) throws WaspException {
         try {
-            Method method = getWriteMethod(bean.getClass(), prop);
-            method.invoke(bean, Byte.valueOf(value));
+            BeanProperties.forClass(bean.getClass()).writable(prop).set(bean, Byte.valueOf(value));
         } catch (Exception ex) {
             throw new WaspException(ex);
         }
@@ -622,77 +576,18 @@ public class JspRuntimeLibrary {
 
     public static void handleSetProperty(Object bean, String prop, boolean value) throws WaspException {
         try {
-            Method method = getWriteMethod(bean.getClass(), prop);
-            method.invoke(bean, Boolean.valueOf(value));
+            BeanProperties.forClass(bean.getClass()).writable(prop).set(bean, Boolean.valueOf(value));
         } catch (Exception ex) {
             throw new WaspException(ex);
         }
     }
 
     public static Method getWriteMethod(Class<?> beanClass, String prop) throws WaspException {
-        Method method = null;
-        Class<?> type = null;
-        try {
-            BeanInfo info = Introspector.getBeanInfo(beanClass);
-            if (info != null) {
-                java.beans.PropertyDescriptor pd[] = info.getPropertyDescriptors();
-                for (int i = 0; i < pd.length; i++) {
-                    if (pd[i].getName().equals(prop)) {
-                        method = pd[i].getWriteMethod();
-                        type = pd[i].getPropertyType();
-                        break;
-                    }
-                }
-            } else {
-                // just in case introspection silently fails.
-                throw new WaspException(Localizer.getMessage("jsp.error.beans.nobeaninfo", beanClass.getName()));
-            }
-        } catch (Exception ex) {
-            throw new WaspException(ex);
-        }
-
-        if (method == null) {
-            if (type == null) {
-                throw new WaspException(Localizer.getMessage("jsp.error.beans.noproperty", prop, beanClass.getName()));
-            } else {
-                throw new WaspException(Localizer.getMessage("jsp.error.beans.nomethod.setproperty", prop, type.getName(), beanClass.getName()));
-            }
-        }
-        return method;
+        return BeanProperties.forClass(beanClass).writable(prop).writeMethod;
     }
 
     public static Method getReadMethod(Class<?> beanClass, String prop) throws WaspException {
-
-        Method method = null;
-        Class<?> type = null;
-        try {
-            java.beans.BeanInfo info = java.beans.Introspector.getBeanInfo(beanClass);
-            if (info != null) {
-                java.beans.PropertyDescriptor pd[] = info.getPropertyDescriptors();
-                for (int i = 0; i < pd.length; i++) {
-                    if (pd[i].getName().equals(prop)) {
-                        method = pd[i].getReadMethod();
-                        type = pd[i].getPropertyType();
-                        break;
-                    }
-                }
-            } else {
-                // just in case introspection silently fails.
-                throw new WaspException(Localizer.getMessage("jsp.error.beans.nobeaninfo", beanClass.getName()));
-            }
-        } catch (Exception ex) {
-            throw new WaspException(ex);
-        }
-
-        if (method == null) {
-            if (type == null) {
-                throw new WaspException(Localizer.getMessage("jsp.error.beans.noproperty", prop, beanClass.getName()));
-            } else {
-                throw new WaspException(Localizer.getMessage("jsp.error.beans.nomethod", prop, beanClass.getName()));
-            }
-        }
-
-        return method;
+        return BeanProperties.forClass(beanClass).readable(prop).readMethod;
     }
 
     // *********************************************************************
@@ -428,6 +428,54 @@ public class JspWriterImpl extends JspWriter {
         write(s, 0, s != null ? s.length() : 0);
     }
 
+    /**
+     * Write a character sequence, replacing the XML special characters by their entity references. Characters are
+     * copied straight into the buffer and the entities substituted in place, without an intermediate copy of the text.
+     *
+     * @param text The text to be escaped and written
+     * @see XmlEscaper
+     */
+    public void writeEscapedXml(CharSequence text) throws IOException {
+        ensureOpen();
+        if (bufferSize == 0) {
+            initOut();
+            XmlEscaper.writeRuns(out, text);
+            return;
+        }
+
+        int length = text.length();
+        if (length > 0 && getRemaining() == 0) {
+            // write(int) leaves a full buffer behind
+            if (autoFlush) {
+                flushBuffer();
+            } else {
+                bufferOverflow();
+            }
+        }
+
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            char[] escaped = XmlEscaper.entityFor(c);
+            if (escaped == null) {
+                buf.buf[buf.pos++] = c;
+            } else if (escaped.length <= getRemaining()) {
+                System.arraycopy(escaped, 0, buf.buf, buf.pos, escaped.length);
+                buf.pos += escaped.length;
+            } else {
+                // Entity straddles the end of the buffer
+                write(escaped, 0, escaped.length);
+                continue;
+            }
+            if (getRemaining() == 0) {
+                if (autoFlush) {
+                    flushBuffer();
+                } else {
+                    bufferOverflow();
+                }
+            }
+        }
+    }
+
     static String lineSeparator = System.getProperty("line.separator");
 
     /**
@@ -466,7 +514,7 @@ public class JspWriterImpl extends JspWriter {
      */
     @Override
     public void print(char c) throws IOException {
-        write(String.valueOf(c));
+        write(c);
     }
 
     /**
@@ -478,7 +526,7 @@ public class JspWriterImpl extends JspWriter {
      */
     @Override
     public void print(int i) throws IOException {
-        write(String.valueOf(i));
+        writeDecimal(i);
     }
 
     /**
@@ -490,7 +538,29 @@ public class JspWriterImpl extends JspWriter {
      */
     @Override
     public void print(long l) throws IOException {
-        write(String.valueOf(l));
+        writeDecimal(l);
+    }
+
+    /**
+     * Formats the value straight into the buffer when it fits, without creating a String.
+     */
+    private void writeDecimal(long l) throws IOException {
+        ensureOpen();
+        int len = DecimalDigits.stringSize(l);
+        if (bufferSize == 0 || len > getRemaining()) {
+            write(String.valueOf(l));
+            return;
+        }
+
+        DecimalDigits.getChars(l, buf.pos + len, buf.buf);
+        buf.pos += len;
+        if (getRemaining() == 0) {
+            if (autoFlush) {
+                flushBuffer();
+            } else {
+                bufferOverflow();
+            }
+        }
     }
 
     /**
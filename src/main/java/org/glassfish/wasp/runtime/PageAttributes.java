@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2026 Contributors to Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.wasp.runtime;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+
+/**
+ * Page-scope attribute storage for {@link PageContextImpl} and {@link JspContextWrapper}.
+ *
+ * <p>
+ * A page scope rarely holds more than a dozen attributes and is only ever touched by the thread processing the page, so
+ * this is a small open-addressing table with linear probing over parallel key and value arrays, rather than a
+ * <code>HashMap</code> with one entry object per attribute. The arrays are allocated on the first <code>put</code>,
+ * and {@link #clear()} empties them in place so a pooled page context reuses its table across requests.
+ *
+ * <p>
+ * Keys and values are never <code>null</code>; callers remove an attribute instead of storing <code>null</code>.
+ */
+final class PageAttributes {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Tables that grew beyond this are dropped on clear() instead of being kept for the next request
+    private static final int MAX_RETAINED_CAPACITY = 64;
+
+    private String[] keys;
+    private Object[] values;
+    private int size;
+
+    Object get(String name) {
+        String[] keys = this.keys;
+        if (keys == null) {
+            return null;
+        }
+
+        int mask = keys.length - 1;
+        for (int i = indexFor(name, mask);; i = (i + 1) & mask) {
+            String key = keys[i];
+            if (key == null) {
+                return null;
+            }
+            if (key == name || key.equals(name)) {
+                return values[i];
+            }
+        }
+    }
+
+    void put(String name, Object value) {
+        if (keys == null) {
+            keys = new String[INITIAL_CAPACITY];
+            values = new Object[INITIAL_CAPACITY];
+        }
+
+        int mask = keys.length - 1;
+        int i = indexFor(name, mask);
+        for (;; i = (i + 1) & mask) {
+            String key = keys[i];
+            if (key == null) {
+                break;
+            }
+            if (key == name || key.equals(name)) {
+                values[i] = value;
+                return;
+            }
+        }
+
+        keys[i] = name;
+        values[i] = value;
+        // Keep the load factor at or below 3/4 so probe sequences stay short
+        if (++size > (keys.length >> 2) * 3) {
+            resize(keys.length << 1);
+        }
+    }
+
+    void remove(String name) {
+        String[] keys = this.keys;
+        if (keys == null) {
+            return;
+        }
+
+        int mask = keys.length - 1;
+        int i = indexFor(name, mask);
+        for (;; i = (i + 1) & mask) {
+            String key = keys[i];
+            if (key == null) {
+                return;
+            }
+            if (key == name || key.equals(name)) {
+                break;
+            }
+        }
+
+        // Backward-shift deletion: move later entries of the same probe run into the hole
+        int hole = i;
+        for (int j = (hole + 1) & mask;; j = (j + 1) & mask) {
+            String key = keys[j];
+            if (key == null) {
+                break;
+            }
+            int home = indexFor(key, mask);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = key;
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = null;
+        values[hole] = null;
+        size--;
+    }
+
+    /**
+     * Returns a snapshot of the attribute names, so callers may modify the scope while enumerating.
+     */
+    Enumeration<String> names() {
+        if (size == 0) {
+            return Collections.emptyEnumeration();
+        }
+
+        String[] names = new String[size];
+        int n = 0;
+        for (String key : keys) {
+            if (key != null) {
+                names[n++] = key;
+            }
+        }
+
+        return Collections.enumeration(Arrays.asList(names));
+    }
+
+    void clear() {
+        if (keys == null) {
+            return;
+        }
+
+        if (keys.length > MAX_RETAINED_CAPACITY) {
+            keys = null;
+            values = null;
+        } else if (size > 0) {
+            Arrays.fill(keys, null);
+            Arrays.fill(values, null);
+        }
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        String[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new String[capacity];
+        values = new Object[capacity];
+
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            String key = oldKeys[j];
+            if (key != null) {
+                int i = indexFor(key, mask);
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private static int indexFor(String name, int mask) {
+        int h = name.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
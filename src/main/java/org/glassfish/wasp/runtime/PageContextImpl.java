@@ -54,9 +54,7 @@ import jakarta.servlet.jsp.tagext.BodyContent;
 
 import java.io.IOException;
 import java.io.Writer;
-import java.util.Collections;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.logging.Logger;
 
@@ -93,7 +91,7 @@ public class PageContextImpl extends PageContext {
     private ELContext elContext;
 
     // page-scope attributes
-    private HashMap<String, Object> attributes;
+    private final PageAttributes attributes;
     private boolean isNametableInitialized;
 
     // per-request state
@@ -110,7 +108,7 @@ public class PageContextImpl extends PageContext {
      */
     PageContextImpl(JspFactory factory) {
         this.outs = new BodyContentImpl[0];
-        this.attributes = new HashMap<>(16);
+        this.attributes = new PageAttributes();
         this.depth = -1;
     }
 
@@ -441,7 +439,7 @@ public class PageContextImpl extends PageContext {
             if (!isNametableInitialized) {
                 initializePageScopeNameTable();
             }
-            return Collections.enumeration(attributes.keySet());
+            return attributes.names();
 
         case REQUEST_SCOPE:
             return request.getAttributeNames();
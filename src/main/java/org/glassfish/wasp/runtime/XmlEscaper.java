@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2026 Contributors to Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.wasp.runtime;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes text with the XML special characters replaced by entity references:
+ *
+ * {@literal &} -{@literal >} {@literal &amp;} {@literal <} -{@literal >} {@literal &lt;} {@literal >} -{@literal >}
+ * {@literal &gt;} {@literal "} -{@literal >} {@literal &#034;} {@literal '} -{@literal >} {@literal &#039;}
+ *
+ * <p>
+ * The writers of this package escape straight into their own buffers, see {@link JspWriterImpl#writeEscapedXml} and
+ * {@link BodyContentImpl#writeEscapedXml}. Any other writer gets the unescaped runs of the text and the entity
+ * references written block by block, so no copy of the text is made either way.
+ */
+public final class XmlEscaper {
+
+    static final int HIGHEST_SPECIAL = '>';
+
+    private static final char[][] ENTITIES = new char[HIGHEST_SPECIAL + 1][];
+
+    static {
+        ENTITIES['&'] = "&amp;".toCharArray();
+        ENTITIES['<'] = "&lt;".toCharArray();
+        ENTITIES['>'] = "&gt;".toCharArray();
+        ENTITIES['"'] = "&#034;".toCharArray();
+        ENTITIES['\''] = "&#039;".toCharArray();
+    }
+
+    private XmlEscaper() {
+    }
+
+    /**
+     * Writes the given text to the given writer, escaping the XML special characters.
+     *
+     * @param out The writer to write to
+     * @param text The text to escape
+     * @throws IOException If an I/O error occurs
+     */
+    public static void write(Writer out, CharSequence text) throws IOException {
+        if (out instanceof JspWriterImpl) {
+            ((JspWriterImpl) out).writeEscapedXml(text);
+        } else if (out instanceof BodyContentImpl) {
+            ((BodyContentImpl) out).writeEscapedXml(text);
+        } else {
+            writeRuns(out, text);
+        }
+    }
+
+    /**
+     * Returns the entity reference for the given character, or <code>null</code> if it needs no escaping.
+     */
+    static char[] entityFor(char c) {
+        return c <= HIGHEST_SPECIAL ? ENTITIES[c] : null;
+    }
+
+    /**
+     * Writes the unescaped runs of the text and the entity references in between to the given writer.
+     */
+    static void writeRuns(Writer out, CharSequence text) throws IOException {
+        int start = 0;
+        int length = text.length();
+
+        for (int i = 0; i < length; i++) {
+            char[] escaped = entityFor(text.charAt(i));
+            if (escaped != null) {
+                // add unescaped portion
+                if (start < i) {
+                    writeRun(out, text, start, i);
+                }
+                // add escaped xml
+                out.write(escaped);
+                start = i + 1;
+            }
+        }
+        // add rest of unescaped portion
+        if (start < length) {
+            writeRun(out, text, start, length);
+        }
+    }
+
+    private static void writeRun(Writer out, CharSequence text, int start, int end) throws IOException {
+        if (text instanceof String) {
+            out.write((String) text, start, end - start);
+        } else {
+            out.append(text, start, end);
+        }
+    }
+}
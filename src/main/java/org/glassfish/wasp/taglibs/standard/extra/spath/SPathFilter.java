@@ -18,6 +18,7 @@
 
 package org.glassfish.wasp.taglibs.standard.extra.spath;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Stack;
 
@@ -28,6 +29,7 @@ import org.apache.xalan.templates.OutputProperties;
 */
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
 import org.xml.sax.helpers.XMLFilterImpl;
 
 /**
@@ -52,6 +54,13 @@ public class SPathFilter extends XMLFilterImpl {
     private Stack<Integer> acceptedDepths; // depth of acceptance
     private int excludedDepth; // depth of exclusion
 
+    // whether the ancestors of accepted elements are passed through too
+    private final boolean keepAncestors;
+    private List<PendingElement> ancestors; // enclosing elements not yet known to be kept
+    private List<String[]> mappings; // prefix mappings for the next element, not yet passed through
+    private int acceptedMappings; // prefix mappings passed through for the current accepted element
+    private int endMappings; // prefix mapping ends still to pass through for a closed element
+
     private static final boolean DEBUG = false;
 
     // *********************************************************************
@@ -79,6 +88,16 @@ public class SPathFilter extends XMLFilterImpl {
 
     /** Constructs a new SPathFilter, given a Path. */
     public SPathFilter(Path path) {
+        this(path, false);
+    }
+
+    /**
+     * Constructs a new SPathFilter, given a Path. If <code>keepAncestors</code> is true, the start and end of every
+     * element enclosing an accepted one are passed through as well, so that several accepted elements end up in one
+     * document shaped like the original one.
+     */
+    public SPathFilter(Path path, boolean keepAncestors) {
+        this.keepAncestors = keepAncestors;
         init();
         this.steps = path.getSteps();
     }
@@ -88,6 +107,10 @@ public class SPathFilter extends XMLFilterImpl {
         depth = 0;
         excludedDepth = -1;
         acceptedDepths = new Stack<>();
+        ancestors = keepAncestors ? new ArrayList<>() : null;
+        mappings = keepAncestors ? new ArrayList<>() : null;
+        acceptedMappings = 0;
+        endMappings = 0;
     }
 
     // *********************************************************************
@@ -102,6 +125,13 @@ public class SPathFilter extends XMLFilterImpl {
         // Always update the depth
         depth++;
 
+        // Prefix mappings declared on this element, if we held them back
+        List<String[]> elementMappings = null;
+        if (keepAncestors && !mappings.isEmpty()) {
+            elementMappings = mappings;
+            mappings = new ArrayList<>();
+        }
+
         // If we're in an accepted section, simply pass through
         if (isAccepted()) {
             getContentHandler().startElement(uri, localName, qName, a);
@@ -128,12 +158,21 @@ public class SPathFilter extends XMLFilterImpl {
 
             // Is it enough? give acceptance another chance...
             if (isAccepted()) {
+                startAncestors();
+                acceptedMappings = startMappings(elementMappings);
                 getContentHandler().startElement(uri, localName, qName, a);
+                return;
             }
         } else if (!currentStep.isDepthUnlimited()) {
             // If the step was preceded by '/' instead of '//', then
             // we can't have a match at this node or beneath it
             excludedDepth = depth - 1;
+            return;
+        }
+
+        // An accepted element may still turn up beneath this one
+        if (keepAncestors) {
+            ancestors.add(new PendingElement(depth, uri, localName, qName, a, elementMappings));
         }
 
         // Nothing left to check; no reason to include node
@@ -145,6 +184,7 @@ public class SPathFilter extends XMLFilterImpl {
     public void endElement(String uri, String localName, String qName) throws SAXException {
         // Reduce the depth
         depth--;
+        endMappings = 0;
 
         if (isExcluded()) {
             // Determine if exclusion ends with us
@@ -170,7 +210,20 @@ public class SPathFilter extends XMLFilterImpl {
         
         // Now, back off if we correspond to a "successful" start tag
         if (acceptedDepths.size() > 0 && acceptedDepths.peek() == depth) {
+            boolean wasAccepted = isAccepted();
             acceptedDepths.pop();
+            if (wasAccepted && !isAccepted()) {
+                endMappings = acceptedMappings;
+            }
+        }
+
+        // Close this element if it was kept as an ancestor
+        if (keepAncestors && !ancestors.isEmpty() && ancestors.get(ancestors.size() - 1).depth == depth + 1) {
+            PendingElement e = ancestors.remove(ancestors.size() - 1);
+            if (e.started) {
+                getContentHandler().endElement(e.uri, e.localName, e.qName);
+                endMappings = e.mappings == null ? 0 : e.mappings.size();
+            }
         }
     }
 
@@ -197,6 +250,9 @@ public class SPathFilter extends XMLFilterImpl {
     public void startPrefixMapping(String prefix, String uri) throws SAXException {
         if (isAccepted()) {
             getContentHandler().startPrefixMapping(prefix, uri);
+        } else if (keepAncestors && !isExcluded()) {
+            // hold it back with the element it belongs to
+            mappings.add(new String[] { prefix, uri });
         }
     }
 
@@ -204,6 +260,10 @@ public class SPathFilter extends XMLFilterImpl {
     public void endPrefixMapping(String prefix) throws SAXException {
         if (isAccepted()) {
             getContentHandler().endPrefixMapping(prefix);
+        } else if (endMappings > 0) {
+            // ends the mapping of an element we just closed
+            endMappings--;
+            getContentHandler().endPrefixMapping(prefix);
         }
     }
 
@@ -254,6 +314,31 @@ public class SPathFilter extends XMLFilterImpl {
         return true;
     }
 
+    /** Passes through the start of the enclosing elements that have not been passed through yet. */
+    private void startAncestors() throws SAXException {
+        if (!keepAncestors) {
+            return;
+        }
+        for (PendingElement e : ancestors) {
+            if (!e.started) {
+                startMappings(e.mappings);
+                getContentHandler().startElement(e.uri, e.localName, e.qName, e.attributes);
+                e.started = true;
+            }
+        }
+    }
+
+    /** Passes through the given prefix mappings, returning how many there were. */
+    private int startMappings(List<String[]> elementMappings) throws SAXException {
+        if (elementMappings == null) {
+            return 0;
+        }
+        for (String[] m : elementMappings) {
+            getContentHandler().startPrefixMapping(m[0], m[1]);
+        }
+        return elementMappings.size();
+    }
+
     /** Returns true if events should be passed through, false otherwise. */
     private boolean isAccepted() {
         return (acceptedDepths.size() >= steps.size());
@@ -263,4 +348,22 @@ public class SPathFilter extends XMLFilterImpl {
     private boolean isExcluded() {
         return (excludedDepth != -1);
     }
+
+    /** An element enclosing the current position, kept in case an accepted element turns up beneath it. */
+    private static final class PendingElement {
+        final int depth;
+        final String uri, localName, qName;
+        final Attributes attributes;
+        final List<String[]> mappings;
+        boolean started;
+
+        PendingElement(int depth, String uri, String localName, String qName, Attributes a, List<String[]> mappings) {
+            this.depth = depth;
+            this.uri = uri;
+            this.localName = localName;
+            this.qName = qName;
+            this.attributes = new AttributesImpl(a);
+            this.mappings = mappings;
+        }
+    }
 }
@@ -72,13 +72,6 @@ import java.util.Map;
  **/
 
 public class ArraySuffix extends ValueSuffix {
-    // -------------------------------------
-    // Constants
-    // -------------------------------------
-
-    // Zero-argument array
-    static Object[] sNoArgs = new Object[0];
-
     // -------------------------------------
     // Properties
     // -------------------------------------
@@ -225,7 +218,7 @@ public class ArraySuffix extends ValueSuffix {
         else if ((property = BeanInfoManager.getBeanInfoProperty(pValue.getClass(), indexStr, pLogger)) != null
                 && property.getReadMethod() != null) {
             try {
-                return property.getReadMethod().invoke(pValue, sNoArgs);
+                return property.getValue(pValue);
             } catch (InvocationTargetException exc) {
                 if (pLogger.isLoggingError()) {
                     pLogger.logError(Constants.ERROR_GETTING_PROPERTY, exc.getTargetException(), indexStr, pValue.getClass().getName());
@@ -27,13 +27,16 @@ import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Manages the BeanInfo for one class - contains the BeanInfo, and also a mapping from property name to
  * BeanInfoProperty. There are also static methods for accessing the BeanInfoManager for a class - those mappings are
- * cached permanently so that once the BeanInfoManager is calculated, it doesn't have to be calculated again.
+ * kept in a ClassValue, so that once the BeanInfoManager is calculated, it doesn't have to be calculated again, lookups
+ * take no lock, and the BeanInfoManager goes away together with the class loader of the bean. The indexed properties
+ * and event sets are only mapped the first time they are asked for.
  *
  * @author Nathan Abramson - Art Technology Group
  * @version $Change: 181181 $$DateTime: 2001/06/26 09:55:09 $$Author: kchung $
@@ -61,17 +64,27 @@ public class BeanInfoManager {
     /** Mapping from property name to BeanInfoProperty */
     Map<String, BeanInfoProperty> mPropertyByName;
 
-    /** Mapping from property name to BeanInfoIndexedProperty */
-    Map<String, BeanInfoIndexedProperty> mIndexedPropertyByName;
+    /** Mapping from property name to BeanInfoIndexedProperty, created on first use */
+    volatile Map<String, BeanInfoIndexedProperty> mIndexedPropertyByName;
 
-    /** Mapping from event set name to event set descriptor */
-    Map<String, EventSetDescriptor> mEventSetByName;
+    /** Mapping from event set name to event set descriptor, created on first use */
+    volatile Map<String, EventSetDescriptor> mEventSetByName;
 
     // Flag if this is initialized
-    boolean mInitialized;
+    volatile boolean mInitialized;
 
     /** The global mapping from class to BeanInfoManager */
-    static Map<Class<?>, BeanInfoManager> mBeanInfoManagerByClass = new HashMap<>();
+    static final ClassValue<BeanInfoManager> sBeanInfoManagerByClass = new ClassValue<>() {
+        @Override
+        protected BeanInfoManager computeValue(Class<?> pClass) {
+            // The BeanInfoManager is not initialized at this time, so that
+            // introspection errors can be reported to the Logger of the
+            // first caller. The first time someone tries to use it, it
+            // will be initialized (with proper synchronizations in place
+            // to make sure it is only initialized once).
+            return new BeanInfoManager(pClass);
+        }
+    };
 
     // -------------------------------------
     /**
@@ -88,33 +101,7 @@ public class BeanInfoManager {
      * Returns the BeanInfoManager for the specified class
      **/
     public static BeanInfoManager getBeanInfoManager(Class<?> pClass) {
-        BeanInfoManager ret = mBeanInfoManagerByClass.get(pClass);
-        if (ret == null) {
-            ret = createBeanInfoManager(pClass);
-        }
-        return ret;
-    }
-
-    // -------------------------------------
-    /**
-     *
-     * Creates and registers the BeanInfoManager for the given class if it isn't already registered.
-     **/
-    static synchronized BeanInfoManager createBeanInfoManager(Class<?> pClass) {
-        // Because this method is synchronized statically, the
-        // BeanInfoManager is not initialized at this time (otherwise it
-        // could end up being a bottleneck for the entire system). It is
-        // put into the map in an uninitialized state. The first time
-        // someone tries to use it, it will be initialized (with proper
-        // synchronizations in place to make sure it is only initialized
-        // once).
-
-        BeanInfoManager ret = mBeanInfoManagerByClass.get(pClass);
-        if (ret == null) {
-            ret = new BeanInfoManager(pClass);
-            mBeanInfoManagerByClass.put(pClass, ret);
-        }
-        return ret;
+        return sBeanInfoManagerByClass.get(pClass);
     }
 
     // -------------------------------------
@@ -162,33 +149,16 @@ public class BeanInfoManager {
             mBeanInfo = Introspector.getBeanInfo(mBeanClass);
 
             mPropertyByName = new HashMap<>();
-            mIndexedPropertyByName = new HashMap<>();
             PropertyDescriptor[] pds = mBeanInfo.getPropertyDescriptors();
             for (int i = 0; pds != null && i < pds.length; i++) {
-                // Treat as both an indexed property and a normal property
+                // An indexed property is also a normal property
                 PropertyDescriptor pd = pds[i];
-                if (pd instanceof IndexedPropertyDescriptor) {
-                    IndexedPropertyDescriptor ipd = (IndexedPropertyDescriptor) pd;
-                    Method readMethod = getPublicMethod(ipd.getIndexedReadMethod());
-                    Method writeMethod = getPublicMethod(ipd.getIndexedWriteMethod());
-                    BeanInfoIndexedProperty property = new BeanInfoIndexedProperty(readMethod, writeMethod, ipd);
-
-                    mIndexedPropertyByName.put(ipd.getName(), property);
-                }
-
                 Method readMethod = getPublicMethod(pd.getReadMethod());
                 Method writeMethod = getPublicMethod(pd.getWriteMethod());
                 BeanInfoProperty property = new BeanInfoProperty(readMethod, writeMethod, pd);
 
                 mPropertyByName.put(pd.getName(), property);
             }
-
-            mEventSetByName = new HashMap<>();
-            EventSetDescriptor[] esds = mBeanInfo.getEventSetDescriptors();
-            for (int i = 0; esds != null && i < esds.length; i++) {
-                EventSetDescriptor esd = esds[i];
-                mEventSetByName.put(esd.getName(), esd);
-            }
         } catch (IntrospectionException exc) {
             if (pLogger.isLoggingWarning()) {
                 pLogger.logWarning(Constants.EXCEPTION_GETTING_BEANINFO, exc, mBeanClass.getName());
@@ -196,6 +166,56 @@ public class BeanInfoManager {
         }
     }
 
+    // -------------------------------------
+    /**
+     *
+     * Returns the mapping from indexed property names to BeanInfoIndexedProperties, creating it on first use
+     **/
+    Map<String, BeanInfoIndexedProperty> getIndexedPropertyByName(Logger pLogger) throws ELException {
+        checkInitialized(pLogger);
+        Map<String, BeanInfoIndexedProperty> ret = mIndexedPropertyByName;
+        if (ret == null) {
+            ret = new HashMap<>();
+            PropertyDescriptor[] pds = mBeanInfo == null ? null : mBeanInfo.getPropertyDescriptors();
+            for (int i = 0; pds != null && i < pds.length; i++) {
+                if (pds[i] instanceof IndexedPropertyDescriptor) {
+                    IndexedPropertyDescriptor ipd = (IndexedPropertyDescriptor) pds[i];
+                    Method readMethod = getPublicMethod(ipd.getIndexedReadMethod());
+                    Method writeMethod = getPublicMethod(ipd.getIndexedWriteMethod());
+                    BeanInfoIndexedProperty property = new BeanInfoIndexedProperty(readMethod, writeMethod, ipd);
+
+                    ret.put(ipd.getName(), property);
+                }
+            }
+            // Racing threads build equal maps, so either may win
+            mIndexedPropertyByName = ret;
+        }
+        return ret;
+    }
+
+    // -------------------------------------
+    /**
+     *
+     * Returns the mapping from event set names to EventSetDescriptors, creating it on first use
+     **/
+    Map<String, EventSetDescriptor> getEventSetByName(Logger pLogger) throws ELException {
+        checkInitialized(pLogger);
+        Map<String, EventSetDescriptor> ret = mEventSetByName;
+        if (ret == null) {
+            EventSetDescriptor[] esds = mBeanInfo == null ? null : mBeanInfo.getEventSetDescriptors();
+            if (esds == null || esds.length == 0) {
+                ret = Collections.emptyMap();
+            } else {
+                ret = new HashMap<>();
+                for (EventSetDescriptor esd : esds) {
+                    ret.put(esd.getName(), esd);
+                }
+            }
+            mEventSetByName = ret;
+        }
+        return ret;
+    }
+
     // -------------------------------------
     /**
      *
@@ -213,7 +233,7 @@ public class BeanInfoManager {
      **/
     public BeanInfoProperty getProperty(String pPropertyName, Logger pLogger) throws ELException {
         checkInitialized(pLogger);
-        return mPropertyByName.get(pPropertyName);
+        return mPropertyByName == null ? null : mPropertyByName.get(pPropertyName);
     }
 
     // -------------------------------------
@@ -222,8 +242,7 @@ public class BeanInfoManager {
      * Returns the BeanInfoIndexedProperty for the given property name, or null if not found.
      **/
     public BeanInfoIndexedProperty getIndexedProperty(String pIndexedPropertyName, Logger pLogger) throws ELException {
-        checkInitialized(pLogger);
-        return mIndexedPropertyByName.get(pIndexedPropertyName);
+        return getIndexedPropertyByName(pLogger).get(pIndexedPropertyName);
     }
 
     // -------------------------------------
@@ -232,8 +251,7 @@ public class BeanInfoManager {
      * Returns the EventSetDescriptor for the given event set name, or null if not found.
      **/
     public EventSetDescriptor getEventSet(String pEventSetName, Logger pLogger) throws ELException {
-        checkInitialized(pLogger);
-        return mEventSetByName.get(pEventSetName);
+        return getEventSetByName(pLogger).get(pEventSetName);
     }
 
     // -------------------------------------
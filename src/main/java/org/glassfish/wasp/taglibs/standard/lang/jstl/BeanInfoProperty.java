@@ -18,6 +18,10 @@
 package org.glassfish.wasp.taglibs.standard.lang.jstl;
 
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 /**
@@ -27,7 +31,8 @@ import java.lang.reflect.Method;
  * This class is necessary because the read/write methods in the PropertyDescriptor may not be accessible if the bean
  * given to the introspector is not a public class. In this case, a publicly accessible version of the method must be
  * found by searching for a public superclass/interface that declares the method (this searching is done by the
- * BeanInfoManager).
+ * BeanInfoManager). The read method is also kept as a MethodHandle, so that reading the property doesn't go through
+ * reflection every time.
  *
  * @author Nathan Abramson - Art Technology Group
  * @version $Change: 181181 $$DateTime: 2001/06/26 09:55:09 $$Author: kchung $
@@ -45,6 +50,9 @@ public class BeanInfoProperty {
         return mReadMethod;
     }
 
+    /** The read method, adapted to take and return an Object, or null if it can't be invoked through a handle **/
+    MethodHandle mReader;
+
     // -------------------------------------
     // property writeMethod
 
@@ -72,6 +80,43 @@ public class BeanInfoProperty {
         mReadMethod = pReadMethod;
         mWriteMethod = pWriteMethod;
         mPropertyDescriptor = pPropertyDescriptor;
+        mReader = unreflectReader(pReadMethod);
+    }
+
+    // -------------------------------------
+    /**
+     *
+     * Invokes the read method on the given bean. Like Method.invoke, wraps any exception thrown by the read method in an
+     * InvocationTargetException.
+     **/
+    public Object getValue(Object pBean) throws IllegalAccessException, InvocationTargetException {
+        if (mReader == null) {
+            return mReadMethod.invoke(pBean);
+        }
+
+        try {
+            return (Object) mReader.invokeExact(pBean);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    // -------------------------------------
+    /**
+     *
+     * Returns a MethodHandle for the given read method, or null if there is no such method or it isn't accessible.
+     **/
+    static MethodHandle unreflectReader(Method pReadMethod) {
+        if (pReadMethod == null || pReadMethod.getParameterCount() != 0) {
+            return null;
+        }
+
+        try {
+            return MethodHandles.publicLookup().unreflect(pReadMethod).asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException exc) {
+            // Fall back to reflection, which reports the access problem when the property is read
+            return null;
+        }
     }
 
     // -------------------------------------
@@ -23,14 +23,15 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.lang.reflect.Method;
 import java.text.MessageFormat;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.glassfish.wasp.taglibs.standard.lang.jstl.parser.ELParser;
 import org.glassfish.wasp.taglibs.standard.lang.jstl.parser.ParseException;
 import org.glassfish.wasp.taglibs.standard.lang.jstl.parser.Token;
 import org.glassfish.wasp.taglibs.standard.lang.jstl.parser.TokenMgrError;
+import org.glassfish.wasp.taglibs.standard.tag.common.core.BoundedCache;
 
 /**
  *
@@ -49,7 +50,10 @@ import org.glassfish.wasp.taglibs.standard.lang.jstl.parser.TokenMgrError;
  * The evaluator maintains a cache mapping expression Strings to their parsed results. For expression Strings containing
  * no expression elements, it maintains a cache mapping ExpectedType/ExpressionString to parsed value, so that static
  * expression Strings won't have to go through a conversion step every time they are used. All instances of the
- * evaluator share the same cache. The cache may be bypassed by setting a flag on the evaluator's constructor.
+ * evaluator share the same cache. The cache may be bypassed by setting a flag on the evaluator's constructor. Each
+ * cache holds at most the number of entries given by the
+ * <code>org.glassfish.wasp.taglibs.standard.lang.jstl.ELEvaluator.CACHE_SIZE</code> system property (1024 by default),
+ * evicting the least recently used ones first.
  *
  * <p>
  * The evaluator must be passed a VariableResolver in its constructor. The VariableResolver is used to resolve variable
@@ -80,15 +84,21 @@ public class ELEvaluator {
     // Member variables
     // -------------------------------------
 
+    /** The maximum number of entries in each cache **/
+    static final int CACHE_SIZE = Integer.getInteger("org.glassfish.wasp.taglibs.standard.lang.jstl.ELEvaluator.CACHE_SIZE", 1024);
+
+    /** Stands for a static value converted to null, which the caches can't hold **/
+    private static final Object NULL_VALUE = new Object();
+
     /**
      * The mapping from expression String to its parsed form (String, Expression, or ExpressionString)
      **/
-    static Map<String, Object> sCachedExpressionStrings = Collections.synchronizedMap(new HashMap<>());
+    static final BoundedCache<String, Object> sCachedExpressionStrings = new BoundedCache<>(CACHE_SIZE);
 
     /**
-     * The mapping from ExpectedType to Maps mapping literal String to parsed value
+     * The mapping from ExpectedType to caches mapping literal String to parsed value
      **/
-    static Map<Class<?>, Map<String, Object>> sCachedExpectedTypes = new HashMap<>();
+    static final Map<Class<?>, BoundedCache<String, Object>> sCachedExpectedTypes = new ConcurrentHashMap<>();
 
     /** The static Logger **/
     static Logger sLogger = new Logger(System.out);
@@ -236,14 +246,17 @@ public class ELEvaluator {
         }
 
         // Find the cached value
-        Map<String, Object> valueByString = getOrCreateExpectedTypeMap(pExpectedType);
-        if (!mBypassCache && valueByString.containsKey(pValue)) {
-            return valueByString.get(pValue);
+        BoundedCache<String, Object> valueByString = getOrCreateExpectedTypeMap(pExpectedType);
+        if (!mBypassCache) {
+            Object ret = valueByString.get(pValue);
+            if (ret != null) {
+                return ret == NULL_VALUE ? null : ret;
+            }
         }
 
         // Convert from a String
         Object ret = Coercions.coerce(pValue, pExpectedType, pLogger);
-        valueByString.put(pValue, ret);
+        valueByString.put(pValue, ret == null ? NULL_VALUE : ret);
 
         return ret;
     }
@@ -251,17 +264,30 @@ public class ELEvaluator {
     // -------------------------------------
     /**
      *
-     * Creates or returns the Map that maps string literals to parsed values for the specified expected type.
+     * Creates or returns the cache that maps string literals to parsed values for the specified expected type.
      **/
-    static Map<String, Object> getOrCreateExpectedTypeMap(Class<?> pExpectedType) {
-        synchronized (sCachedExpectedTypes) {
-            Map<String, Object> ret = sCachedExpectedTypes.get(pExpectedType);
-            if (ret == null) {
-                ret = Collections.synchronizedMap(new HashMap<>());
-                sCachedExpectedTypes.put(pExpectedType, ret);
-            }
-            return ret;
+    static BoundedCache<String, Object> getOrCreateExpectedTypeMap(Class<?> pExpectedType) {
+        BoundedCache<String, Object> ret = sCachedExpectedTypes.get(pExpectedType);
+        if (ret == null) {
+            ret = sCachedExpectedTypes.computeIfAbsent(pExpectedType, t -> new BoundedCache<>(CACHE_SIZE));
+        }
+        return ret;
+    }
+
+    // -------------------------------------
+    /**
+     *
+     * Returns a summary of the hits, misses and evictions of the caches shared by all evaluators, keyed by the cache
+     * name: "expressionStrings" for the parsed expression Strings, and the name of each expected type for the converted
+     * static values.
+     **/
+    public static Map<String, String> getCacheStatistics() {
+        Map<String, String> ret = new TreeMap<>();
+        ret.put("expressionStrings", sCachedExpressionStrings.toString());
+        for (Map.Entry<Class<?>, BoundedCache<String, Object>> entry : sCachedExpectedTypes.entrySet()) {
+            ret.put(entry.getKey().getName(), entry.getValue().toString());
         }
+        return ret;
     }
 
     // -------------------------------------
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2026 Contributors to Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.wasp.taglibs.standard.tag.common.core;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe map that holds at most a fixed number of entries, evicting a least recently used one when full. Used by
+ * the tag handlers to keep objects that are expensive to build, such as formatters, across requests.
+ * <p>
+ * Lookups take no lock: a hit only marks the entry as referenced. Eviction follows the CLOCK approximation of LRU: the
+ * entries are queued in insertion order, and when the cache is over its bound the oldest ones are removed, except
+ * those referenced since they were last examined, which get a second chance at the back of the queue. Only the
+ * insertions that overflow the cache synchronize, to run the eviction. Keys and values must not be
+ * <code>null</code>.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ */
+public final class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final ConcurrentHashMap<K, Entry<K, V>> map = new ConcurrentHashMap<>();
+    private final Queue<Entry<K, V>> clock = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a cache holding at most <code>maxSize</code> entries.
+     */
+    public BoundedCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the value cached for the given key, or <code>null</code> if there is none.
+     */
+    public V get(K key) {
+        Entry<K, V> entry = map.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        if (!entry.referenced) {
+            entry.referenced = true;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Caches the given value, possibly evicting a least recently used entry.
+     */
+    public void put(K key, V value) {
+        Entry<K, V> entry = new Entry<>(key, value);
+        Entry<K, V> previous = map.put(key, entry);
+        if (previous != null) {
+            previous.removed = true;
+        }
+        clock.add(entry);
+        if (queued.incrementAndGet() > maxSize * 2 || map.size() > maxSize) {
+            evict();
+        }
+    }
+
+    public V remove(K key) {
+        Entry<K, V> entry = map.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        entry.removed = true;
+        return entry.value;
+    }
+
+    public void clear() {
+        // The queued entries are dropped by the next eviction, as they are no longer mapped
+        map.clear();
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Returns the maximum number of entries.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of lookups that found a value.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that found no value.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of entries removed to keep the cache within its bound.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "BoundedCache[size=" + size() + ", maxSize=" + maxSize + ", hits=" + getHitCount() + ", misses=" + getMissCount() + ", evictions="
+                + getEvictionCount() + "]";
+    }
+
+    private synchronized void evict() {
+        if (queued.get() > maxSize * 2) {
+            // Many entries were replaced or removed since they were queued
+            clock.removeIf(e -> e.removed || map.get(e.key) != e);
+            queued.set(clock.size());
+        }
+
+        Entry<K, V> entry;
+        while (map.size() > maxSize && (entry = clock.poll()) != null) {
+            if (entry.referenced && !entry.removed) {
+                entry.referenced = false;
+                clock.add(entry);
+                continue;
+            }
+            queued.decrementAndGet();
+            if (!entry.removed && map.remove(entry.key, entry)) {
+                entry.removed = true;
+                evictions.increment();
+            }
+        }
+    }
+
+    private static final class Entry<K, V> {
+        final K key;
+        final V value;
+        volatile boolean referenced;
+        volatile boolean removed;
+
+        Entry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
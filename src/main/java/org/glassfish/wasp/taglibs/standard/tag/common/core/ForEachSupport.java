@@ -23,12 +23,16 @@ import jakarta.servlet.jsp.JspTagException;
 import jakarta.servlet.jsp.jstl.core.LoopTagSupport;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Enumeration;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.StringTokenizer;
+import java.util.stream.BaseStream;
 
 import org.glassfish.wasp.taglibs.standard.resources.Resources;
 
@@ -41,7 +45,7 @@ import org.glassfish.wasp.taglibs.standard.resources.Resources;
  *
  * <p>
  * Localized here is the logic for handling the veritable smorgasbord of types supported by &lt;forEach&gt;, including
- * arrays, Collections, and others. To see how the actual iteration is controlled, review the
+ * arrays, Collections, Streams and others. To see how the actual iteration is controlled, review the
  * jakarta.servlet.jsp.jstl.core.LoopTagSupport class instead.
  * </p>
  *
@@ -60,9 +64,9 @@ public abstract class ForEachSupport extends LoopTagSupport {
      * relaying information to the iteration implementation we inherit from LoopTagSupport.
      *
      * We expect to receive our 'items' from one of our subclasses (presumably from the rtexprvalue or expression-evaluating
-     * libraries). If 'items' is missing, we construct an Integer[] array representing iteration indices, in line with the
-     * spec draft. From doStartTag(), we analyze and 'digest' the data we're passed. Then, we simply relay items as
-     * necessary to the iteration implementation that we inherit from LoopTagSupport.
+     * libraries). If 'items' is missing, we iterate over the indices from 0 to 'end', in line with the spec draft. From
+     * doStartTag(), we analyze and 'digest' the data we're passed. Then, we simply relay items as necessary to the
+     * iteration implementation that we inherit from LoopTagSupport.
      */
 
     // *********************************************************************
@@ -108,11 +112,42 @@ public abstract class ForEachSupport extends LoopTagSupport {
         }
     }
 
+    /*
+     * Index-based implementation of ForEachIterator for sources with cheap positional access: arrays, RandomAccess lists
+     * and the begin/end index range. LoopTagSupport moves to 'begin', and over 'step - 1' items after each iteration, by
+     * calling next() and dropping the result, so only the positions it keeps are fetched (and, for primitive arrays,
+     * boxed); the others only advance the cursor.
+     */
+    protected abstract class IndexedForEachIterator implements ForEachIterator {
+        private int cursor;
+
+        @Override
+        public boolean hasNext() {
+            return cursor < size();
+        }
+
+        @Override
+        public Object next() {
+            int i = cursor++;
+            if (i < begin || (i - begin) % step != 0) {
+                return null;
+            }
+            return get(i);
+        }
+
+        /* Returns the number of positions; checked on every hasNext() so a shrinking List ends the loop early. */
+        protected abstract int size();
+
+        /* Returns the item at the given position. */
+        protected abstract Object get(int index);
+    }
+
     // *********************************************************************
     // ForEach-specifc state (protected)
 
     protected ForEachIterator items; // our 'digested' items
     protected Object rawItems; // our 'raw' items
+    protected BaseStream<?, ?> stream; // the Stream we iterate over, closed in doFinally()
 
     // *********************************************************************
     // Iteration control methods (based on processed 'items' object)
@@ -159,12 +194,24 @@ public abstract class ForEachSupport extends LoopTagSupport {
     // *********************************************************************
     // Tag logic and lifecycle management
 
+    // Closes the Stream we iterated over, if any, whether or not the loop completed
+    @Override
+    public void doFinally() {
+        super.doFinally();
+        if (stream != null) {
+            BaseStream<?, ?> s = stream;
+            stream = null;
+            s.close();
+        }
+    }
+
     // Releases any resources we may have (or inherit)
     @Override
     public void release() {
         super.release();
         items = null;
         rawItems = null;
+        stream = null;
         deferredExpression = null;
     }
 
@@ -214,6 +261,12 @@ public abstract class ForEachSupport extends LoopTagSupport {
             items = toForEachIterator(map);
         } else if (o instanceof String string) {
             items = toForEachIterator(string);
+        } else if (o instanceof BaseStream baseStream) {
+            items = toForEachIterator(baseStream);
+        } else if (o instanceof Iterable iterable) {
+            items = toForEachIterator(iterable);
+        } else if (o instanceof Spliterator spliterator) {
+            items = toForEachIterator(spliterator);
         } else {
             items = toForEachIterator(o);
         }
@@ -227,18 +280,23 @@ public abstract class ForEachSupport extends LoopTagSupport {
      */
     private ForEachIterator beginEndForEachIterator() {
         /*
-         * To plug into existing support, we need to keep 'begin', 'end', and 'step' as they are. So we'll simply create an
-         * Integer[] from 0 to 'end', inclusive, and let the existing implementation handle the subsetting and stepping
-         * operations. (Other than localizing the cost of creating this Integer[] to the start of the operation instead of
-         * spreading it out over the lifetime of the iteration, this implementation isn't worse than one that created new
-         * Integers() as needed from next(). Such an adapter to ForEachIterator could easily be written but, like I said,
-         * wouldn't provide much benefit.)
+         * To plug into existing support, we need to keep 'begin', 'end', and 'step' as they are. So we'll simply iterate from 0
+         * to 'end', inclusive, and let the existing implementation handle the subsetting and stepping operations. Integers are
+         * only created for the indices that are actually exposed.
          */
-        Integer[] ia = new Integer[end + 1];
-        for (int i = 0; i <= end; i++) {
-            ia[i] = Integer.valueOf(i);
-        }
-        return new SimpleForEachIterator(Arrays.asList(ia).iterator());
+        // clamped, so that end == Integer.MAX_VALUE doesn't overflow into an empty loop
+        final int size = (int) Math.min((long) end + 1, Integer.MAX_VALUE);
+        return new IndexedForEachIterator() {
+            @Override
+            protected int size() {
+                return size;
+            }
+
+            @Override
+            protected Object get(int index) {
+                return Integer.valueOf(index);
+            }
+        };
     }
 
     // *********************************************************************
@@ -249,85 +307,157 @@ public abstract class ForEachSupport extends LoopTagSupport {
         throw new JspTagException(Resources.getMessage("FOREACH_BAD_ITEMS"));
     }
 
-    // returns an iterator over an Object array (via List)
-    protected ForEachIterator toForEachIterator(Object[] a) {
-        return new SimpleForEachIterator(Arrays.asList(a).iterator());
+    // returns an iterator over an Object array
+    protected ForEachIterator toForEachIterator(final Object[] a) {
+        return new IndexedForEachIterator() {
+            @Override
+            protected int size() {
+                return a.length;
+            }
+
+            @Override
+            protected Object get(int index) {
+                return a[index];
+            }
+        };
     }
 
-    // returns an iterator over a boolean[] array, wrapping items in Boolean
-    protected ForEachIterator toForEachIterator(boolean[] a) {
-        Boolean[] wrapped = new Boolean[a.length];
-        for (int i = 0; i < a.length; i++) {
-            wrapped[i] = Boolean.valueOf(a[i]);
-        }
-        return new SimpleForEachIterator(Arrays.asList(wrapped).iterator());
+    // returns an iterator over a boolean[] array, wrapping items in Boolean as they are exposed
+    protected ForEachIterator toForEachIterator(final boolean[] a) {
+        return new IndexedForEachIterator() {
+            @Override
+            protected int size() {
+                return a.length;
+            }
+
+            @Override
+            protected Object get(int index) {
+                return Boolean.valueOf(a[index]);
+            }
+        };
     }
 
-    // returns an iterator over a byte[] array, wrapping items in Byte
-    protected ForEachIterator toForEachIterator(byte[] a) {
-        Byte[] wrapped = new Byte[a.length];
-        for (int i = 0; i < a.length; i++) {
-            wrapped[i] = Byte.valueOf(a[i]);
-        }
-        return new SimpleForEachIterator(Arrays.asList(wrapped).iterator());
+    // returns an iterator over a byte[] array, wrapping items in Byte as they are exposed
+    protected ForEachIterator toForEachIterator(final byte[] a) {
+        return new IndexedForEachIterator() {
+            @Override
+            protected int size() {
+                return a.length;
+            }
+
+            @Override
+            protected Object get(int index) {
+                return Byte.valueOf(a[index]);
+            }
+        };
     }
 
-    // returns an iterator over a char[] array, wrapping items in Character
-    protected ForEachIterator toForEachIterator(char[] a) {
-        Character[] wrapped = new Character[a.length];
-        for (int i = 0; i < a.length; i++) {
-            wrapped[i] = Character.valueOf(a[i]);
-        }
-        return new SimpleForEachIterator(Arrays.asList(wrapped).iterator());
+    // returns an iterator over a char[] array, wrapping items in Character as they are exposed
+    protected ForEachIterator toForEachIterator(final char[] a) {
+        return new IndexedForEachIterator() {
+            @Override
+            protected int size() {
+                return a.length;
+            }
+
+            @Override
+            protected Object get(int index) {
+                return Character.valueOf(a[index]);
+            }
+        };
     }
 
-    // returns an iterator over a short[] array, wrapping items in Short
-    protected ForEachIterator toForEachIterator(short[] a) {
-        Short[] wrapped = new Short[a.length];
-        for (int i = 0; i < a.length; i++) {
-            wrapped[i] = Short.valueOf(a[i]);
-        }
-        return new SimpleForEachIterator(Arrays.asList(wrapped).iterator());
+    // returns an iterator over a short[] array, wrapping items in Short as they are exposed
+    protected ForEachIterator toForEachIterator(final short[] a) {
+        return new IndexedForEachIterator() {
+            @Override
+            protected int size() {
+                return a.length;
+            }
+
+            @Override
+            protected Object get(int index) {
+                return Short.valueOf(a[index]);
+            }
+        };
     }
 
-    // returns an iterator over an int[] array, wrapping items in Integer
-    protected ForEachIterator toForEachIterator(int[] a) {
-        Integer[] wrapped = new Integer[a.length];
-        for (int i = 0; i < a.length; i++) {
-            wrapped[i] = Integer.valueOf(a[i]);
-        }
-        return new SimpleForEachIterator(Arrays.asList(wrapped).iterator());
+    // returns an iterator over an int[] array, wrapping items in Integer as they are exposed
+    protected ForEachIterator toForEachIterator(final int[] a) {
+        return new IndexedForEachIterator() {
+            @Override
+            protected int size() {
+                return a.length;
+            }
+
+            @Override
+            protected Object get(int index) {
+                return Integer.valueOf(a[index]);
+            }
+        };
     }
 
-    // returns an iterator over a long[] array, wrapping items in Long
-    protected ForEachIterator toForEachIterator(long[] a) {
-        Long[] wrapped = new Long[a.length];
-        for (int i = 0; i < a.length; i++) {
-            wrapped[i] = Long.valueOf(a[i]);
-        }
-        return new SimpleForEachIterator(Arrays.asList(wrapped).iterator());
+    // returns an iterator over a long[] array, wrapping items in Long as they are exposed
+    protected ForEachIterator toForEachIterator(final long[] a) {
+        return new IndexedForEachIterator() {
+            @Override
+            protected int size() {
+                return a.length;
+            }
+
+            @Override
+            protected Object get(int index) {
+                return Long.valueOf(a[index]);
+            }
+        };
     }
 
-    // returns an iterator over a float[] array, wrapping items in Float
-    protected ForEachIterator toForEachIterator(float[] a) {
-        Float[] wrapped = new Float[a.length];
-        for (int i = 0; i < a.length; i++) {
-            wrapped[i] = Float.valueOf(a[i]);
-        }
-        return new SimpleForEachIterator(Arrays.asList(wrapped).iterator());
+    // returns an iterator over a float[] array, wrapping items in Float as they are exposed
+    protected ForEachIterator toForEachIterator(final float[] a) {
+        return new IndexedForEachIterator() {
+            @Override
+            protected int size() {
+                return a.length;
+            }
+
+            @Override
+            protected Object get(int index) {
+                return Float.valueOf(a[index]);
+            }
+        };
     }
 
-    // returns an iterator over a double[] array, wrapping items in Double
-    protected ForEachIterator toForEachIterator(double[] a) {
-        Double[] wrapped = new Double[a.length];
-        for (int i = 0; i < a.length; i++) {
-            wrapped[i] = Double.valueOf(a[i]);
-        }
-        return new SimpleForEachIterator(Arrays.asList(wrapped).iterator());
+    // returns an iterator over a double[] array, wrapping items in Double as they are exposed
+    protected ForEachIterator toForEachIterator(final double[] a) {
+        return new IndexedForEachIterator() {
+            @Override
+            protected int size() {
+                return a.length;
+            }
+
+            @Override
+            protected Object get(int index) {
+                return Double.valueOf(a[index]);
+            }
+        };
     }
 
-    // retrieves an iterator from a Collection
+    // retrieves an iterator from a Collection, using positional access for RandomAccess lists
     protected ForEachIterator toForEachIterator(Collection c) {
+        if (c instanceof List && c instanceof RandomAccess) {
+            final List<?> list = (List<?>) c;
+            return new IndexedForEachIterator() {
+                @Override
+                protected int size() {
+                    return list.size();
+                }
+
+                @Override
+                protected Object get(int index) {
+                    return list.get(index);
+                }
+            };
+        }
         return new SimpleForEachIterator(c.iterator());
     }
 
@@ -366,6 +496,28 @@ public abstract class ForEachSupport extends LoopTagSupport {
         return new SimpleForEachIterator(m.entrySet().iterator());
     }
 
+    /*
+     * Streams, Iterables and Spliterators are consumed lazily: LoopTagSupport drops the items before 'begin' and between
+     * steps by calling next(), and decides whether the current item is the last one by calling hasNext(), so at most one
+     * item past the current one is ever pulled from the source and nothing is buffered.
+     */
+
+    // pulls items from a Stream one at a time; the Stream is closed in doFinally()
+    protected ForEachIterator toForEachIterator(BaseStream s) {
+        stream = s;
+        return new SimpleForEachIterator(s.iterator());
+    }
+
+    // retrieves an iterator from an Iterable that is not a Collection
+    protected ForEachIterator toForEachIterator(Iterable i) {
+        return new SimpleForEachIterator(i.iterator());
+    }
+
+    // adapts a Spliterator, advancing it only as items are requested
+    protected ForEachIterator toForEachIterator(Spliterator s) {
+        return new SimpleForEachIterator(Spliterators.iterator(s));
+    }
+
     /*
      * No more supported in JSTL. See interface Result instead. // thinly wraps a ResultSet in an appropriate Iterator
      * protected ForEachIterator toForEachIterator(ResultSet rs) throws JspTagException {
@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2026 Contributors to Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.wasp.taglibs.standard.tag.common.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import org.glassfish.wasp.taglibs.standard.resources.Resources;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.jsp.JspException;
+import jakarta.servlet.jsp.JspTagException;
+import jakarta.servlet.jsp.jstl.core.Config;
+
+/**
+ * Keeps the content of HTTP resources imported by &lt;import&gt;, for the applications that enable it through
+ * {@link ImportSupport#IMPORT_CACHE_SIZE}. Entries are keyed by URL and 'charEncoding', and the least recently used
+ * ones are evicted to stay within the configured number of bytes.
+ *
+ * <p>
+ * Responses are cached as allowed by their Cache-Control, Expires and Age headers. Once stale, an entry is revalidated
+ * with If-None-Match and If-Modified-Since. Only one request fetches a given resource at a time: others are served the
+ * stale content meanwhile, or wait for the fetch if there is none. The stale content is also served if the
+ * revalidation fails, but no longer than {@link #MAX_STALE} after it expired.
+ */
+final class ImportCache {
+
+    /*
+     * Rough number of bytes an entry takes besides its content
+     */
+    private static final int ENTRY_OVERHEAD = 256;
+
+    /*
+     * How long after expiring an entry may still be served, in milliseconds
+     */
+    private static final long MAX_STALE = 10 * 60 * 1000L;
+
+    private static final Map<ServletContext, ImportCache> caches = new WeakHashMap<>();
+
+    private final long maxBytes;
+    private long bytes;
+    private final LinkedHashMap<List<String>, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<List<String>, CompletableFuture<Entry>> fetches = new ConcurrentHashMap<>();
+
+    private ImportCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the cache of the given application, or <code>null</code> if it doesn't cache imports. The setting is read
+     * the first time an application imports an HTTP resource.
+     */
+    static ImportCache getInstance(ServletContext servletContext) throws JspException {
+        synchronized (caches) {
+            if (caches.containsKey(servletContext)) {
+                return caches.get(servletContext);
+            }
+
+            long size = getConfiguredSize(servletContext);
+            ImportCache cache = size > 0 ? new ImportCache(size) : null;
+            caches.put(servletContext, cache);
+            return cache;
+        }
+    }
+
+    private static long getConfiguredSize(ServletContext servletContext) throws JspException {
+        Object obj = Config.get(servletContext, ImportSupport.IMPORT_CACHE_SIZE);
+        if (obj == null) {
+            obj = servletContext.getInitParameter(ImportSupport.IMPORT_CACHE_SIZE);
+        }
+        if (obj == null) {
+            return 0;
+        }
+        if (obj instanceof Number) {
+            return ((Number) obj).longValue();
+        }
+        try {
+            return Long.parseLong(obj.toString().trim());
+        } catch (NumberFormatException nfe) {
+            throw new JspException(Resources.getMessage("IMPORT_CACHE_SIZE_INVALID", obj), nfe);
+        }
+    }
+
+    /**
+     * Returns true if the given absolute URL is one we may cache.
+     */
+    static boolean isCacheable(String url) {
+        return url.regionMatches(true, 0, "http:", 0, 5) || url.regionMatches(true, 0, "https:", 0, 6);
+    }
+
+    /**
+     * Returns the content of the given URL, decoded as &lt;import&gt; would.
+     */
+    String get(String url, String charEncoding) throws IOException, JspTagException {
+        List<String> key = Arrays.asList(url, charEncoding == null ? "" : charEncoding);
+        Entry entry = lookup(key);
+        if (entry != null && entry.isFresh()) {
+            return entry.content;
+        }
+
+        CompletableFuture<Entry> pending = new CompletableFuture<>();
+        CompletableFuture<Entry> running = fetches.putIfAbsent(key, pending);
+        if (running != null) {
+            return entry != null && entry.isUsable() ? entry.content : await(running).content;
+        }
+
+        try {
+            Entry fetched = fetch(key, url, charEncoding, entry);
+            pending.complete(fetched);
+            return fetched.content;
+        } catch (IOException | JspTagException | RuntimeException ex) {
+            pending.completeExceptionally(ex);
+            if (entry != null && entry.isUsable()) {
+                return entry.content;
+            }
+            throw ex;
+        } finally {
+            fetches.remove(key, pending);
+        }
+    }
+
+    /**
+     * Requests the given URL, conditionally if we have a stale entry, and caches the response if it allows it.
+     */
+    private Entry fetch(List<String> key, String url, String charEncoding, Entry stale) throws IOException, JspTagException {
+        HttpURLConnection uc = (HttpURLConnection) new URL(url).openConnection();
+        if (stale != null) {
+            if (stale.etag != null) {
+                uc.setRequestProperty("If-None-Match", stale.etag);
+            }
+            if (stale.lastModified != null) {
+                uc.setRequestProperty("If-Modified-Since", stale.lastModified);
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        if (stale != null && uc.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            // release the connection; a 304 has no body
+            discard(uc);
+
+            // headers sent along with a 304 replace the stored ones
+            long lifetime = getLifetime(uc, now);
+            String etag = uc.getHeaderField("ETag");
+            String lastModified = uc.getHeaderField("Last-Modified");
+            Entry revalidated = new Entry(stale.content, etag != null ? etag : stale.etag, lastModified != null ? lastModified : stale.lastModified,
+                    hasFreshnessHeaders(uc) ? lifetime : stale.lifetime, getAge(uc), now);
+            storeIfAllowed(key, revalidated);
+            return revalidated;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        try (Reader r = ImportSupport.getReader(uc, charEncoding)) {
+            // check response code before reading, per spec
+            int status = uc.getResponseCode();
+            if (status < 200 || status > 299) {
+                throw new JspTagException(status + " " + url);
+            }
+
+            char[] buf = new char[ImportSupport.CHUNK_SIZE];
+            int n;
+            while ((n = r.read(buf)) != -1) {
+                sb.append(buf, 0, n);
+            }
+        }
+
+        Entry fetched = new Entry(sb.toString(), uc.getHeaderField("ETag"), uc.getHeaderField("Last-Modified"), getLifetime(uc, now), getAge(uc), now);
+        storeIfAllowed(key, fetched);
+        return fetched;
+    }
+
+    /**
+     * Caches the given entry if it may be stored, and is either still fresh or can be revalidated.
+     */
+    private void storeIfAllowed(List<String> key, Entry entry) {
+        if (entry.lifetime >= 0 && (entry.isFresh() || entry.etag != null || entry.lastModified != null)) {
+            store(key, entry);
+        } else {
+            remove(key);
+        }
+    }
+
+    /**
+     * Returns how long a response stays fresh, in milliseconds, or -1 if it must not be cached.
+     */
+    private static long getLifetime(HttpURLConnection uc, long now) {
+        String cacheControl = uc.getHeaderField("Cache-Control");
+        if (cacheControl != null) {
+            long maxAge = -1;
+            long sharedMaxAge = -1;
+            for (String directive : cacheControl.split(",")) {
+                directive = directive.trim().toLowerCase(Locale.ROOT);
+                if (directive.equals("no-store") || directive.equals("private")) {
+                    return -1;
+                } else if (directive.equals("no-cache")) {
+                    return 0;
+                } else if (directive.startsWith("s-maxage=")) {
+                    sharedMaxAge = parseSeconds(directive.substring(9));
+                } else if (directive.startsWith("max-age=")) {
+                    maxAge = parseSeconds(directive.substring(8));
+                }
+            }
+            if (sharedMaxAge >= 0) {
+                return sharedMaxAge;
+            }
+            if (maxAge >= 0) {
+                return maxAge;
+            }
+        }
+
+        if (uc.getHeaderField("Expires") != null) {
+            // an invalid date, such as "0", means already expired
+            long expires = uc.getHeaderFieldDate("Expires", 0);
+            long date = uc.getDate();
+            return Math.max(0, expires - (date != 0 ? date : now));
+        }
+
+        return 0;
+    }
+
+    /**
+     * Returns how long the response has already spent in caches on its way, in milliseconds.
+     */
+    private static long getAge(HttpURLConnection uc) {
+        String age = uc.getHeaderField("Age");
+        return age != null ? parseSeconds(age) : 0;
+    }
+
+    private static boolean hasFreshnessHeaders(HttpURLConnection uc) {
+        return uc.getHeaderField("Cache-Control") != null || uc.getHeaderField("Expires") != null;
+    }
+
+    private static long parseSeconds(String s) {
+        try {
+            return Math.max(0, Long.parseLong(s.trim().replace("\"", ""))) * 1000;
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    private static void discard(HttpURLConnection uc) {
+        try (InputStream in = uc.getInputStream()) {
+            byte[] buf = new byte[ImportSupport.CHUNK_SIZE];
+            while (in.read(buf) != -1) {
+                // nothing to keep
+            }
+        } catch (IOException ex) {
+            // the connection just won't be reused
+        }
+    }
+
+    private static Entry await(CompletableFuture<Entry> fetch) throws IOException, JspTagException {
+        try {
+            return fetch.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof JspTagException) {
+                throw (JspTagException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    // *********************************************************************
+    // LRU bookkeeping
+
+    private synchronized Entry lookup(List<String> key) {
+        return entries.get(key);
+    }
+
+    private synchronized void store(List<String> key, Entry entry) {
+        remove(key);
+
+        // don't let one resource take over the whole cache
+        if (entry.size > maxBytes / 4) {
+            return;
+        }
+
+        entries.put(key, entry);
+        bytes += entry.size;
+        for (Iterator<Entry> i = entries.values().iterator(); bytes > maxBytes && i.hasNext();) {
+            bytes -= i.next().size;
+            i.remove();
+        }
+    }
+
+    private synchronized void remove(List<String> key) {
+        Entry old = entries.remove(key);
+        if (old != null) {
+            bytes -= old.size;
+        }
+    }
+
+    private static final class Entry {
+
+        final String content;
+        final String etag;
+        final String lastModified;
+        final long lifetime;
+        final long expiresAt;
+        final long size;
+
+        Entry(String content, String etag, String lastModified, long lifetime, long age, long fetchedAt) {
+            this.content = content;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.lifetime = lifetime;
+            this.expiresAt = fetchedAt + Math.max(0, lifetime - age);
+            this.size = 2L * content.length() + ENTRY_OVERHEAD;
+        }
+
+        boolean isFresh() {
+            return System.currentTimeMillis() < expiresAt;
+        }
+
+        /*
+         * Whether the content may still be served while it can't be revalidated
+         */
+        boolean isUsable() {
+            return System.currentTimeMillis() < expiresAt + MAX_STALE;
+        }
+    }
+}
@@ -19,7 +19,6 @@
 
 package org.glassfish.wasp.taglibs.standard.tag.common.core;
 
-import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -29,9 +28,15 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 import java.util.Locale;
 
 import org.glassfish.wasp.taglibs.standard.resources.Resources;
@@ -46,6 +51,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpServletResponseWrapper;
 import jakarta.servlet.jsp.JspException;
 import jakarta.servlet.jsp.JspTagException;
+import jakarta.servlet.jsp.JspWriter;
 import jakarta.servlet.jsp.PageContext;
 import jakarta.servlet.jsp.tagext.BodyTagSupport;
 import jakarta.servlet.jsp.tagext.TryCatchFinally;
@@ -84,6 +90,16 @@ public abstract class ImportSupport extends BodyTagSupport implements TryCatchFi
     /** Default character encoding for response. */
     public static final String DEFAULT_ENCODING = "ISO-8859-1";
 
+    /**
+     * Name of the configuration setting that enables caching of imported HTTP resources, giving the number of bytes the
+     * cache of each application may hold. It is looked up as an application scoped attribute set through
+     * {@link jakarta.servlet.jsp.jstl.core.Config}, then as a context initialization parameter.
+     */
+    public static final String IMPORT_CACHE_SIZE = "org.glassfish.wasp.taglibs.standard.import.cacheSize";
+
+    /** Size of the buffer used to copy imported content to the page. */
+    static final int CHUNK_SIZE = 4096;
+
     // *********************************************************************
     // Protected state
 
@@ -162,8 +178,11 @@ public abstract class ImportSupport extends BodyTagSupport implements TryCatchFi
                 if (var != null) {
                     pageContext.setAttribute(var, acquireString(), scope);
                 // ... or simply output it, if we have nowhere to expose it
+                } else if (findAncestorWithClass(this, TryCatchFinally.class) != null) {
+                    // a failure may be handled, so don't leave part of the content behind
+                    pageContext.getOut().write(acquireString());
                 } else {
-                    pageContext.getOut().print(acquireString());
+                    writeTo(pageContext.getOut());
                 }
             }
             return EVAL_PAGE;
@@ -237,91 +256,113 @@ public abstract class ImportSupport extends BodyTagSupport implements TryCatchFi
      * We consider the 'natural' form of absolute URLs to be Readers and relative URLs to be Strings. Thus, to avoid doing
      * extra work, acquireString() and acquireReader() delegate to one another as appropriate. (Perhaps I could have spelled
      * things out more clearly, but I thought this implementation was instructive, not to mention somewhat cute...)
+     *
+     * When the content is neither stored nor exposed, a third entry point, writeTo(), passes it on to the page as it
+     * arrives, a chunk at a time, without ever holding all of it. A failure partway through then leaves what was
+     * already written on the page, so inside a TryCatchFinally tag, such as <catch>, we go through acquireString().
      */
 
     private String acquireString() throws IOException, JspException {
         if (isAbsoluteUrl) {
+            String cached = acquireCached();
+            if (cached != null) {
+                return cached;
+            }
+
             // for absolute URLs, delegate to our peer
-            BufferedReader r = new BufferedReader(acquireReader());
             StringBuilder sb = new StringBuilder();
-            int i;
 
-            // under JIT, testing seems to show this simple loop is as fast
-            // as any of the alternatives
-            //
-            // gmurray71 : putting in try/catch/finally block to make sure the
-            // reader is closed to fix a bug with file descriptors being left open
-            try {
-                while ((i = r.read()) != -1) {
-                    sb.append((char) i);
+            // make sure the reader is closed, so that file descriptors aren't left open
+            try (Reader r = acquireReader()) {
+                char[] buf = new char[CHUNK_SIZE];
+                int n;
+                while ((n = r.read(buf)) != -1) {
+                    sb.append(buf, 0, n);
                 }
-            } catch (IOException iox) {
-                throw iox;
-            } finally {
-                r.close();
             }
 
             return sb.toString();
         } else {
-            // handle relative URLs ourselves
+            // recover the response String from our wrapper
+            return include(new ImportResponseWrapper(pageContext, null)).getString();
+        }
+    }
 
-            // URL is relative, so we must be an HTTP request
-            if (!(pageContext.getRequest() instanceof HttpServletRequest && pageContext.getResponse() instanceof HttpServletResponse)) {
-                throw new JspTagException(Resources.getMessage("IMPORT_REL_WITHOUT_HTTP"));
+    private void writeTo(JspWriter out) throws IOException, JspException {
+        if (isAbsoluteUrl) {
+            String cached = acquireCached();
+            if (cached != null) {
+                out.write(cached);
+                return;
             }
 
-            // retrieve an appropriate ServletContext
-            ServletContext c = null;
-            String targetUrl = targetUrl();
-            if (context != null) {
-                c = pageContext.getServletContext().getContext(context);
-            } else {
-                c = pageContext.getServletContext();
-
-                // normalize the URL if we have an HttpServletRequest
-                if (!targetUrl.startsWith("/")) {
-                    String sp = ((HttpServletRequest) pageContext.getRequest()).getServletPath();
-                    targetUrl = sp.substring(0, sp.lastIndexOf('/')) + '/' + targetUrl;
+            try (Reader r = acquireReader()) {
+                char[] buf = new char[CHUNK_SIZE];
+                int n;
+                while ((n = r.read(buf)) != -1) {
+                    out.write(buf, 0, n);
                 }
             }
+        } else {
+            include(new ImportResponseWrapper(pageContext, out)).finish();
+        }
+    }
 
-            if (c == null) {
-                throw new JspTagException(Resources.getMessage("IMPORT_REL_WITHOUT_DISPATCHER", context, targetUrl));
-            }
+    /** Includes our relative URL into the given wrapper, which is returned. */
+    private ImportResponseWrapper include(ImportResponseWrapper irw) throws IOException, JspException {
+        // URL is relative, so we must be an HTTP request
+        if (!(pageContext.getRequest() instanceof HttpServletRequest && pageContext.getResponse() instanceof HttpServletResponse)) {
+            throw new JspTagException(Resources.getMessage("IMPORT_REL_WITHOUT_HTTP"));
+        }
+
+        // retrieve an appropriate ServletContext
+        ServletContext c = null;
+        String targetUrl = targetUrl();
+        if (context != null) {
+            c = pageContext.getServletContext().getContext(context);
+        } else {
+            c = pageContext.getServletContext();
 
-            // from this context, get a dispatcher
-            RequestDispatcher rd = c.getRequestDispatcher(stripSession(targetUrl));
-            if (rd == null) {
-                throw new JspTagException(stripSession(targetUrl));
+            // normalize the URL if we have an HttpServletRequest
+            if (!targetUrl.startsWith("/")) {
+                String sp = ((HttpServletRequest) pageContext.getRequest()).getServletPath();
+                targetUrl = sp.substring(0, sp.lastIndexOf('/')) + '/' + targetUrl;
             }
+        }
 
-            // include the resource, using our custom wrapper
-            ImportResponseWrapper irw = new ImportResponseWrapper(pageContext);
+        if (c == null) {
+            throw new JspTagException(Resources.getMessage("IMPORT_REL_WITHOUT_DISPATCHER", context, targetUrl));
+        }
 
-            // spec mandates specific error handling form include()
-            try {
-                rd.include(pageContext.getRequest(), irw);
-            } catch (IOException ex) {
-                throw new JspException(ex);
-            } catch (RuntimeException ex) {
-                throw new JspException(ex);
-            } catch (ServletException ex) {
-                Throwable rc = ex.getRootCause();
-                if (rc == null) {
-                    throw new JspException(ex);
-                } else {
-                    throw new JspException(rc);
-                }
-            }
+        // from this context, get a dispatcher
+        RequestDispatcher rd = c.getRequestDispatcher(stripSession(targetUrl));
+        if (rd == null) {
+            throw new JspTagException(stripSession(targetUrl));
+        }
 
-            // disallow inappropriate response codes per JSTL spec
-            if (irw.getStatus() < 200 || irw.getStatus() > 299) {
-                throw new JspTagException(irw.getStatus() + " " + stripSession(targetUrl));
+        // include the resource, using our custom wrapper;
+        // spec mandates specific error handling form include()
+        try {
+            rd.include(pageContext.getRequest(), irw);
+        } catch (IOException ex) {
+            throw new JspException(ex);
+        } catch (RuntimeException ex) {
+            throw new JspException(ex);
+        } catch (ServletException ex) {
+            Throwable rc = ex.getRootCause();
+            if (rc == null) {
+                throw new JspException(ex);
+            } else {
+                throw new JspException(rc);
             }
+        }
 
-            // recover the response String from our wrapper
-            return irw.getString();
+        // disallow inappropriate response codes per JSTL spec
+        if (!irw.isSuccess()) {
+            throw new JspTagException(irw.getStatus() + " " + stripSession(targetUrl));
         }
+
+        return irw;
     }
 
     private Reader acquireReader() throws IOException, JspException {
@@ -330,35 +371,17 @@ public abstract class ImportSupport extends BodyTagSupport implements TryCatchFi
             return new StringReader(acquireString());
         } else {
             // absolute URL
+            String cached = acquireCached();
+            if (cached != null) {
+                return new StringReader(cached);
+            }
+
             String target = targetUrl();
             try {
                 // handle absolute URLs ourselves, using java.net.URL
                 URL u = new URL(target);
                 URLConnection uc = u.openConnection();
-                InputStream i = uc.getInputStream();
-
-                // okay, we've got a stream; encode it appropriately
-                Reader r = null;
-                String charSet;
-                if (charEncoding != null && !charEncoding.equals("")) {
-                    charSet = charEncoding;
-                } else {
-                    // charSet extracted according to RFC 2045, section 5.1
-                    String contentType = uc.getContentType();
-                    if (contentType != null) {
-                        charSet = Util.getContentTypeAttribute(contentType, "charset");
-                        if (charSet == null) {
-                            charSet = DEFAULT_ENCODING;
-                        }
-                    } else {
-                        charSet = DEFAULT_ENCODING;
-                    }
-                }
-                try {
-                    r = new InputStreamReader(i, charSet);
-                } catch (Exception ex) {
-                    r = new InputStreamReader(i, DEFAULT_ENCODING);
-                }
+                Reader r = getReader(uc, charEncoding);
 
                 // check response code for HTTP URLs before returning, per spec,
                 // before returning
@@ -377,7 +400,62 @@ public abstract class ImportSupport extends BodyTagSupport implements TryCatchFi
         }
     }
 
-    /** Wraps responses to allow us to retrieve results as Strings. */
+    /**
+     * Returns the content of our absolute URL from the import cache of the application, or <code>null</code> if it is
+     * not to be cached.
+     */
+    private String acquireCached() throws JspException {
+        String target = targetUrl();
+        if (!ImportCache.isCacheable(target)) {
+            return null;
+        }
+        ImportCache cache = ImportCache.getInstance(pageContext.getServletContext());
+        if (cache == null) {
+            return null;
+        }
+
+        try {
+            return cache.get(target, charEncoding);
+        } catch (IOException ex) {
+            throw new JspException(Resources.getMessage("IMPORT_ABS_ERROR", target, ex), ex);
+        } catch (RuntimeException ex) { // because the spec makes us
+            throw new JspException(Resources.getMessage("IMPORT_ABS_ERROR", target, ex), ex);
+        }
+    }
+
+    /**
+     * Opens a Reader over the content of the given connection, decoded with <code>charEncoding</code> if it is given, or
+     * else with the charset of the response.
+     */
+    static Reader getReader(URLConnection uc, String charEncoding) throws IOException {
+        InputStream i = uc.getInputStream();
+
+        // okay, we've got a stream; encode it appropriately
+        String charSet;
+        if (charEncoding != null && !charEncoding.equals("")) {
+            charSet = charEncoding;
+        } else {
+            // charSet extracted according to RFC 2045, section 5.1
+            String contentType = uc.getContentType();
+            if (contentType != null) {
+                charSet = Util.getContentTypeAttribute(contentType, "charset");
+                if (charSet == null) {
+                    charSet = DEFAULT_ENCODING;
+                }
+            } else {
+                charSet = DEFAULT_ENCODING;
+            }
+        }
+        try {
+            return new InputStreamReader(i, charSet);
+        } catch (Exception ex) {
+            return new InputStreamReader(i, DEFAULT_ENCODING);
+        }
+    }
+
+    /**
+     * Wraps responses to allow us to retrieve results as Strings, or to pass them on to the page as they are written.
+     */
     private class ImportResponseWrapper extends HttpServletResponseWrapper {
 
         // ************************************************************
@@ -394,16 +472,27 @@ public abstract class ImportSupport extends BodyTagSupport implements TryCatchFi
          * typically the medium through with the target will communicate its ultimate response. Since we short-circuit that
          * mechanism and read the target's characters directly if they're offered as such, we simply ignore the target's
          * encoding assertion.
+         *
+         * Given a JspWriter, we buffer nothing: characters go straight to it, and bytes are decoded a chunk at a time. Output
+         * written while the target reports an error status is dropped, since the tag fails in that case.
          */
 
         // ************************************************************
         // Data
 
+        /** The page's writer, if we pass the output on to it. */
+        private final JspWriter out;
+
         /** The Writer we convey. */
-        private StringWriter sw = new StringWriter();
+        private StringWriter sw;
 
         /** A buffer, alternatively, to accumulate bytes. */
-        private ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        private ByteArrayOutputStream bos;
+
+        /** When passing bytes on, the bytes waiting to be decoded, and the decoder. */
+        private ByteBuffer bytes;
+        private CharBuffer chars;
+        private CharsetDecoder decoder;
 
         /** A ServletOutputStream we convey, tied to this Writer. */
         private ServletOutputStream sos = new ServletOutputStream() {
@@ -419,13 +508,41 @@ public abstract class ImportSupport extends BodyTagSupport implements TryCatchFi
 
             @Override
             public void write(int b) throws IOException {
-                bos.write(b);
+                if (out == null) {
+                    bos.write(b);
+                    return;
+                }
+                if (!bytes.hasRemaining()) {
+                    decode(false);
+                }
+                bytes.put((byte) b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (out == null) {
+                    bos.write(b, off, len);
+                    return;
+                }
+                while (len > 0) {
+                    if (!bytes.hasRemaining()) {
+                        decode(false);
+                    }
+                    int n = Math.min(len, bytes.remaining());
+                    bytes.put(b, off, n);
+                    off += n;
+                    len -= n;
+                }
             }
 
             @Override
             public void flush() throws IOException {
-                pageContext.getOut().write(getString());
-                bos.reset();
+                if (out == null) {
+                    pageContext.getOut().write(getString());
+                    bos.reset();
+                } else {
+                    decode(false);
+                }
             }
         };
 
@@ -443,10 +560,14 @@ public abstract class ImportSupport extends BodyTagSupport implements TryCatchFi
         // ************************************************************
         // Constructor and methods
 
-        /** Constructs a new ImportResponseWrapper. */
-        public ImportResponseWrapper(PageContext pageContext) {
+        /**
+         * Constructs a new ImportResponseWrapper, which passes the output on to <code>out</code> if it is not
+         * <code>null</code>.
+         */
+        public ImportResponseWrapper(PageContext pageContext, JspWriter out) {
             super((HttpServletResponse) pageContext.getResponse());
             this.pageContext = pageContext;
+            this.out = out;
         }
 
         /** Returns a Writer designed to buffer the output. */
@@ -456,7 +577,13 @@ public abstract class ImportSupport extends BodyTagSupport implements TryCatchFi
                 throw new IllegalStateException(Resources.getMessage("IMPORT_ILLEGAL_STREAM"));
             }
             isWriterUsed = true;
-            return new PrintWriter(sw);
+            if (out == null) {
+                if (sw == null) {
+                    sw = new StringWriter();
+                }
+                return new PrintWriter(sw);
+            }
+            return new PrintWriter(new PageWriter());
         }
 
         /** Returns a ServletOutputStream designed to buffer the output. */
@@ -465,6 +592,17 @@ public abstract class ImportSupport extends BodyTagSupport implements TryCatchFi
             if (isWriterUsed) {
                 throw new IllegalStateException(Resources.getMessage("IMPORT_ILLEGAL_WRITER"));
             }
+            if (!isStreamUsed) {
+                if (out == null) {
+                    bos = new ByteArrayOutputStream();
+                } else {
+                    String encoding = charEncoding != null && !charEncoding.equals("") ? charEncoding : DEFAULT_ENCODING;
+                    decoder = Charset.forName(encoding).newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+                            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+                    bytes = ByteBuffer.allocate(CHUNK_SIZE);
+                    chars = CharBuffer.allocate(CHUNK_SIZE);
+                }
+            }
             isStreamUsed = true;
             return sos;
         }
@@ -491,6 +629,10 @@ public abstract class ImportSupport extends BodyTagSupport implements TryCatchFi
             return status;
         }
 
+        boolean isSuccess() {
+            return status >= 200 && status <= 299;
+        }
+
         /**
          * Retrieves the buffered output, using the containing tag's 'charEncoding' attribute, or the tag's default encoding,
          * <b>if necessary</b>.
@@ -511,6 +653,66 @@ public abstract class ImportSupport extends BodyTagSupport implements TryCatchFi
                 return ""; // target didn't write anything
             }
         }
+
+        /** Passes on whatever bytes are still waiting to be decoded. */
+        void finish() throws IOException {
+            if (decoder != null) {
+                decode(true);
+                decoder.flush(chars);
+                writeChars();
+            }
+        }
+
+        /** Decodes the buffered bytes and passes the characters on, keeping any incomplete sequence for later. */
+        private void decode(boolean endOfInput) throws IOException {
+            bytes.flip();
+            while (decoder.decode(bytes, chars, endOfInput).isOverflow()) {
+                writeChars();
+            }
+            writeChars();
+            bytes.compact();
+        }
+
+        private void writeChars() throws IOException {
+            chars.flip();
+            if (isSuccess()) {
+                out.write(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+            }
+            chars.clear();
+        }
+
+        /** A Writer that passes characters on to the page, but ignores requests to flush or close it. */
+        private class PageWriter extends Writer {
+
+            @Override
+            public void write(char[] cbuf, int off, int len) throws IOException {
+                if (isSuccess()) {
+                    out.write(cbuf, off, len);
+                }
+            }
+
+            @Override
+            public void write(String str, int off, int len) throws IOException {
+                if (isSuccess()) {
+                    out.write(str, off, len);
+                }
+            }
+
+            @Override
+            public void write(int c) throws IOException {
+                if (isSuccess()) {
+                    out.write(c);
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        }
     }
 
     // *********************************************************************
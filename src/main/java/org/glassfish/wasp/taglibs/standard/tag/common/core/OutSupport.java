@@ -25,6 +25,8 @@ import jakarta.servlet.jsp.JspWriter;
 import jakarta.servlet.jsp.PageContext;
 import jakarta.servlet.jsp.tagext.BodyTagSupport;
 
+import org.glassfish.wasp.runtime.XmlEscaper;
+
 /**
  * <p>
  * Support for handlers of the &lt;out&gt; tag, which simply evalutes and prints the result of the expression it's
@@ -164,8 +166,7 @@ public class OutSupport extends BodyTagSupport {
                     writeEscapedXml(buf, count, w);
                 }
             } else {
-                String text = obj.toString();
-                writeEscapedXml(text.toCharArray(), text.length(), w);
+                XmlEscaper.write(w, obj.toString());
             }
         }
     }
@@ -18,7 +18,9 @@
 
 package org.glassfish.wasp.taglibs.standard.tag.common.core;
 
-import java.util.LinkedList;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.glassfish.wasp.taglibs.standard.resources.Resources;
@@ -121,8 +123,8 @@ public abstract class ParamSupport extends BodyTagSupport {
         // *********************************
         // Private state
 
-        private List<String> names = new LinkedList<>();
-        private List<String> values = new LinkedList<>();
+        private List<String> names = new ArrayList<>();
+        private List<String> values = new ArrayList<>();
         private boolean done = false;
 
         // *********************************
@@ -159,27 +161,72 @@ public abstract class ParamSupport extends BodyTagSupport {
             // Collections.reverse(this.names);
             // Collections.reverse(this.values);
 
-            // build a string from the parameter list
-            StringBuffer newParams = new StringBuffer();
+            if (names.isEmpty()) {
+                return url;
+            }
+
+            // insert the parameters into the URL as appropriate
+            int length = url.length() + 1;
             for (int i = 0; i < names.size(); i++) {
-                newParams.append(names.get(i)).append("=").append(values.get(i));
-                if (i < (names.size() - 1)) {
-                    newParams.append("&");
+                length += names.get(i).length() + values.get(i).length() + 2;
+            }
+            StringBuilder workingUrl = new StringBuilder(length);
+            int questionMark = url.indexOf('?');
+            if (questionMark == -1) {
+                workingUrl.append(url).append('?');
+                appendParams(workingUrl);
+            } else {
+                workingUrl.append(url, 0, questionMark + 1);
+                appendParams(workingUrl);
+                workingUrl.append('&').append(url, questionMark + 1, url.length());
+            }
+            return workingUrl.toString();
+        }
+
+        /**
+         * Writes the URL produced by {@link #aggregateParams(String)} to the given Writer, without building it first.
+         */
+        public void aggregateParams(String url, Writer out) throws IOException {
+            if (done) {
+                throw new IllegalStateException();
+            }
+            done = true;
+
+            if (names.isEmpty()) {
+                out.write(url);
+                return;
+            }
+
+            int questionMark = url.indexOf('?');
+            if (questionMark == -1) {
+                out.write(url);
+                out.write('?');
+                writeParams(out);
+            } else {
+                out.write(url, 0, questionMark + 1);
+                writeParams(out);
+                out.write('&');
+                out.write(url, questionMark + 1, url.length() - questionMark - 1);
+            }
+        }
+
+        private void appendParams(StringBuilder sb) {
+            for (int i = 0; i < names.size(); i++) {
+                if (i > 0) {
+                    sb.append('&');
                 }
+                sb.append(names.get(i)).append('=').append(values.get(i));
             }
+        }
 
-            // insert these parameters into the URL as appropriate
-            if (newParams.length() > 0) {
-                int questionMark = url.indexOf('?');
-                if (questionMark == -1) {
-                    return (url + "?" + newParams);
-                } else {
-                    StringBuilder workingUrl = new StringBuilder(url);
-                    workingUrl.insert(questionMark + 1, (newParams + "&"));
-                    return workingUrl.toString();
+        private void writeParams(Writer out) throws IOException {
+            for (int i = 0; i < names.size(); i++) {
+                if (i > 0) {
+                    out.write('&');
                 }
-            } else {
-                return url;
+                out.write(names.get(i));
+                out.write('=');
+                out.write(values.get(i));
             }
         }
     }
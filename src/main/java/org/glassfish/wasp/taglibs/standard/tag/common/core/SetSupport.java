@@ -111,46 +111,7 @@ public class SetSupport extends BodyTagSupport {
 
         // decide what to do with the result
         if (var != null) {
-
-            /*
-             * Store the result, letting an IllegalArgumentException propagate back if the scope is invalid (e.g., if an attempt is
-             * made to store something in the session without any HttpSession existing).
-             */
-            if (result != null) {
-                if (result instanceof ValueExpression) {
-                    if (scope != PageContext.PAGE_SCOPE) {
-                        throw new JspException(Resources.getMessage("SET_BAD_SCOPE_DEFERRED"));
-                    }
-                    VariableMapper vm = pageContext.getELContext().getVariableMapper();
-                    if (vm != null) {
-                        vm.setVariable(var, (ValueExpression) result);
-                    }
-                } else {
-                    // Make sure to clear any previous mapping for this
-                    // variable in the variable mapper.
-                    if (scope == PageContext.PAGE_SCOPE) {
-                        VariableMapper vm = pageContext.getELContext().getVariableMapper();
-                        if (vm != null) {
-                            vm.setVariable(var, null);
-                        }
-                    }
-                    pageContext.setAttribute(var, result, scope);
-                }
-            } else {
-                if (scopeSpecified) {
-                    pageContext.removeAttribute(var, scope);
-                } else {
-                    pageContext.removeAttribute(var);
-                }
-
-                if (scope == PageContext.PAGE_SCOPE) {
-                    VariableMapper vm = pageContext.getELContext().getVariableMapper();
-                    if (vm != null) {
-                        vm.setVariable(var, null);
-                    }
-                }
-            }
-
+            setVariable(pageContext, var, result, scope, scopeSpecified);
         } else if (target != null) {
 
             // save the result to target.property
@@ -203,6 +164,51 @@ public class SetSupport extends BodyTagSupport {
         return EVAL_PAGE;
     }
 
+    /**
+     * Stores the result of a &lt;set&gt; tag in the scoped variable <tt>var</tt>, or removes the variable if the result
+     * is <tt>null</tt>. Also used by code the c:set tag plugin generates.
+     */
+    public static void setVariable(PageContext pageContext, String var, Object result, int scope, boolean scopeSpecified) throws JspException {
+        /*
+         * Store the result, letting an IllegalArgumentException propagate back if the scope is invalid (e.g., if an attempt is
+         * made to store something in the session without any HttpSession existing).
+         */
+        if (result != null) {
+            if (result instanceof ValueExpression) {
+                if (scope != PageContext.PAGE_SCOPE) {
+                    throw new JspException(Resources.getMessage("SET_BAD_SCOPE_DEFERRED"));
+                }
+                VariableMapper vm = pageContext.getELContext().getVariableMapper();
+                if (vm != null) {
+                    vm.setVariable(var, (ValueExpression) result);
+                }
+            } else {
+                // Make sure to clear any previous mapping for this
+                // variable in the variable mapper.
+                if (scope == PageContext.PAGE_SCOPE) {
+                    VariableMapper vm = pageContext.getELContext().getVariableMapper();
+                    if (vm != null) {
+                        vm.setVariable(var, null);
+                    }
+                }
+                pageContext.setAttribute(var, result, scope);
+            }
+        } else {
+            if (scopeSpecified) {
+                pageContext.removeAttribute(var, scope);
+            } else {
+                pageContext.removeAttribute(var);
+            }
+
+            if (scope == PageContext.PAGE_SCOPE) {
+                VariableMapper vm = pageContext.getELContext().getVariableMapper();
+                if (vm != null) {
+                    vm.setVariable(var, null);
+                }
+            }
+        }
+    }
+
     /**
      * Convert an object to an expected type according to the conversion rules of the Expression Language.
      */
@@ -17,6 +17,9 @@
 
 package org.glassfish.wasp.taglibs.standard.tag.common.core;
 
+import java.io.IOException;
+import java.io.Writer;
+
 import org.glassfish.wasp.taglibs.standard.resources.Resources;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -97,25 +100,16 @@ public abstract class UrlSupport extends BodyTagSupport implements ParamParent {
     // gets the right value, encodes it, and prints or stores it
     @Override
     public int doEndTag() throws JspException {
-        String result; // the eventual result
-
-        // add (already encoded) parameters
+        // add (already encoded) parameters, and rewrite the URL if it is relative
         String baseUrl = resolveUrl(value, context, pageContext);
-        result = params.aggregateParams(baseUrl);
-
-        // if the URL is relative, rewrite it
-        if (!ImportSupport.isAbsoluteUrl(result)) {
-            HttpServletResponse response = ((HttpServletResponse) pageContext.getResponse());
-            result = response.encodeURL(result);
-        }
 
         // store or print the output
         if (var != null) {
-            pageContext.setAttribute(var, result, scope);
+            pageContext.setAttribute(var, rewriteUrl(baseUrl, params, pageContext), scope);
         } else {
             try {
-                pageContext.getOut().print(result);
-            } catch (java.io.IOException ex) {
+                writeUrl(baseUrl, params, pageContext, pageContext.getOut());
+            } catch (IOException ex) {
                 throw new JspTagException(ex.toString(), ex);
             }
         }
@@ -132,6 +126,36 @@ public abstract class UrlSupport extends BodyTagSupport implements ParamParent {
     // *********************************************************************
     // Utility methods
 
+    /**
+     * Adds the (already encoded) parameters to a resolved URL and, if the URL is relative, rewrites it for session
+     * tracking. <tt>params</tt> may be <tt>null</tt> when there are no parameters.
+     */
+    public static String rewriteUrl(String baseUrl, ParamSupport.ParamManager params, PageContext pageContext) {
+        String result = params != null ? params.aggregateParams(baseUrl) : baseUrl;
+
+        // if the URL is relative, rewrite it
+        if (!ImportSupport.isAbsoluteUrl(result)) {
+            HttpServletResponse response = ((HttpServletResponse) pageContext.getResponse());
+            result = response.encodeURL(result);
+        }
+        return result;
+    }
+
+    /**
+     * Writes the URL returned by {@link #rewriteUrl(String, ParamSupport.ParamManager, PageContext)} to the given
+     * Writer. Absolute URLs, which are not rewritten, are written piece by piece rather than built as a String first.
+     */
+    public static void writeUrl(String baseUrl, ParamSupport.ParamManager params, PageContext pageContext, Writer out) throws IOException {
+        if (!ImportSupport.isAbsoluteUrl(baseUrl)) {
+            // encodeURL() needs the whole URL
+            out.write(rewriteUrl(baseUrl, params, pageContext));
+        } else if (params != null) {
+            params.aggregateParams(baseUrl, out);
+        } else {
+            out.write(baseUrl);
+        }
+    }
+
     public static String resolveUrl(String url, String context, PageContext pageContext) throws JspException {
         // don't touch absolute URLs
         if (ImportSupport.isAbsoluteUrl(url)) {
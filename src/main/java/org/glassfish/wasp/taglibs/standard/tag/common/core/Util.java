@@ -18,9 +18,12 @@
 
 package org.glassfish.wasp.taglibs.standard.tag.common.core;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.util.Enumeration;
 
@@ -48,6 +51,8 @@ public class Util {
     private static final String LONG = "long";
     private static final String FULL = "full";
 
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     public static final int HIGHEST_SPECIAL = '>';
     public static char[][] specialCharactersRepresentation = new char[HIGHEST_SPECIAL + 1][];
     static {
@@ -126,21 +131,20 @@ public class Util {
     public static String escapeXml(String buffer) {
         int start = 0;
         int length = buffer.length();
-        char[] arrayBuffer = buffer.toCharArray();
-        StringBuffer escapedBuffer = null;
+        StringBuilder escapedBuffer = null;
 
         for (int i = 0; i < length; i++) {
-            char c = arrayBuffer[i];
+            char c = buffer.charAt(i);
             if (c <= HIGHEST_SPECIAL) {
                 char[] escaped = specialCharactersRepresentation[c];
                 if (escaped != null) {
-                    // create StringBuffer to hold escaped xml string
-                    if (start == 0) {
-                        escapedBuffer = new StringBuffer(length + 5);
+                    // create StringBuilder to hold escaped xml string
+                    if (escapedBuffer == null) {
+                        escapedBuffer = new StringBuilder(length + 16);
                     }
                     // add unescaped portion
                     if (start < i) {
-                        escapedBuffer.append(arrayBuffer, start, i - start);
+                        escapedBuffer.append(buffer, start, i);
                     }
                     start = i + 1;
                     // add escaped xml
@@ -149,12 +153,12 @@ public class Util {
             }
         }
         // no xml escaping was necessary
-        if (start == 0) {
+        if (escapedBuffer == null) {
             return buffer;
         }
         // add rest of unescaped portion
         if (start < length) {
-            escapedBuffer.append(arrayBuffer, start, length - start);
+            escapedBuffer.append(buffer, start, length);
         }
         return escapedBuffer.toString();
     }
@@ -212,48 +216,146 @@ public class Util {
             return "null";
         }
 
-        if (enc == null) {
-            enc = "UTF-8"; // Is this right?
+        // most names and values need no encoding at all
+        int length = s.length();
+        int i = 0;
+        while (i < length && isSafeChar(s.charAt(i))) {
+            i++;
         }
-
-        StringBuilder out = new StringBuilder(s.length());
-        ByteArrayOutputStream buf = new ByteArrayOutputStream();
-        OutputStreamWriter writer = null;
-        try {
-            writer = new OutputStreamWriter(buf, enc);
-        } catch (java.io.UnsupportedEncodingException ex) {
-            // Use the default encoding?
-            writer = new OutputStreamWriter(buf);
+        if (i == length) {
+            return s;
         }
 
-        for (int i = 0; i < s.length(); i++) {
-            int c = s.charAt(i);
+        Charset charset = getCharset(enc);
+        RunEncoder encoder = null;
+        StringBuilder out = new StringBuilder(length + 16);
+        out.append(s, 0, i);
+        while (i < length) {
+            char c = s.charAt(i);
             if (c == ' ') {
                 out.append('+');
+                i++;
             } else if (isSafeChar(c)) {
-                out.append((char) c);
+                out.append(c);
+                i++;
             } else {
-                // convert to external encoding before hex conversion
-                try {
-                    writer.write(c);
-                    writer.flush();
-                } catch (IOException e) {
-                    buf.reset();
-                    continue;
+                // convert the whole run of unsafe characters to the external encoding before hex conversion
+                int end = i + 1;
+                while (end < length && s.charAt(end) != ' ' && !isSafeChar(s.charAt(end))) {
+                    end++;
                 }
-                byte[] ba = buf.toByteArray();
-                for (byte element : ba) {
-                    out.append('%');
-                    // Converting each byte in the buffer
-                    out.append(Character.forDigit((element >> 4) & 0xf, 16));
-                    out.append(Character.forDigit(element & 0xf, 16));
+                if (charset == StandardCharsets.UTF_8) {
+                    appendUTF8(s, i, end, out);
+                } else {
+                    if (encoder == null) {
+                        encoder = RunEncoder.get(charset);
+                    }
+                    encoder.encode(s, i, end, out);
                 }
-                buf.reset();
+                i = end;
             }
         }
         return out.toString();
     }
 
+    private static Charset getCharset(String enc) {
+        if (enc == null) {
+            return StandardCharsets.UTF_8; // Is this right?
+        }
+        try {
+            return Charset.forName(enc);
+        } catch (IllegalArgumentException ex) {
+            // Use the default encoding?
+            return Charset.defaultCharset();
+        }
+    }
+
+    /** Appends the %-escaped UTF-8 bytes of the given characters, with '?' for unpaired surrogates. */
+    private static void appendUTF8(String s, int start, int end, StringBuilder out) {
+        for (int i = start; i < end; i++) {
+            int c = s.charAt(i);
+            if (Character.isSurrogate((char) c)) {
+                if (Character.isHighSurrogate((char) c) && i + 1 < end && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    c = Character.toCodePoint((char) c, s.charAt(++i));
+                } else {
+                    c = '?';
+                }
+            }
+
+            if (c < 0x80) {
+                appendHex(c, out);
+            } else if (c < 0x800) {
+                appendHex(0xc0 | (c >> 6), out);
+                appendHex(0x80 | (c & 0x3f), out);
+            } else if (c < 0x10000) {
+                appendHex(0xe0 | (c >> 12), out);
+                appendHex(0x80 | ((c >> 6) & 0x3f), out);
+                appendHex(0x80 | (c & 0x3f), out);
+            } else {
+                appendHex(0xf0 | (c >> 18), out);
+                appendHex(0x80 | ((c >> 12) & 0x3f), out);
+                appendHex(0x80 | ((c >> 6) & 0x3f), out);
+                appendHex(0x80 | (c & 0x3f), out);
+            }
+        }
+    }
+
+    private static void appendHex(int b, StringBuilder out) {
+        out.append('%').append(HEX_DIGITS[(b >> 4) & 0xf]).append(HEX_DIGITS[b & 0xf]);
+    }
+
+    /**
+     * Encodes runs of characters to %-escaped bytes for charsets other than UTF-8. Each thread keeps the encoder and the
+     * buffers of the charset it used last. Like a single Writer over the whole String, the encoder is only reset once per
+     * String, so that a byte order mark is written once.
+     */
+    private static final class RunEncoder {
+
+        private static final ThreadLocal<RunEncoder> current = new ThreadLocal<>();
+
+        private final CharsetEncoder encoder;
+        private CharBuffer chars = CharBuffer.allocate(64);
+        private final ByteBuffer bytes = ByteBuffer.allocate(256);
+
+        private RunEncoder(Charset charset) {
+            encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        /** Returns the encoder of this thread for the given charset, ready for a new String. */
+        static RunEncoder get(Charset charset) {
+            RunEncoder e = current.get();
+            if (e == null || !e.encoder.charset().equals(charset)) {
+                e = new RunEncoder(charset);
+                current.set(e);
+            }
+            e.encoder.reset();
+            return e;
+        }
+
+        void encode(String s, int start, int end, StringBuilder out) {
+            int length = end - start;
+            if (chars.capacity() < length) {
+                chars = CharBuffer.allocate(Math.max(length, 2 * chars.capacity()));
+            }
+            chars.clear();
+            s.getChars(start, end, chars.array(), 0);
+            chars.limit(length);
+
+            while (encoder.encode(chars, bytes, true).isOverflow()) {
+                drain(out);
+            }
+            drain(out);
+        }
+
+        private void drain(StringBuilder out) {
+            bytes.flip();
+            while (bytes.hasRemaining()) {
+                appendHex(bytes.get(), out);
+            }
+            bytes.clear();
+        }
+    }
+
     private static boolean isSafeChar(int c) {
         if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
             return true;
@@ -18,11 +18,19 @@
 package org.glassfish.wasp.taglibs.standard.tag.common.fmt;
 
 import java.io.IOException;
-import java.util.Enumeration;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.glassfish.wasp.taglibs.standard.tag.common.core.BoundedCache;
 import org.glassfish.wasp.taglibs.standard.tag.common.core.Util;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -45,6 +53,16 @@ public abstract class BundleSupport extends BodyTagSupport {
     // Private constants
 
     private static final Locale EMPTY_LOCALE = new Locale("", "");
+    private static final int CACHE_SIZE = 256;
+
+    /*
+     * Localization contexts resolved from a basename, keyed by the basename, the preferred locales and the fallback
+     * locale, per class loader. The class loaders are weakly referenced, and their caches dropped once they have been
+     * collected. Like the ResourceBundle cache, the contexts are softly referenced: the bundles they hold keep their
+     * class loader reachable only until the garbage collector clears them.
+     */
+    private static final ConcurrentHashMap<LoaderKey, BoundedCache<List<Object>, SoftReference<ResolvedContext>>> localizationContexts = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<ClassLoader> collectedLoaders = new ReferenceQueue<>();
 
     // *********************************************************************
     // Protected state
@@ -155,57 +173,37 @@ public abstract class BundleSupport extends BodyTagSupport {
      * resource bundle match, or the empty localization context if no resource bundle match was found
      */
     public static LocalizationContext getLocalizationContext(PageContext pc, String basename) {
-        LocalizationContext locCtxt = null;
-        ResourceBundle bundle = null;
-
         if ((basename == null) || basename.equals("")) {
             return new LocalizationContext();
         }
 
-        // Try preferred locales
+        // Preferred locale is application-based if set, browser-based otherwise
+        List<Locale> prefs;
         Locale pref = SetLocaleSupport.getLocale(pc, Config.FMT_LOCALE);
         if (pref != null) {
-            // Preferred locale is application-based
-            bundle = findMatch(basename, pref);
-            if (bundle != null) {
-                locCtxt = new LocalizationContext(bundle, pref);
-            }
+            prefs = Collections.singletonList(pref);
         } else {
-            // Preferred locales are browser-based
-            locCtxt = findMatch(pc, basename);
-        }
-
-        if (locCtxt == null) {
-            // No match found with preferred locales, try using fallback locale
-            pref = SetLocaleSupport.getLocale(pc, Config.FMT_FALLBACK_LOCALE);
-            if (pref != null) {
-                bundle = findMatch(basename, pref);
-                if (bundle != null) {
-                    locCtxt = new LocalizationContext(bundle, pref);
-                }
-            }
+            prefs = Collections.list(Util.getRequestLocales((HttpServletRequest) pc.getRequest()));
         }
-
-        if (locCtxt == null) {
-            // try using the root resource bundle with the given basename
-            try {
-                bundle = ResourceBundle.getBundle(basename, EMPTY_LOCALE, Thread.currentThread().getContextClassLoader());
-                if (bundle != null) {
-                    locCtxt = new LocalizationContext(bundle, null);
-                }
-            } catch (MissingResourceException mre) {
-                // do nothing
+        Locale fallback = SetLocaleSupport.getLocale(pc, Config.FMT_FALLBACK_LOCALE);
+
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        BoundedCache<List<Object>, SoftReference<ResolvedContext>> cache = loader == null ? null : getCache(loader);
+
+        List<Object> key = Arrays.asList(basename, prefs, fallback);
+        SoftReference<ResolvedContext> ref = cache == null ? null : cache.get(key);
+        ResolvedContext resolved = ref == null ? null : ref.get();
+        if (resolved == null || !resolved.isCurrent(basename, loader)) {
+            resolved = resolve(basename, prefs, fallback, loader);
+            if (cache != null) {
+                cache.put(key, new SoftReference<>(resolved));
             }
         }
 
-        if (locCtxt != null) {
+        LocalizationContext locCtxt = resolved.locCtxt;
+        if (locCtxt.getLocale() != null) {
             // set response locale
-            if (locCtxt.getLocale() != null) {
-                SetLocaleSupport.setResponseLocale(pc, locCtxt.getLocale());
-            }
-        } else {
-            // create empty localization context
-            locCtxt = new LocalizationContext();
+            SetLocaleSupport.setResponseLocale(pc, locCtxt.getLocale());
         }
 
         return locCtxt;
@@ -215,31 +213,48 @@ public abstract class BundleSupport extends BodyTagSupport {
     // Private utility methods
 
     /*
-     * Determines the client's preferred locales from the request, and compares each of the locales (in order of preference)
-     * against the available locales in order to determine the best matching locale.
-     *
-     * @param pageContext the page in which the resource bundle with the given base name is requested
-     *
-     * @param basename the resource bundle's base name
-     *
-     * @return the localization context containing the resource bundle with the given base name and best matching locale, or
-     * <tt>null</tt> if no resource bundle match was found
+     * Returns the cache of localization contexts for the given class loader, creating it on first use. Caches whose class
+     * loader has been collected are dropped when a new one is created.
      */
-    private static LocalizationContext findMatch(PageContext pageContext, String basename) {
-        LocalizationContext locCtxt = null;
+    private static BoundedCache<List<Object>, SoftReference<ResolvedContext>> getCache(ClassLoader loader) {
+        BoundedCache<List<Object>, SoftReference<ResolvedContext>> cache = localizationContexts.get(new LoaderKey(loader, null));
+        if (cache == null) {
+            for (Reference<? extends ClassLoader> collected; (collected = collectedLoaders.poll()) != null;) {
+                localizationContexts.remove(collected);
+            }
+            cache = localizationContexts.computeIfAbsent(new LoaderKey(loader, collectedLoaders), k -> new BoundedCache<>(CACHE_SIZE));
+        }
+        return cache;
+    }
 
-        // Determine locale from client's browser settings.
+    /*
+     * Compares each of the preferred locales (in order of preference), and then the fallback locale, against the
+     * available locales in order to determine the best matching resource bundle. If there is no match, the root resource
+     * bundle with the given base name is used.
+     */
+    private static ResolvedContext resolve(String basename, List<Locale> prefs, Locale fallback, ClassLoader loader) {
+        for (Locale pref : prefs) {
+            ResourceBundle match = findMatch(basename, pref, loader);
+            if (match != null) {
+                return new ResolvedContext(new LocalizationContext(match, pref), pref);
+            }
+        }
 
-        for (Enumeration enum_ = Util.getRequestLocales((HttpServletRequest) pageContext.getRequest()); enum_.hasMoreElements();) {
-            Locale pref = (Locale) enum_.nextElement();
-            ResourceBundle match = findMatch(basename, pref);
+        if (fallback != null) {
+            ResourceBundle match = findMatch(basename, fallback, loader);
             if (match != null) {
-                locCtxt = new LocalizationContext(match, pref);
-                break;
+                return new ResolvedContext(new LocalizationContext(match, fallback), fallback);
             }
         }
 
-        return locCtxt;
+        // try using the root resource bundle with the given basename
+        try {
+            ResourceBundle bundle = ResourceBundle.getBundle(basename, EMPTY_LOCALE, loader);
+            return new ResolvedContext(new LocalizationContext(bundle, null), EMPTY_LOCALE);
+        } catch (MissingResourceException mre) {
+            // create empty localization context
+            return new ResolvedContext(new LocalizationContext(), null);
+        }
     }
 
     /*
@@ -252,15 +267,17 @@ public abstract class BundleSupport extends BodyTagSupport {
      *
      * @param pref the preferred locale
      *
+     * @param loader the class loader to load the resource bundle with
+     *
      * @return the requested resource bundle, or <tt>null</tt> if no resource bundle with the given base name exists or if
      * there is no exact- or language-match between the preferred locale and the locale of the bundle returned by
      * java.util.ResourceBundle.getBundle().
      */
-    private static ResourceBundle findMatch(String basename, Locale pref) {
+    private static ResourceBundle findMatch(String basename, Locale pref, ClassLoader loader) {
         ResourceBundle match = null;
 
         try {
-            ResourceBundle bundle = ResourceBundle.getBundle(basename, pref, Thread.currentThread().getContextClassLoader());
+            ResourceBundle bundle = ResourceBundle.getBundle(basename, pref, loader);
             Locale avail = bundle.getLocale();
             if (pref.equals(avail)) {
                 // Exact match
@@ -292,4 +309,63 @@ public abstract class BundleSupport extends BodyTagSupport {
 
         return match;
     }
+
+    /*
+     * Weakly references a class loader, comparing by identity. Once cleared, a key is only equal to itself.
+     */
+    private static final class LoaderKey extends WeakReference<ClassLoader> {
+
+        private final int hash;
+
+        LoaderKey(ClassLoader loader, ReferenceQueue<ClassLoader> queue) {
+            super(loader, queue);
+            this.hash = System.identityHashCode(loader);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof LoaderKey)) {
+                return false;
+            }
+            ClassLoader loader = get();
+            return loader != null && loader == ((LoaderKey) o).get();
+        }
+    }
+
+    /*
+     * A resolved localization context, and the locale its resource bundle was looked up with.
+     */
+    private static final class ResolvedContext {
+
+        final LocalizationContext locCtxt;
+        private final Locale bundleLocale;
+
+        ResolvedContext(LocalizationContext locCtxt, Locale bundleLocale) {
+            this.locCtxt = locCtxt;
+            this.bundleLocale = bundleLocale;
+        }
+
+        /*
+         * Tells whether ResourceBundle still returns the same bundle, which is no longer the case once the bundle cache is
+         * cleared or its entry has expired. A context without a bundle is kept until its class loader goes away.
+         */
+        boolean isCurrent(String basename, ClassLoader loader) {
+            if (bundleLocale == null) {
+                return true;
+            }
+            try {
+                return ResourceBundle.getBundle(basename, bundleLocale, loader) == locCtxt.getResourceBundle();
+            } catch (MissingResourceException mre) {
+                return false;
+            }
+        }
+    }
 }
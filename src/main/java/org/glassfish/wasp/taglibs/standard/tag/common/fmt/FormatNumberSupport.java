@@ -25,13 +25,8 @@ import jakarta.servlet.jsp.PageContext;
 import jakarta.servlet.jsp.tagext.BodyTagSupport;
 
 import java.io.IOException;
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
-import java.text.NumberFormat;
-import java.util.Currency;
 import java.util.Locale;
 
-import org.glassfish.wasp.taglibs.standard.resources.Resources;
 import org.glassfish.wasp.taglibs.standard.tag.common.core.Util;
 
 /**
@@ -46,9 +41,6 @@ public abstract class FormatNumberSupport extends BodyTagSupport {
     // Private constants
 
     private static final long serialVersionUID = 1021830879024348617L;
-    private static final String NUMBER = "number";
-    private static final String CURRENCY = "currency";
-    private static final String PERCENT = "percent";
 
     // *********************************************************************
     // Protected state
@@ -75,7 +67,6 @@ public abstract class FormatNumberSupport extends BodyTagSupport {
 
     private String var; // 'var' attribute
     private int scope; // 'scope' attribute
-    private static Class<?> currencyClass = Currency.class;
 
     // *********************************************************************
     // Constructor and initialization
@@ -135,46 +126,11 @@ public abstract class FormatNumberSupport extends BodyTagSupport {
             return EVAL_PAGE;
         }
 
-        /*
-         * If 'value' is a String, it is first parsed into an instance of java.lang.Number
-         */
-        if (input instanceof String) {
-            try {
-                if (((String) input).indexOf('.') != -1) {
-                    input = Double.valueOf((String) input);
-                } else {
-                    input = Long.valueOf((String) input);
-                }
-            } catch (NumberFormatException nfe) {
-                throw new JspException(Resources.getMessage("FORMAT_NUMBER_PARSE_ERROR", input), nfe);
-            }
-        }
-
         // Determine formatting locale
         Locale loc = SetLocaleSupport.getFormattingLocale(pageContext, this, false, true);
-        if (loc != null) {
-            // Create formatter
-            NumberFormat formatter = null;
-            if ((pattern != null) && !pattern.equals("")) {
-                // if 'pattern' is specified, 'type' is ignored
-                DecimalFormatSymbols symbols = new DecimalFormatSymbols(loc);
-                formatter = new DecimalFormat(pattern, symbols);
-            } else {
-                formatter = createFormatter(loc);
-            }
-            if (((pattern != null) && !pattern.equals("")) || CURRENCY.equalsIgnoreCase(type)) {
-                try {
-                    setCurrency(formatter);
-                } catch (Exception e) {
-                    throw new JspException(Resources.getMessage("FORMAT_NUMBER_CURRENCY_ERROR"), e);
-                }
-            }
-            configureFormatter(formatter);
-            formatted = formatter.format(input);
-        } else {
-            // no formatting locale available, use toString()
-            formatted = input.toString();
-        }
+        formatted = Formatters.formatNumber(loc, input, type, pattern, currencyCode, currencySymbol, groupingUsedSpecified ? isGroupingUsed : null,
+                maxIntegerDigitsSpecified ? maxIntegerDigits : null, minIntegerDigitsSpecified ? minIntegerDigits : null,
+                maxFractionDigitsSpecified ? maxFractionDigits : null, minFractionDigitsSpecified ? minFractionDigits : null);
 
         if (var != null) {
             pageContext.setAttribute(var, formatted, scope);
@@ -194,103 +150,4 @@ public abstract class FormatNumberSupport extends BodyTagSupport {
     public void release() {
         init();
     }
-
-    // *********************************************************************
-    // Private utility methods
-
-    private NumberFormat createFormatter(Locale loc) throws JspException {
-        NumberFormat formatter = null;
-
-        if ((type == null) || NUMBER.equalsIgnoreCase(type)) {
-            formatter = NumberFormat.getNumberInstance(loc);
-        } else if (CURRENCY.equalsIgnoreCase(type)) {
-            formatter = NumberFormat.getCurrencyInstance(loc);
-        } else if (PERCENT.equalsIgnoreCase(type)) {
-            formatter = NumberFormat.getPercentInstance(loc);
-        } else {
-            throw new JspException(Resources.getMessage("FORMAT_NUMBER_INVALID_TYPE", type));
-        }
-
-        return formatter;
-    }
-
-    /*
-     * Applies the 'groupingUsed', 'maxIntegerDigits', 'minIntegerDigits', 'maxFractionDigits', and 'minFractionDigits'
-     * attributes to the given formatter.
-     */
-    private void configureFormatter(NumberFormat formatter) {
-        if (groupingUsedSpecified) {
-            formatter.setGroupingUsed(isGroupingUsed);
-        }
-        if (maxIntegerDigitsSpecified) {
-            formatter.setMaximumIntegerDigits(maxIntegerDigits);
-        }
-        if (minIntegerDigitsSpecified) {
-            formatter.setMinimumIntegerDigits(minIntegerDigits);
-        }
-        if (maxFractionDigitsSpecified) {
-            formatter.setMaximumFractionDigits(maxFractionDigits);
-        }
-        if (minFractionDigitsSpecified) {
-            formatter.setMinimumFractionDigits(minFractionDigits);
-        }
-    }
-
-    /*
-     * Override the formatting locale's default currency symbol with the specified currency code (specified via the
-     * "currencyCode" attribute) or currency symbol (specified via the "currencySymbol" attribute).
-     *
-     * If both "currencyCode" and "currencySymbol" are present, "currencyCode" takes precedence over "currencySymbol" if the
-     * java.util.Currency class is defined in the container's runtime (that is, if the container's runtime is J2SE 1.4 or
-     * greater), and "currencySymbol" takes precendence over "currencyCode" otherwise.
-     *
-     * If only "currencyCode" is given, it is used as a currency symbol if java.util.Currency is not defined.
-     *
-     * Example:
-     *
-     * JDK "currencyCode" "currencySymbol" Currency symbol being displayed
-     * ----------------------------------------------------------------------- all --- --- Locale's default currency symbol
-     *
-     * <1.4 EUR --- EUR >=1.4 EUR --- Locale's currency symbol for Euro
-     *
-     * all --- \u20AC \u20AC
-     *
-     * <1.4 EUR \u20AC \u20AC >=1.4 EUR \u20AC Locale's currency symbol for Euro
-     */
-    private void setCurrency(NumberFormat formatter) throws Exception {
-        String code = null;
-        String symbol = null;
-
-        if ((currencyCode == null) && (currencySymbol == null)) {
-            return;
-        }
-
-        if ((currencyCode != null) && (currencySymbol != null)) {
-            if (currencyClass != null) {
-                code = currencyCode;
-            } else {
-                symbol = currencySymbol;
-            }
-        } else if (currencyCode == null) {
-            symbol = currencySymbol;
-        } else {
-            if (currencyClass != null) {
-                code = currencyCode;
-            } else {
-                symbol = currencyCode;
-            }
-        }
-
-        if (code != null) {
-            formatter.setCurrency(Currency.getInstance(code));
-        } else {
-            /*
-             * Let potential ClassCastException propagate up (will almost never happen)
-             */
-            DecimalFormat df = (DecimalFormat) formatter;
-            DecimalFormatSymbols dfs = df.getDecimalFormatSymbols();
-            dfs.setCurrencySymbol(symbol);
-            df.setDecimalFormatSymbols(dfs);
-        }
-    }
 }
@@ -0,0 +1,569 @@
+/*
+ * Copyright (c) 2026 Contributors to Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.wasp.taglibs.standard.tag.common.fmt;
+
+import java.text.DateFormat;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.Format;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DecimalStyle;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.glassfish.wasp.taglibs.standard.resources.Resources;
+import org.glassfish.wasp.taglibs.standard.tag.common.core.BoundedCache;
+import org.glassfish.wasp.taglibs.standard.tag.common.core.Util;
+
+import jakarta.servlet.jsp.JspException;
+import jakarta.servlet.jsp.PageContext;
+import jakarta.servlet.jsp.jstl.fmt.LocalizationContext;
+import jakarta.servlet.jsp.tagext.Tag;
+
+/**
+ * The formatters used by the fmt tag handlers and by the code generated by the fmt tag plugins.
+ *
+ * <p>
+ * Formatters are built once per pattern, locale, time zone and settings, and kept in bounded LRU caches. The
+ * <code>java.text</code> formatters are not thread-safe, so each cache entry keeps a few idle clones that callers
+ * borrow for a single call. Dates are formatted with an equivalent, thread-safe <code>java.time</code> formatter
+ * instead whenever that formatter is known to give the same text.
+ */
+public final class Formatters {
+
+    private static final int CACHE_SIZE = 256;
+
+    /*
+     * Most idle clones kept per formatter; there is no limit on the clones in use
+     */
+    private static final int MAX_IDLE = 8;
+
+    private static final String NUMBER = "number";
+    private static final String CURRENCY = "currency";
+    private static final String PERCENT = "percent";
+    private static final String DATE = "date";
+    private static final String TIME = "time";
+    private static final String DATETIME = "both";
+
+    /*
+     * Pattern letters that java.time formats like SimpleDateFormat, subject to the check in DateFormatter
+     */
+    private static final String TIME_PATTERN_LETTERS = "GyMdHhkKmsSEa";
+
+    /*
+     * java.time uses the proleptic Gregorian calendar and a sign for years past 9999, so dates outside of this range are
+     * left to SimpleDateFormat
+     */
+    private static final long MIN_TIME_MILLIS = -12219292800000L; // 1582-10-15T00:00:00Z
+    private static final long MAX_TIME_MILLIS = 253402214400000L; // 9999-12-31T00:00:00Z
+
+    private static final BoundedCache<List<Object>, FormatPool<NumberFormat>> numberFormats = new BoundedCache<>(CACHE_SIZE);
+    private static final BoundedCache<List<Object>, FormatPool<NumberFormat>> numberParsers = new BoundedCache<>(CACHE_SIZE);
+    private static final BoundedCache<List<Object>, DateFormatter> dateFormats = new BoundedCache<>(CACHE_SIZE);
+    private static final BoundedCache<List<Object>, FormatPool<DateFormat>> dateParsers = new BoundedCache<>(CACHE_SIZE);
+    private static final BoundedCache<List<Object>, FormatPool<MessageFormat>> messageFormats = new BoundedCache<>(CACHE_SIZE);
+    private static final BoundedCache<String, TimeZone> timeZones = new BoundedCache<>(CACHE_SIZE);
+
+    private Formatters() {
+    }
+
+    // *********************************************************************
+    // Entry points for generated code
+
+    /**
+     * Looks up and formats a message in the default I18N localization context, like &lt;fmt:message&gt; does outside a
+     * &lt;fmt:bundle&gt;.
+     *
+     * @param pc Page in which the message is looked up
+     * @param key Message key, neither null nor empty
+     * @param params Arguments for parametric replacement, or <code>null</code>
+     */
+    public static String getMessage(PageContext pc, String key, Object[] params) {
+        return getMessage(pc, getLocalizationContext(pc), null, key, params);
+    }
+
+    /**
+     * Looks up and formats a message in the localization context given by the <code>bundle</code> attribute of
+     * &lt;fmt:message&gt;.
+     */
+    public static String getMessage(PageContext pc, LocalizationContext locCtxt, String key, Object[] params) {
+        if (locCtxt.getLocale() != null) {
+            SetLocaleSupport.setResponseLocale(pc, locCtxt.getLocale());
+        }
+        return getMessage(pc, locCtxt, null, key, params);
+    }
+
+    /**
+     * Formats a number the way &lt;fmt:formatNumber&gt; does outside a &lt;fmt:bundle&gt;. The digit and grouping
+     * settings are <code>null</code> when the corresponding attribute is not specified.
+     */
+    public static String formatNumber(PageContext pc, Object input, String type, String pattern, String currencyCode, String currencySymbol,
+            Boolean groupingUsed, Integer maxIntegerDigits, Integer minIntegerDigits, Integer maxFractionDigits, Integer minFractionDigits)
+            throws JspException {
+        return formatNumber(getFormattingLocale(pc, false), input, type, pattern, currencyCode, currencySymbol, groupingUsed, maxIntegerDigits,
+                minIntegerDigits, maxFractionDigits, minFractionDigits);
+    }
+
+    /**
+     * Formats a date the way &lt;fmt:formatDate&gt; does outside a &lt;fmt:bundle&gt; or &lt;fmt:timeZone&gt;.
+     */
+    public static String formatDate(PageContext pc, Date value, String type, String dateStyle, String timeStyle, String pattern, Object timeZone)
+            throws JspException {
+        Locale locale = getFormattingLocale(pc, true);
+        if (locale == null) {
+            // no formatting locale available, use Date.toString()
+            return value.toString();
+        }
+        TimeZone tz = getTimeZone(pc, null, timeZone, "FORMAT_DATE_BAD_TIMEZONE");
+        return formatDate(locale, tz, value, type, dateStyle, timeStyle, pattern);
+    }
+
+    // *********************************************************************
+    // Formatting and parsing
+
+    /*
+     * Looks up a message in the given localization context and applies the arguments to it. The prefix, if any, is
+     * prepended to the key.
+     */
+    static String getMessage(PageContext pc, LocalizationContext locCtxt, String prefix, String key, Object[] params) {
+        String message = MessageSupport.UNDEFINED_KEY + key + MessageSupport.UNDEFINED_KEY;
+        if (locCtxt == null) {
+            return message;
+        }
+
+        ResourceBundle bundle = locCtxt.getResourceBundle();
+        if (bundle != null) {
+            if (prefix != null) {
+                key = prefix + key;
+            }
+            try {
+                message = bundle.getString(key);
+                if (params != null && params.length > 0) {
+                    Locale locale = locCtxt.getLocale();
+                    if (locale == null) {
+                        // For consistency with the <fmt:formatXXX> actions, we try to get a locale that matches the
+                        // user's preferences as well as the locales supported by 'date' and 'number'.
+                        locale = SetLocaleSupport.getFormattingLocale(pc);
+                    }
+                    message = formatMessage(message, locale, params);
+                }
+            } catch (MissingResourceException mre) {
+                message = MessageSupport.UNDEFINED_KEY + key + MessageSupport.UNDEFINED_KEY;
+            }
+        }
+        return message;
+    }
+
+    /*
+     * Applies the arguments to a message pattern. A null locale stands for the default formatting locale.
+     */
+    static String formatMessage(String pattern, Locale locale, Object[] params) {
+        if (locale == null) {
+            locale = Locale.getDefault(Locale.Category.FORMAT);
+        }
+        List<Object> key = Arrays.asList(pattern, locale);
+
+        FormatPool<MessageFormat> formats = messageFormats.get(key);
+        if (formats == null) {
+            formats = new FormatPool<>(new MessageFormat(pattern, locale));
+            messageFormats.put(key, formats);
+        }
+
+        MessageFormat formatter = formats.acquire();
+        try {
+            return formatter.format(params);
+        } finally {
+            formats.release(formatter);
+        }
+    }
+
+    /*
+     * Formats the input of <formatNumber>, parsing it first if it is a String. A null locale means that no formatting
+     * locale is available, and the input is formatted with toString().
+     */
+    static String formatNumber(Locale locale, Object input, String type, String pattern, String currencyCode, String currencySymbol,
+            Boolean groupingUsed, Integer maxIntegerDigits, Integer minIntegerDigits, Integer maxFractionDigits, Integer minFractionDigits)
+            throws JspException {
+        if (input instanceof String) {
+            try {
+                if (((String) input).indexOf('.') != -1) {
+                    input = Double.valueOf((String) input);
+                } else {
+                    input = Long.valueOf((String) input);
+                }
+            } catch (NumberFormatException nfe) {
+                throw new JspException(Resources.getMessage("FORMAT_NUMBER_PARSE_ERROR", input), nfe);
+            }
+        }
+
+        if (locale == null) {
+            // no formatting locale available, use toString()
+            return input.toString();
+        }
+
+        boolean hasPattern = pattern != null && !pattern.equals("");
+        if (hasPattern) {
+            // if 'pattern' is specified, 'type' is ignored
+            type = null;
+        } else {
+            pattern = null;
+        }
+        if (!hasPattern && !CURRENCY.equalsIgnoreCase(type)) {
+            currencyCode = currencySymbol = null;
+        }
+        List<Object> key = Arrays.asList(locale, type, pattern, currencyCode, currencySymbol, groupingUsed, maxIntegerDigits, minIntegerDigits,
+                maxFractionDigits, minFractionDigits);
+
+        FormatPool<NumberFormat> formats = numberFormats.get(key);
+        if (formats == null) {
+            NumberFormat formatter = hasPattern ? new DecimalFormat(pattern, new DecimalFormatSymbols(locale))
+                    : createNumberFormat(locale, type, "FORMAT_NUMBER_INVALID_TYPE");
+            if (hasPattern || CURRENCY.equalsIgnoreCase(type)) {
+                try {
+                    setCurrency(formatter, currencyCode, currencySymbol);
+                } catch (Exception e) {
+                    throw new JspException(Resources.getMessage("FORMAT_NUMBER_CURRENCY_ERROR"), e);
+                }
+            }
+            if (groupingUsed != null) {
+                formatter.setGroupingUsed(groupingUsed);
+            }
+            if (maxIntegerDigits != null) {
+                formatter.setMaximumIntegerDigits(maxIntegerDigits);
+            }
+            if (minIntegerDigits != null) {
+                formatter.setMinimumIntegerDigits(minIntegerDigits);
+            }
+            if (maxFractionDigits != null) {
+                formatter.setMaximumFractionDigits(maxFractionDigits);
+            }
+            if (minFractionDigits != null) {
+                formatter.setMinimumFractionDigits(minFractionDigits);
+            }
+            formats = new FormatPool<>(formatter);
+            numberFormats.put(key, formats);
+        }
+
+        NumberFormat formatter = formats.acquire();
+        try {
+            return formatter.format(input);
+        } finally {
+            formats.release(formatter);
+        }
+    }
+
+    /*
+     * Parses the input of <parseNumber>.
+     */
+    static Number parseNumber(Locale locale, String input, String type, String pattern, Boolean integerOnly) throws JspException, ParseException {
+        boolean hasPattern = pattern != null && !pattern.equals("");
+        List<Object> key = Arrays.asList(locale, hasPattern ? null : type, hasPattern ? pattern : null, integerOnly);
+
+        FormatPool<NumberFormat> parsers = numberParsers.get(key);
+        if (parsers == null) {
+            // if 'pattern' is specified, 'type' is ignored
+            NumberFormat parser = hasPattern ? new DecimalFormat(pattern, new DecimalFormatSymbols(locale))
+                    : createNumberFormat(locale, type, "PARSE_NUMBER_INVALID_TYPE");
+            if (integerOnly != null) {
+                parser.setParseIntegerOnly(integerOnly);
+            }
+            parsers = new FormatPool<>(parser);
+            numberParsers.put(key, parsers);
+        }
+
+        NumberFormat parser = parsers.acquire();
+        try {
+            return parser.parse(input);
+        } finally {
+            parsers.release(parser);
+        }
+    }
+
+    /*
+     * Formats a date for <formatDate>. A null time zone stands for the default time zone.
+     */
+    static String formatDate(Locale locale, TimeZone tz, Date value, String type, String dateStyle, String timeStyle, String pattern)
+            throws JspException {
+        if (tz == null) {
+            tz = TimeZone.getDefault();
+        }
+        List<Object> key = Arrays.asList(locale, tz, type, dateStyle, timeStyle, pattern);
+
+        DateFormatter formatter = dateFormats.get(key);
+        if (formatter == null) {
+            DateFormat prototype = createDateFormat(locale, type, dateStyle, timeStyle, "FORMAT_DATE");
+            if (pattern != null) {
+                if (prototype instanceof SimpleDateFormat) {
+                    ((SimpleDateFormat) prototype).applyPattern(pattern);
+                } else {
+                    prototype = new SimpleDateFormat(pattern, locale);
+                }
+            }
+            prototype.setTimeZone(tz);
+            formatter = new DateFormatter(prototype, locale, tz);
+            dateFormats.put(key, formatter);
+        }
+        return formatter.format(value);
+    }
+
+    /*
+     * Parses the input of <parseDate>. A null time zone stands for the default time zone.
+     */
+    static Date parseDate(Locale locale, TimeZone tz, String input, String type, String dateStyle, String timeStyle, String pattern)
+            throws JspException, ParseException {
+        if (tz == null) {
+            tz = TimeZone.getDefault();
+        }
+        List<Object> key = Arrays.asList(locale, tz, type, dateStyle, timeStyle, pattern);
+
+        FormatPool<DateFormat> parsers = dateParsers.get(key);
+        if (parsers == null) {
+            DateFormat parser = createDateFormat(locale, type, dateStyle, timeStyle, "PARSE_DATE");
+            parser.setLenient(false);
+            if (pattern != null) {
+                if (parser instanceof SimpleDateFormat) {
+                    ((SimpleDateFormat) parser).applyPattern(pattern);
+                } else {
+                    parser = new SimpleDateFormat(pattern, locale);
+                }
+            }
+            parser.setTimeZone(tz);
+            parsers = new FormatPool<>(parser);
+            dateParsers.put(key, parsers);
+        }
+
+        DateFormat parser = parsers.acquire();
+        try {
+            return parser.parse(input);
+        } finally {
+            parsers.release(parser);
+        }
+    }
+
+    /*
+     * Returns the time zone given by the 'timeZone' attribute of a date formatting or parsing action, or else the time
+     * zone of the enclosing <timeZone> action or of the time zone configuration setting.
+     *
+     * @param errorKey The message of the exception thrown if the attribute is neither a String nor a TimeZone
+     *
+     * @return the time zone, or null if none is set
+     */
+    static TimeZone getTimeZone(PageContext pc, Tag fromTag, Object timeZone, String errorKey) throws JspException {
+        if (timeZone == null || "".equals(timeZone)) {
+            return TimeZoneSupport.getTimeZone(pc, fromTag);
+        }
+        if (timeZone instanceof String) {
+            return getTimeZone((String) timeZone);
+        }
+        if (timeZone instanceof TimeZone) {
+            return (TimeZone) timeZone;
+        }
+        throw new JspException(Resources.getMessage(errorKey));
+    }
+
+    /*
+     * Returns the time zone with the given ID, like TimeZone.getTimeZone(String). The instance is shared, and must not be
+     * modified nor handed out to the page.
+     */
+    static TimeZone getTimeZone(String id) {
+        TimeZone tz = timeZones.get(id);
+        if (tz == null) {
+            tz = TimeZone.getTimeZone(id);
+            timeZones.put(id, tz);
+        }
+        return tz;
+    }
+
+    // *********************************************************************
+    // Localization context
+
+    /*
+     * Returns the default I18N localization context. A context resolved from a basename comes from the cache of
+     * BundleSupport, which is keyed by the settings and request locales it was resolved from.
+     */
+    static LocalizationContext getLocalizationContext(PageContext pc) {
+        return BundleSupport.getLocalizationContext(pc);
+    }
+
+    private static Locale getFormattingLocale(PageContext pc, boolean isDate) {
+        return SetLocaleSupport.getFormattingLocale(pc, getLocalizationContext(pc), isDate, true);
+    }
+
+    // *********************************************************************
+    // Private utility methods
+
+    private static NumberFormat createNumberFormat(Locale locale, String type, String errorKey) throws JspException {
+        if (type == null || NUMBER.equalsIgnoreCase(type)) {
+            return NumberFormat.getNumberInstance(locale);
+        } else if (CURRENCY.equalsIgnoreCase(type)) {
+            return NumberFormat.getCurrencyInstance(locale);
+        } else if (PERCENT.equalsIgnoreCase(type)) {
+            return NumberFormat.getPercentInstance(locale);
+        }
+        throw new JspException(Resources.getMessage(errorKey, type));
+    }
+
+    /*
+     * @param errorPrefix Prefix of the messages for invalid attributes, FORMAT_DATE or PARSE_DATE
+     */
+    private static DateFormat createDateFormat(Locale locale, String type, String dateStyle, String timeStyle, String errorPrefix) throws JspException {
+        if (type == null || DATE.equalsIgnoreCase(type)) {
+            return DateFormat.getDateInstance(Util.getStyle(dateStyle, errorPrefix + "_INVALID_DATE_STYLE"), locale);
+        } else if (TIME.equalsIgnoreCase(type)) {
+            return DateFormat.getTimeInstance(Util.getStyle(timeStyle, errorPrefix + "_INVALID_TIME_STYLE"), locale);
+        } else if (DATETIME.equalsIgnoreCase(type)) {
+            return DateFormat.getDateTimeInstance(Util.getStyle(dateStyle, errorPrefix + "_INVALID_DATE_STYLE"),
+                    Util.getStyle(timeStyle, errorPrefix + "_INVALID_TIME_STYLE"), locale);
+        }
+        throw new JspException(Resources.getMessage(errorPrefix + "_INVALID_TYPE", type));
+    }
+
+    /*
+     * Overrides the formatting locale's default currency with the given currency code, or else its symbol with the given
+     * currency symbol.
+     */
+    private static void setCurrency(NumberFormat formatter, String currencyCode, String currencySymbol) {
+        if (currencyCode != null) {
+            formatter.setCurrency(Currency.getInstance(currencyCode));
+        } else if (currencySymbol != null) {
+            DecimalFormat df = (DecimalFormat) formatter;
+            DecimalFormatSymbols dfs = df.getDecimalFormatSymbols();
+            dfs.setCurrencySymbol(currencySymbol);
+            df.setDecimalFormatSymbols(dfs);
+        }
+    }
+
+    /*
+     * Idle clones of a formatter that is not thread-safe. A borrowed clone is used for a single call and then given back
+     * unchanged, so every clone stays equivalent to the prototype.
+     */
+    private static final class FormatPool<F extends Format> {
+
+        private final F prototype;
+        private final ConcurrentLinkedQueue<F> idle = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger idleCount = new AtomicInteger();
+
+        FormatPool(F prototype) {
+            this.prototype = prototype;
+        }
+
+        @SuppressWarnings("unchecked")
+        F acquire() {
+            F formatter = idle.poll();
+            if (formatter == null) {
+                return (F) prototype.clone();
+            }
+            idleCount.decrementAndGet();
+            return formatter;
+        }
+
+        void release(F formatter) {
+            if (idleCount.incrementAndGet() <= MAX_IDLE) {
+                idle.offer(formatter);
+            } else {
+                idleCount.decrementAndGet();
+            }
+        }
+    }
+
+    /*
+     * Formats dates with a java.time formatter when it gives the same text as the DateFormat, and with clones of the
+     * DateFormat otherwise.
+     */
+    private static final class DateFormatter {
+
+        private final FormatPool<DateFormat> formats;
+        private final DateTimeFormatter dateTimeFormatter;
+
+        DateFormatter(DateFormat prototype, Locale locale, TimeZone tz) {
+            formats = new FormatPool<>(prototype);
+            dateTimeFormatter = toDateTimeFormatter(prototype, locale, tz);
+        }
+
+        String format(Date value) {
+            long time = value.getTime();
+            if (dateTimeFormatter != null && time >= MIN_TIME_MILLIS && time < MAX_TIME_MILLIS) {
+                return dateTimeFormatter.format(Instant.ofEpochMilli(time));
+            }
+
+            DateFormat formatter = formats.acquire();
+            try {
+                return formatter.format(value);
+            } finally {
+                formats.release(formatter);
+            }
+        }
+
+        /*
+         * Returns a java.time formatter equivalent to the given DateFormat, or null if there may be differences: the
+         * pattern must only use letters both classes format alike, the calendar must be Gregorian, and the time zone must
+         * have the same rules as its java.time counterpart. The result is then checked against the DateFormat on a spread
+         * of dates.
+         */
+        private static DateTimeFormatter toDateTimeFormatter(DateFormat prototype, Locale locale, TimeZone tz) {
+            if (!(prototype instanceof SimpleDateFormat) || !"gregory".equals(prototype.getCalendar().getCalendarType())) {
+                return null;
+            }
+
+            String pattern = ((SimpleDateFormat) prototype).toPattern();
+            boolean quoted = false;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (c == '\'') {
+                    quoted = !quoted;
+                } else if ("[]{}#".indexOf(c) != -1 || !quoted && (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z') && TIME_PATTERN_LETTERS.indexOf(c) == -1) {
+                    return null;
+                }
+            }
+
+            DateTimeFormatter formatter;
+            try {
+                if (!tz.hasSameRules(TimeZone.getTimeZone(tz.toZoneId()))) {
+                    return null;
+                }
+                formatter = DateTimeFormatter.ofPattern(pattern, locale).withDecimalStyle(DecimalStyle.of(locale)).withZone(tz.toZoneId());
+            } catch (IllegalArgumentException | DateTimeException e) {
+                return null;
+            }
+
+            // Thirteen dates, a month and three hours apart, cover every month, weekday and half of the day
+            DateFormat check = (DateFormat) prototype.clone();
+            long time = 1609459200123L; // 2021-01-01T00:00:00.123Z
+            for (int i = 0; i < 13; i++, time += 2689380000L) {
+                if (!formatter.format(Instant.ofEpochMilli(time)).equals(check.format(new Date(time)))) {
+                    return null;
+                }
+            }
+            return formatter;
+        }
+    }
+}
@@ -19,12 +19,8 @@
 package org.glassfish.wasp.taglibs.standard.tag.common.fmt;
 
 import java.io.IOException;
-import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
-import java.util.MissingResourceException;
-import java.util.ResourceBundle;
 
 import org.glassfish.wasp.taglibs.standard.tag.common.core.Util;
 
@@ -158,41 +154,7 @@ public abstract class MessageSupport extends BodyTagSupport {
             }
         }
 
-        String message = UNDEFINED_KEY + key + UNDEFINED_KEY;
-        if (locCtxt != null) {
-            ResourceBundle bundle = locCtxt.getResourceBundle();
-            if (bundle != null) {
-                try {
-                    // prepend 'prefix' attribute from parent bundle
-                    if (prefix != null) {
-                        key = prefix + key;
-                    }
-                    message = bundle.getString(key);
-                    // Perform parametric replacement if required
-                    if (!params.isEmpty()) {
-                        Object[] messageArgs = params.toArray();
-                        MessageFormat formatter = new MessageFormat(""); // empty pattern, default Locale
-                        if (locCtxt.getLocale() != null) {
-                            formatter.setLocale(locCtxt.getLocale());
-                        } else {
-                            // For consistency with the <fmt:formatXXX> actions,
-                            // we try to get a locale that matches the user's preferences
-                            // as well as the locales supported by 'date' and 'number'.
-                            // System.out.println("LOCALE-LESS LOCCTXT: GETTING FORMATTING LOCALE");
-                            Locale locale = SetLocaleSupport.getFormattingLocale(pageContext);
-                            // System.out.println("LOCALE: " + locale);
-                            if (locale != null) {
-                                formatter.setLocale(locale);
-                            }
-                        }
-                        formatter.applyPattern(message);
-                        message = formatter.format(messageArgs);
-                    }
-                } catch (MissingResourceException mre) {
-                    message = UNDEFINED_KEY + key + UNDEFINED_KEY;
-                }
-            }
-        }
+        String message = Formatters.getMessage(pageContext, locCtxt, prefix, key, params.toArray());
 
         if (var != null) {
             pageContext.setAttribute(var, message, scope);
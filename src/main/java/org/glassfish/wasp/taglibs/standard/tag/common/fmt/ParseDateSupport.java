@@ -18,9 +18,7 @@
 package org.glassfish.wasp.taglibs.standard.tag.common.fmt;
 
 import java.io.IOException;
-import java.text.DateFormat;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
@@ -41,13 +39,6 @@ import jakarta.servlet.jsp.tagext.BodyTagSupport;
 
 public abstract class ParseDateSupport extends BodyTagSupport {
 
-    // *********************************************************************
-    // Private constants
-
-    private static final String DATE = "date";
-    private static final String TIME = "time";
-    private static final String DATETIME = "both";
-
     // *********************************************************************
     // Protected state
 
@@ -132,42 +123,11 @@ public abstract class ParseDateSupport extends BodyTagSupport {
             throw new JspException(Resources.getMessage("PARSE_DATE_NO_PARSE_LOCALE"));
         }
 
-        // Create parser
-        DateFormat parser = createParser(locale);
-
-        // Apply pattern, if present
-        if (pattern != null) {
-            try {
-                ((SimpleDateFormat) parser).applyPattern(pattern);
-            } catch (ClassCastException cce) {
-                parser = new SimpleDateFormat(pattern, locale);
-            }
-        }
-
-        // Set time zone
-        TimeZone tz = null;
-        if ((timeZone instanceof String) && ((String) timeZone).equals("")) {
-            timeZone = null;
-        }
-        if (timeZone != null) {
-            if (timeZone instanceof String) {
-                tz = TimeZone.getTimeZone((String) timeZone);
-            } else if (timeZone instanceof TimeZone) {
-                tz = (TimeZone) timeZone;
-            } else {
-                throw new JspException(Resources.getMessage("PARSE_DATE_BAD_TIMEZONE"));
-            }
-        } else {
-            tz = TimeZoneSupport.getTimeZone(pageContext, this);
-        }
-        if (tz != null) {
-            parser.setTimeZone(tz);
-        }
-
         // Parse date
+        TimeZone tz = Formatters.getTimeZone(pageContext, this, timeZone, "PARSE_DATE_BAD_TIMEZONE");
         Date parsed = null;
         try {
-            parsed = parser.parse(input);
+            parsed = Formatters.parseDate(locale, tz, input, type, dateStyle, timeStyle, pattern);
         } catch (ParseException pe) {
             throw new JspException(Resources.getMessage("PARSE_DATE_PARSE_ERROR", input), pe);
         }
@@ -190,26 +150,4 @@ public abstract class ParseDateSupport extends BodyTagSupport {
     public void release() {
         init();
     }
-
-    // *********************************************************************
-    // Private utility methods
-
-    private DateFormat createParser(Locale loc) throws JspException {
-        DateFormat parser = null;
-
-        if ((type == null) || DATE.equalsIgnoreCase(type)) {
-            parser = DateFormat.getDateInstance(Util.getStyle(dateStyle, "PARSE_DATE_INVALID_DATE_STYLE"), loc);
-        } else if (TIME.equalsIgnoreCase(type)) {
-            parser = DateFormat.getTimeInstance(Util.getStyle(timeStyle, "PARSE_DATE_INVALID_TIME_STYLE"), loc);
-        } else if (DATETIME.equalsIgnoreCase(type)) {
-            parser = DateFormat.getDateTimeInstance(Util.getStyle(dateStyle, "PARSE_DATE_INVALID_DATE_STYLE"),
-                    Util.getStyle(timeStyle, "PARSE_DATE_INVALID_TIME_STYLE"), loc);
-        } else {
-            throw new JspException(Resources.getMessage("PARSE_DATE_INVALID_TYPE", type));
-        }
-
-        parser.setLenient(false);
-
-        return parser;
-    }
 }
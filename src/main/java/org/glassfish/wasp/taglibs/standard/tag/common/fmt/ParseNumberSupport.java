@@ -18,9 +18,6 @@
 package org.glassfish.wasp.taglibs.standard.tag.common.fmt;
 
 import java.io.IOException;
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
-import java.text.NumberFormat;
 import java.text.ParseException;
 import java.util.Locale;
 
@@ -40,13 +37,6 @@ import jakarta.servlet.jsp.tagext.BodyTagSupport;
 
 public abstract class ParseNumberSupport extends BodyTagSupport {
 
-    // *********************************************************************
-    // Private constants
-
-    private static final String NUMBER = "number";
-    private static final String CURRENCY = "currency";
-    private static final String PERCENT = "percent";
-
     // *********************************************************************
     // Protected state
 
@@ -128,25 +118,10 @@ public abstract class ParseNumberSupport extends BodyTagSupport {
             throw new JspException(Resources.getMessage("PARSE_NUMBER_NO_PARSE_LOCALE"));
         }
 
-        // Create parser
-        NumberFormat parser = null;
-        if ((pattern != null) && !pattern.equals("")) {
-            // if 'pattern' is specified, 'type' is ignored
-            DecimalFormatSymbols symbols = new DecimalFormatSymbols(loc);
-            parser = new DecimalFormat(pattern, symbols);
-        } else {
-            parser = createParser(loc);
-        }
-
-        // Configure parser
-        if (integerOnlySpecified) {
-            parser.setParseIntegerOnly(isIntegerOnly);
-        }
-
         // Parse number
         Number parsed = null;
         try {
-            parsed = parser.parse(input);
+            parsed = Formatters.parseNumber(loc, input, type, pattern, integerOnlySpecified ? isIntegerOnly : null);
         } catch (ParseException pe) {
             throw new JspException(Resources.getMessage("PARSE_NUMBER_PARSE_ERROR", input), pe);
         }
@@ -169,23 +144,4 @@ public abstract class ParseNumberSupport extends BodyTagSupport {
     public void release() {
         init();
     }
-
-    // *********************************************************************
-    // Private utility methods
-
-    private NumberFormat createParser(Locale loc) throws JspException {
-        NumberFormat parser = null;
-
-        if ((type == null) || NUMBER.equalsIgnoreCase(type)) {
-            parser = NumberFormat.getNumberInstance(loc);
-        } else if (CURRENCY.equalsIgnoreCase(type)) {
-            parser = NumberFormat.getCurrencyInstance(loc);
-        } else if (PERCENT.equalsIgnoreCase(type)) {
-            parser = NumberFormat.getPercentInstance(loc);
-        } else {
-            throw new JspException(Resources.getMessage("PARSE_NUMBER_INVALID_TYPE", type));
-        }
-
-        return parser;
-    }
 }
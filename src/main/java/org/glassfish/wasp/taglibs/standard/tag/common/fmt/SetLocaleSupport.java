@@ -255,8 +255,27 @@ public abstract class SetLocaleSupport extends TagSupport {
             }
         }
 
+        return getFormattingLocale(pc, BundleSupport.getLocalizationContext(pc), isDate, format);
+    }
+
+    /*
+     * Returns the formatting locale to use with a formatting action that is not nested in a <fmt:bundle>, given the
+     * default I18N localization context of the page.
+     *
+     * @param pc The page context containing the formatting action
+     *
+     * @param locCtxt The default I18N localization context, or <tt>null</tt> if there is none
+     *
+     * @param isDate true if the locale is needed for date formatting, false otherwise
+     *
+     * @param format <tt>true</tt> if the formatting action is of type <formatXXX>
+     *
+     * @return the formatting locale to use
+     */
+    static Locale getFormattingLocale(PageContext pc, LocalizationContext locCtxt, boolean isDate, boolean format) {
+
         // Use locale from default I18N localization context, unless it is null
-        if ((locCtxt = BundleSupport.getLocalizationContext(pc)) != null) {
+        if (locCtxt != null) {
             if (locCtxt.getLocale() != null) {
                 if (format) {
                     setResponseLocale(pc, locCtxt.getLocale());
@@ -136,7 +136,7 @@ public abstract class TimeZoneSupport extends BodyTagSupport {
                 if (obj instanceof TimeZone) {
                     tz = (TimeZone) obj;
                 } else {
-                    tz = TimeZone.getTimeZone((String) obj);
+                    tz = Formatters.getTimeZone((String) obj);
                 }
             }
         }
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2026 Contributors to Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.wasp.taglibs.standard.tag.common.sql;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.ServletRequestEvent;
+import jakarta.servlet.ServletRequestListener;
+
+/**
+ * Closes the streaming query results left open when a request ends, and the connection pools that the SQL tags created
+ * for a web application when the web application is stopped. Registered by the TLD of the SQL tag library.
+ */
+public class DataSourceCleanupListener implements ServletContextListener, ServletRequestListener {
+
+    @Override
+    public void requestDestroyed(ServletRequestEvent event) {
+        StreamingResult.closeAll(event.getServletRequest());
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent event) {
+        DataSourceUtil.closeDataSources(event.getServletContext());
+    }
+}
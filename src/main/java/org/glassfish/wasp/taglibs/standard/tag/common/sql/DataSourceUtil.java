@@ -17,6 +17,13 @@
 
 package org.glassfish.wasp.taglibs.standard.tag.common.sql;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
 import javax.naming.Context;
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
@@ -24,6 +31,7 @@ import javax.sql.DataSource;
 
 import org.glassfish.wasp.taglibs.standard.resources.Resources;
 
+import jakarta.servlet.ServletContext;
 import jakarta.servlet.jsp.JspException;
 import jakarta.servlet.jsp.JspTagException;
 import jakarta.servlet.jsp.PageContext;
@@ -32,8 +40,15 @@ import jakarta.servlet.jsp.jstl.core.Config;
 /**
  * <p>
  * A simple <code>DataSource</code> utility for the standard <code>DriverManager</code> class.
+ * </p>
  *
- * TO DO: need to cache DataSource
+ * <p>
+ * The DataSources resolved from a String, by JNDI lookup or from JDBC parameters, are cached per web application, so
+ * the JNDI lookup is done once per String and the connection pool of a <code>DataSourceWrapper</code> is shared by all
+ * the tags that use the same parameters. A String is only cached if the JNDI lookup succeeds or if it holds a JDBC URL,
+ * so a lookup that fails for a transient reason is retried. The pools are closed when they fall out of the cache and
+ * when the web application is stopped, see {@link DataSourceCleanupListener}.
+ * </p>
  *
  * @author Justyna Horwat
  */
@@ -42,6 +57,12 @@ public class DataSourceUtil {
     private static final String ESCAPE = "\\";
     private static final String TOKEN = ",";
 
+    private static final int CACHE_SIZE = 32;
+
+    private static final String JDBC_URL_PREFIX = "jdbc:";
+
+    private static final Map<ServletContext, Map<Object, DataSource>> dataSources = new WeakHashMap<>();
+
     /**
      * If dataSource is a String first do JNDI lookup. If lookup fails parse String like it was a set of JDBC parameters
      * Otherwise check to see if dataSource is a DataSource object and use as is
@@ -62,13 +83,27 @@ public class DataSourceUtil {
          * a DataSource
          */
         if (rawDataSource instanceof String) {
-            try {
-                Context ctx = new InitialContext();
-                // relative to standard JNDI root for J2EE app
-                Context envCtx = (Context) ctx.lookup("java:comp/env");
-                dataSource = (DataSource) envCtx.lookup((String) rawDataSource);
-            } catch (NamingException ex) {
-                dataSource = getDataSource((String) rawDataSource);
+            Map<Object, DataSource> cache = getCache(pc);
+            synchronized (cache) {
+                dataSource = cache.get(rawDataSource);
+            }
+            if (dataSource == null) {
+                try {
+                    Context ctx = new InitialContext();
+                    // relative to standard JNDI root for J2EE app
+                    Context envCtx = (Context) ctx.lookup("java:comp/env");
+                    dataSource = (DataSource) envCtx.lookup((String) rawDataSource);
+                    dataSource = cache(cache, rawDataSource, dataSource);
+                } catch (NamingException ex) {
+                    DataSourceWrapper wrapper = getDataSource((String) rawDataSource);
+                    if (wrapper.getJdbcURL() != null && wrapper.getJdbcURL().startsWith(JDBC_URL_PREFIX)) {
+                        dataSource = cache(cache, rawDataSource, wrapper);
+                    } else {
+                        // Maybe a JNDI name that could not be looked up this time; nobody would close a pool
+                        wrapper.setMaxIdleConnections(0);
+                        dataSource = wrapper;
+                    }
+                }
             }
         } else if (rawDataSource instanceof DataSource) {
             dataSource = (DataSource) rawDataSource;
@@ -82,9 +117,7 @@ public class DataSourceUtil {
     /**
      * Parse JDBC parameters and setup dataSource appropriately
      */
-    private static DataSource getDataSource(String params) throws JspException {
-        DataSourceWrapper dataSource = new DataSourceWrapper();
-
+    private static DataSourceWrapper getDataSource(String params) throws JspException {
         String[] paramString = new String[4];
         int escCount = 0;
         int aryCount = 0;
@@ -109,23 +142,100 @@ public class DataSourceUtil {
         }
         paramString[aryCount] = params.substring(begin).trim();
 
-        // use the JDBC URL from the parameter string
-        dataSource.setJdbcURL(paramString[0]);
+        // use the JDBC URL, driver, username and password from the parameter string
+        return newDataSource(paramString[0], paramString[1], paramString[2], paramString[3]);
+    }
+
+    /**
+     * Returns the <code>DataSourceWrapper</code> for the given JDBC parameters, shared with the other tags of the web
+     * application that use the same ones.
+     */
+    static DataSource getDataSource(String jdbcURL, String driverClassName, String userName, String password, PageContext pc) throws JspException {
+        Map<Object, DataSource> cache = getCache(pc);
+        Object key = Arrays.asList(jdbcURL, driverClassName, userName, password);
+        DataSource dataSource;
+        synchronized (cache) {
+            dataSource = cache.get(key);
+        }
+        if (dataSource == null) {
+            dataSource = cache(cache, key, newDataSource(jdbcURL, driverClassName, userName, password));
+        }
+        return dataSource;
+    }
+
+    private static DataSourceWrapper newDataSource(String jdbcURL, String driverClassName, String userName, String password) throws JspException {
+        DataSourceWrapper dataSource = new DataSourceWrapper();
+        dataSource.setJdbcURL(jdbcURL);
 
         // try to load a driver if it's present
-        if (paramString[1] != null) {
+        if (driverClassName != null) {
             try {
-                dataSource.setDriverClassName(paramString[1]);
+                dataSource.setDriverClassName(driverClassName);
             } catch (Exception ex) {
                 throw new JspTagException(Resources.getMessage("DRIVER_INVALID_CLASS", ex.toString()), ex);
             }
         }
 
         // set the username and password
-        dataSource.setUserName(paramString[2]);
-        dataSource.setPassword(paramString[3]);
+        dataSource.setUserName(userName);
+        dataSource.setPassword(password);
 
         return dataSource;
     }
 
+    /**
+     * Closes the pools of the DataSourceWrappers cached for the given web application, and forgets them.
+     */
+    static void closeDataSources(ServletContext servletContext) {
+        Map<Object, DataSource> cache;
+        synchronized (dataSources) {
+            cache = dataSources.remove(servletContext);
+        }
+        if (cache == null) {
+            return;
+        }
+
+        List<DataSource> closed;
+        synchronized (cache) {
+            closed = new ArrayList<>(cache.values());
+            cache.clear();
+        }
+        for (DataSource dataSource : closed) {
+            if (dataSource instanceof DataSourceWrapper wrapper) {
+                wrapper.close();
+            }
+        }
+    }
+
+    /*
+     * Returns the cache of the web application. When a DataSourceWrapper falls out of it, its pool is closed; it still
+     * works for whoever holds it, opening new connections as needed and closing them when they are handed back.
+     */
+    private static Map<Object, DataSource> getCache(PageContext pc) {
+        synchronized (dataSources) {
+            return dataSources.computeIfAbsent(pc.getServletContext(), c -> new LinkedHashMap<>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, DataSource> eldest) {
+                    if (size() > CACHE_SIZE) {
+                        if (eldest.getValue() instanceof DataSourceWrapper wrapper) {
+                            wrapper.close();
+                        }
+                        return true;
+                    }
+                    return false;
+                }
+            });
+        }
+    }
+
+    // Caches the DataSource unless another thread was first, in which case that one is returned
+    private static DataSource cache(Map<Object, DataSource> cache, Object key, DataSource dataSource) {
+        synchronized (cache) {
+            DataSource cached = cache.putIfAbsent(key, dataSource);
+            return cached != null ? cached : dataSource;
+        }
+    }
+
 }
@@ -19,11 +19,24 @@
 package org.glassfish.wasp.taglibs.standard.tag.common.sql;
 
 import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.Driver;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 import java.util.Properties;
 import java.util.logging.Logger;
 
@@ -34,15 +47,49 @@ import org.glassfish.wasp.taglibs.standard.resources.Resources;
 /**
  * <p>
  * A simple <code>DataSource</code> wrapper for the standard <code>DriverManager</code> class.
+ * </p>
+ *
+ * <p>
+ * Closed connections are kept for reuse, up to a bounded number of idle connections. An idle connection is validated
+ * before it is handed out again if it has not been used for a while, and closed once it has been idle longer than the
+ * idle timeout; both are checked whenever a connection is requested or returned, so no background thread is needed.
+ * The pool never blocks: when no idle connection is available a new one is opened, and a connection returned while
+ * the pool is full is closed. Once the pool is closed, connections are no longer kept: the ones in use are closed
+ * when they are handed back.
+ * </p>
+ *
+ * <p>
+ * The application never sees the physical connections. The Statements, ResultSets and DatabaseMetaData it gets are
+ * wrapped so that they return the pooled Connection, and a pooled Connection can only be unwrapped to itself.
+ * </p>
  *
  * @author Hans Bergsten
  */
 public class DataSourceWrapper implements DataSource {
+
+    private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 8;
+    private static final long DEFAULT_IDLE_TIMEOUT = 60_000;
+
+    // An idle connection unused for longer than this is validated before it is handed out (milliseconds)
+    private static final long VALIDATION_INTERVAL = 1000;
+
+    // How long the driver may take to validate a connection (seconds)
+    private static final int VALIDATION_TIMEOUT = 5;
+
     private Driver driver;
     private String jdbcURL;
     private String userName;
     private String password;
 
+    private int maxIdleConnections = DEFAULT_MAX_IDLE_CONNECTIONS;
+    private long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+
+    // The idle connections, most recently used first
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+
+    // Set once the pool is closed, under the lock of idle
+    private boolean closed;
+
     public void setDriverClassName(String driverClassName) throws ReflectiveOperationException {
         Object instance = Class.forName(driverClassName, true, Thread.currentThread()
                                .getContextClassLoader())
@@ -58,6 +105,10 @@ public class DataSourceWrapper implements DataSource {
         this.jdbcURL = jdbcURL;
     }
 
+    public String getJdbcURL() {
+        return jdbcURL;
+    }
+
     public void setUserName(String userName) {
         this.userName = userName;
     }
@@ -67,10 +118,64 @@ public class DataSourceWrapper implements DataSource {
     }
 
     /**
-     * Returns a Connection using the DriverManager and all set properties.
+     * Sets how many closed connections are kept for reuse; 0 disables pooling.
+     */
+    public void setMaxIdleConnections(int maxIdleConnections) {
+        this.maxIdleConnections = maxIdleConnections;
+        closeIdleConnections(maxIdleConnections);
+    }
+
+    /**
+     * Sets how long, in milliseconds, a closed connection is kept for reuse.
+     */
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Closes the connections kept for reuse. Connections in use are not affected.
+     */
+    public void closeIdleConnections() {
+        closeIdleConnections(0);
+    }
+
+    /**
+     * Closes the pool: the idle connections are closed, and so are the connections in use when they are handed back.
+     * Connections can still be requested, but are no longer kept for reuse.
+     */
+    public void close() {
+        synchronized (idle) {
+            closed = true;
+        }
+        closeIdleConnections(0);
+    }
+
+    /**
+     * Returns a Connection using the DriverManager and all set properties, reusing an idle one if possible. Closing the
+     * returned Connection hands it back to the pool.
      */
     @Override
     public Connection getConnection() throws SQLException {
+        PooledConnection pooled;
+        while ((pooled = takeIdleConnection()) != null) {
+            if (pooled.isValid()) {
+                return pooled.open();
+            }
+            pooled.discard();
+        }
+
+        boolean pooling;
+        synchronized (idle) {
+            pooling = !closed && maxIdleConnections > 0;
+        }
+        if (!pooling) {
+            return connect();
+        }
+        return new PooledConnection(connect()).open();
+    }
+
+    // Opens a new physical Connection
+    private Connection connect() throws SQLException {
         Connection conn = null;
         if (driver != null) {
             Properties props = new Properties();
@@ -92,6 +197,68 @@ public class DataSourceWrapper implements DataSource {
         return conn;
     }
 
+    // Removes the most recently used idle connection from the pool, after closing the expired ones
+    private PooledConnection takeIdleConnection() {
+        List<PooledConnection> expired;
+        PooledConnection pooled;
+        synchronized (idle) {
+            expired = removeExpired(System.currentTimeMillis());
+            pooled = idle.pollFirst();
+        }
+        discard(expired);
+        return pooled;
+    }
+
+    // Puts a connection handed back by the application into the pool, or closes it if it cannot be reused
+    private void release(PooledConnection pooled) {
+        boolean reusable = pooled.reset();
+
+        List<PooledConnection> expired;
+        long now = System.currentTimeMillis();
+        synchronized (idle) {
+            expired = removeExpired(now);
+            if (reusable && !closed && idle.size() < maxIdleConnections) {
+                pooled.lastUsed = now;
+                idle.addFirst(pooled);
+                pooled = null;
+            }
+        }
+        discard(expired);
+        if (pooled != null) {
+            pooled.discard();
+        }
+    }
+
+    // Removes the connections idle for longer than idleTimeout; they are the last ones. Called with the lock held.
+    private List<PooledConnection> removeExpired(long now) {
+        List<PooledConnection> expired = null;
+        while (!idle.isEmpty() && now - idle.peekLast().lastUsed > idleTimeout) {
+            if (expired == null) {
+                expired = new ArrayList<>();
+            }
+            expired.add(idle.pollLast());
+        }
+        return expired;
+    }
+
+    private void closeIdleConnections(int keep) {
+        List<PooledConnection> closed = new ArrayList<>();
+        synchronized (idle) {
+            while (idle.size() > Math.max(keep, 0)) {
+                closed.add(idle.pollLast());
+            }
+        }
+        discard(closed);
+    }
+
+    private static void discard(List<PooledConnection> connections) {
+        if (connections != null) {
+            for (PooledConnection pooled : connections) {
+                pooled.discard();
+            }
+        }
+    }
+
     /**
      * Always throws a SQLException. Username and password are set in the constructor and can not be changed.
      */
@@ -158,4 +325,220 @@ public class DataSourceWrapper implements DataSource {
         throw new SQLFeatureNotSupportedException(Resources.getMessage("NOT_SUPPORTED"));
     }
 
+    /*
+     * A physical Connection owned by the pool. Each time it is handed out, the application gets a new proxy, so a
+     * Connection used after it was closed cannot affect the next user. The Statements created through the proxy are
+     * closed when it is handed back, as closing the physical Connection would have done.
+     */
+    private final class PooledConnection {
+        private final Connection conn;
+        private final boolean autoCommit;
+        private final int isolation;
+        private final boolean readOnly;
+        private List<Statement> statements;
+        long lastUsed;
+
+        PooledConnection(Connection conn) throws SQLException {
+            this.conn = conn;
+            autoCommit = conn.getAutoCommit();
+            isolation = conn.getTransactionIsolation();
+            readOnly = conn.isReadOnly();
+            lastUsed = System.currentTimeMillis();
+        }
+
+        Connection open() {
+            statements = new ArrayList<>();
+            Handle handle = new Handle();
+            handle.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, handle);
+            return handle.proxy;
+        }
+
+        // Checks a connection taken from the pool, asking the driver only if it has been idle for a while
+        boolean isValid() {
+            try {
+                if (System.currentTimeMillis() - lastUsed <= VALIDATION_INTERVAL) {
+                    return !conn.isClosed();
+                }
+                try {
+                    return conn.isValid(VALIDATION_TIMEOUT);
+                } catch (SQLFeatureNotSupportedException e) {
+                    return !conn.isClosed();
+                }
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        // Closes the Statements left open and undoes what the application changed; false if the connection is unusable
+        boolean reset() {
+            try {
+                for (Statement statement : statements) {
+                    statement.close();
+                }
+                statements = null;
+                if (conn.getAutoCommit() != autoCommit) {
+                    if (!conn.getAutoCommit()) {
+                        conn.rollback();
+                    }
+                    conn.setAutoCommit(autoCommit);
+                } else if (!autoCommit) {
+                    conn.rollback();
+                }
+                if (conn.getTransactionIsolation() != isolation) {
+                    conn.setTransactionIsolation(isolation);
+                }
+                if (conn.isReadOnly() != readOnly) {
+                    conn.setReadOnly(readOnly);
+                }
+                conn.clearWarnings();
+                return !conn.isClosed();
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void discard() {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+            } // Not much we can do
+        }
+
+        private final class Handle implements InvocationHandler {
+            private volatile boolean closed;
+            private Connection proxy;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                case "close":
+                    synchronized (this) {
+                        if (closed) {
+                            return null;
+                        }
+                        closed = true;
+                    }
+                    release(PooledConnection.this);
+                    return null;
+                case "isClosed":
+                    return closed || conn.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + conn;
+                case "unwrap":
+                    return unwrap(proxy, (Class<?>) args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy);
+                default:
+                    break;
+                }
+
+                if (closed) {
+                    throw new SQLException(Resources.getMessage("SQL_CONNECTION_CLOSED"));
+                }
+                Object result = invokeTarget(conn, method, args);
+                if (result instanceof Statement statement) {
+                    statements.add(statement);
+                }
+                return wrap(result, proxy, conn);
+            }
+
+            /*
+             * Wraps a JDBC object obtained from the physical connection, or from an object wrapped earlier, so that it never
+             * hands out the physical connection. The object it was obtained from is given as its parent.
+             */
+            Object wrap(Object result, Object parentProxy, Object parent) {
+                if (result == null) {
+                    return null;
+                }
+                if (result == conn) {
+                    return proxy;
+                }
+
+                Class<?> type;
+                if (result instanceof CallableStatement) {
+                    type = CallableStatement.class;
+                } else if (result instanceof PreparedStatement) {
+                    type = PreparedStatement.class;
+                } else if (result instanceof Statement) {
+                    type = Statement.class;
+                } else if (result instanceof ResultSet) {
+                    type = ResultSet.class;
+                } else if (result instanceof DatabaseMetaData) {
+                    type = DatabaseMetaData.class;
+                } else {
+                    return result;
+                }
+                return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { type }, new Child(this, result, parentProxy, parent));
+            }
+        }
+    }
+
+    /*
+     * A Statement, ResultSet or DatabaseMetaData obtained through a pooled Connection. Once the Connection is closed,
+     * only close and isClosed may be called.
+     */
+    private static final class Child implements InvocationHandler {
+        private final PooledConnection.Handle handle;
+        private final Object target;
+        private final Object parentProxy;
+        private final Object parent;
+
+        Child(PooledConnection.Handle handle, Object target, Object parentProxy, Object parent) {
+            this.handle = handle;
+            this.target = target;
+            this.parentProxy = parentProxy;
+            this.parent = parent;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+            case "close":
+            case "isClosed":
+                return invokeTarget(target, method, args);
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return target.toString();
+            case "unwrap":
+                return unwrap(proxy, (Class<?>) args[0]);
+            case "isWrapperFor":
+                return ((Class<?>) args[0]).isInstance(proxy);
+            default:
+                break;
+            }
+
+            if (handle.closed) {
+                throw new SQLException(Resources.getMessage("SQL_CONNECTION_CLOSED"));
+            }
+            Object result = invokeTarget(target, method, args);
+            if (result == parent) {
+                // Such as the Statement of a ResultSet
+                return parentProxy;
+            }
+            return handle.wrap(result, proxy, target);
+        }
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // A wrapper only unwraps to itself, so the physical object stays out of reach
+    private static Object unwrap(Object proxy, Class<?> iface) throws SQLException {
+        if (iface.isInstance(proxy)) {
+            return proxy;
+        }
+        throw new SQLException(Resources.getMessage("NOT_SUPPORTED"));
+    }
 }
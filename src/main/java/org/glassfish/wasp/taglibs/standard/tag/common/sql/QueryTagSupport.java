@@ -62,6 +62,7 @@ public abstract class QueryTagSupport extends BodyTagSupport implements TryCatch
     protected int maxRows;
     protected boolean maxRowsSpecified;
     protected int startRow;
+    protected int fetchSize;
 
     /*
      * Instance variables that are not for attributes
@@ -69,6 +70,7 @@ public abstract class QueryTagSupport extends BodyTagSupport implements TryCatch
     private Connection conn;
     private List<Object> parameters;
     private boolean isPartOfTransaction;
+    private TransactionTagSupport transaction;
 
     // *********************************************************************
     // Constructor and initialization
@@ -80,6 +82,7 @@ public abstract class QueryTagSupport extends BodyTagSupport implements TryCatch
 
     private void init() {
         startRow = 0;
+        fetchSize = 0;
         maxRows = -1;
         maxRowsSpecified = dataSourceSpecified = false;
         isPartOfTransaction = false;
@@ -185,22 +188,30 @@ public abstract class QueryTagSupport extends BodyTagSupport implements TryCatch
         /*
          * We shouldn't have a negative startRow or illegal maxrows
          */
-        if ((startRow < 0) || (maxRows < -1)) {
+        if ((startRow < 0) || (maxRows < -1) || (fetchSize < 0)) {
             throw new JspException(Resources.getMessage("PARAM_BAD_VALUE"));
         }
 
-        Result result = null;
         /*
          * Note! We must not use the setMaxRows() method on the the statement to limit the number of rows, since the Result
          * factory must be able to figure out the correct value for isLimitedByMaxRows(); there's no way to check if it was from
          * the ResultSet.
          */
+        if (fetchSize > 0) {
+            pageContext.setAttribute(var, executeStreamingQuery(sqlStatement), scope);
+            return EVAL_PAGE;
+        }
+
+        Result result = null;
         try {
-            PreparedStatement ps = conn.prepareStatement(sqlStatement);
+            PreparedStatement ps = transaction != null ? transaction.prepareStatement(sqlStatement) : conn.prepareStatement(sqlStatement);
             setParameters(ps, parameters);
             ResultSet rs = ps.executeQuery();
             result = new ResultImpl(rs, startRow, maxRows);
-            ps.close();
+            rs.close();
+            if (transaction == null) {
+                ps.close();
+            }
         } catch (Throwable e) {
             throw new JspException(sqlStatement + ": " + e.getMessage(), e);
         }
@@ -230,11 +241,44 @@ public abstract class QueryTagSupport extends BodyTagSupport implements TryCatch
 
         conn = null;
         parameters = null;
+        transaction = null;
     }
 
     // *********************************************************************
     // Private utility methods
 
+    /*
+     * Runs the query on a forward-only cursor that fetches 'fetchSize' rows at a time, and hands the cursor, and the
+     * Connection unless it belongs to a transaction, over to a StreamingResult that closes them once its rows are read,
+     * or else when the request ends. The cursor outlives this action, so it gets its own statement rather than one
+     * shared by the transaction.
+     */
+    private StreamingResult executeStreamingQuery(String sqlStatement) throws JspException {
+        PreparedStatement ps = null;
+        try {
+            if (transaction != null) {
+                transaction.executeBatch();
+            }
+            ps = conn.prepareStatement(sqlStatement, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            setParameters(ps, parameters);
+            StreamingResult result = new StreamingResult(ps.executeQuery(), startRow, maxRows, isPartOfTransaction ? null : conn);
+            StreamingResult.closeWithRequest(pageContext.getRequest(), result);
+            if (!isPartOfTransaction) {
+                conn = null;
+            }
+            return result;
+        } catch (Throwable e) {
+            if (ps != null) {
+                try {
+                    ps.close();
+                } catch (SQLException se) {
+                } // Not much we can do
+            }
+            throw new JspException(sqlStatement + ": " + e.getMessage(), e);
+        }
+    }
+
     private Connection getConnection() throws JspException, SQLException {
         // Fix: Add all other mechanisms
         Connection conn = null;
@@ -247,6 +291,7 @@ public abstract class QueryTagSupport extends BodyTagSupport implements TryCatch
             }
             conn = parent.getSharedConnection();
             isPartOfTransaction = true;
+            transaction = parent;
         } else {
             if ((rawDataSource == null) && dataSourceSpecified) {
                 throw new JspException(Resources.getMessage("SQL_DATASOURCE_NULL"));
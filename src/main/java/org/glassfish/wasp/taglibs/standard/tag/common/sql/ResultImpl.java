@@ -24,7 +24,6 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.SortedMap;
-import java.util.TreeMap;
 
 import jakarta.servlet.jsp.jstl.sql.Result;
 
@@ -36,6 +35,11 @@ import jakarta.servlet.jsp.jstl.sql.Result;
  * </p>
  *
  * <p>
+ * Each row is stored once, as the <code>Object[]</code> returned by <tt>getRowsByIndex()</tt>; the maps returned by
+ * <tt>getRows()</tt> are read-only views over those arrays that share one case insensitive index of the column names.
+ * </p>
+ *
+ * <p>
  * Note -- this is a private copy for the RI to avoid making the corresponding class in jakarta.servlet.* public.
  * </p>
  *
@@ -44,9 +48,9 @@ import jakarta.servlet.jsp.jstl.sql.Result;
  */
 
 public class ResultImpl implements Result {
-    private List<SortedMap<String, Object>> rowMap;
     private List<Object[]> rowByIndex;
     private String[] columnNames;
+    private volatile SortedMap<String, Object>[] rowMap;
     private boolean isLimited;
 
     /**
@@ -58,7 +62,6 @@ public class ResultImpl implements Result {
      * @exception if a database error occurs
      */
     public ResultImpl(ResultSet rs, int startRow, int maxRows) throws SQLException {
-        rowMap = new ArrayList<>();
         rowByIndex = new ArrayList<>();
 
         ResultSetMetaData rsmd = rs.getMetaData();
@@ -82,24 +85,28 @@ public class ResultImpl implements Result {
                 isLimited = true;
                 break;
             }
-            Object[] columns = new Object[noOfColumns];
-            SortedMap<String, Object> columnMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
-
-            // JDBC uses 1 as the lowest index!
-            for (int i = 1; i <= noOfColumns; i++) {
-                Object value = rs.getObject(i);
-                if (rs.wasNull()) {
-                    value = null;
-                }
-                columns[i - 1] = value;
-                columnMap.put(columnNames[i - 1], value);
-            }
-            rowMap.add(columnMap);
-            rowByIndex.add(columns);
+            rowByIndex.add(readRow(rs, noOfColumns));
             processedRows++;
         }
     }
 
+    /**
+     * Reads the values of the current row of the given <tt>ResultSet</tt>.
+     */
+    static Object[] readRow(ResultSet rs, int noOfColumns) throws SQLException {
+        Object[] columns = new Object[noOfColumns];
+
+        // JDBC uses 1 as the lowest index!
+        for (int i = 1; i <= noOfColumns; i++) {
+            Object value = rs.getObject(i);
+            if (rs.wasNull()) {
+                value = null;
+            }
+            columns[i - 1] = value;
+        }
+        return columns;
+    }
+
     /**
      * Returns an array of SortedMap objects. The SortedMap object key is the ColumnName and the value is the ColumnValue.
      * SortedMap was created using the CASE_INSENSITIVE_ORDER Comparator so the key is the case insensitive representation
@@ -108,13 +115,23 @@ public class ResultImpl implements Result {
      * @return an array of Map, or null if there are no rows
      */
     @Override
+    @SuppressWarnings("unchecked")
     public SortedMap[] getRows() {
-        if (rowMap == null) {
+        if (rowByIndex == null) {
             return null;
         }
 
-        // should just be able to return SortedMap[] object
-        return rowMap.toArray(new SortedMap[0]);
+        // The views are created on first use, and only the array holding them is copied on each call
+        SortedMap<String, Object>[] rows = rowMap;
+        if (rows == null) {
+            SortedMap<String, Integer> columnIndex = RowMap.indexColumns(columnNames);
+            rows = new SortedMap[rowByIndex.size()];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = new RowMap(columnIndex, rowByIndex.get(i));
+            }
+            rowMap = rows;
+        }
+        return rows.clone();
     }
 
     /**
@@ -151,10 +168,10 @@ public class ResultImpl implements Result {
      */
     @Override
     public int getRowCount() {
-        if (rowMap == null) {
+        if (rowByIndex == null) {
             return -1;
         }
-        return rowMap.size();
+        return rowByIndex.size();
     }
 
     /**
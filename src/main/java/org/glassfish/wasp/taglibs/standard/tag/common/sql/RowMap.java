@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2026 Contributors to Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.wasp.taglibs.standard.tag.common.sql;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * A read-only, case insensitive <tt>SortedMap</tt> view of one row of a query result. The column names are resolved
+ * once per result into an index shared by all its rows, so a row holds nothing but its <code>Object[]</code> of
+ * values. It is public so that EL can invoke its methods.
+ */
+public final class RowMap extends AbstractMap<String, Object> implements SortedMap<String, Object> {
+
+    private final SortedMap<String, Integer> index;
+    private final Object[] values;
+
+    RowMap(SortedMap<String, Integer> index, Object[] values) {
+        this.index = index;
+        this.values = values;
+    }
+
+    /**
+     * Maps each column name, ignoring case, to its position. As with a <tt>TreeMap</tt> filled in column order, a
+     * repeated name resolves to its last column.
+     */
+    static SortedMap<String, Integer> indexColumns(String[] columnNames) {
+        SortedMap<String, Integer> index = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < columnNames.length; i++) {
+            if (columnNames[i] != null) {
+                index.put(columnNames[i], i);
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public Object get(Object key) {
+        Integer i = key instanceof String ? index.get(key) : null;
+        return i == null ? null : values[i];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && index.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                final Iterator<Map.Entry<String, Integer>> i = index.entrySet().iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return i.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<String, Object> next() {
+                        Map.Entry<String, Integer> column = i.next();
+                        return new SimpleImmutableEntry<>(column.getKey(), values[column.getValue()]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return index.size();
+            }
+        };
+    }
+
+    @Override
+    public Comparator<? super String> comparator() {
+        return index.comparator();
+    }
+
+    @Override
+    public String firstKey() {
+        return index.firstKey();
+    }
+
+    @Override
+    public String lastKey() {
+        return index.lastKey();
+    }
+
+    @Override
+    public SortedMap<String, Object> subMap(String fromKey, String toKey) {
+        return new RowMap(index.subMap(fromKey, toKey), values);
+    }
+
+    @Override
+    public SortedMap<String, Object> headMap(String toKey) {
+        return new RowMap(index.headMap(toKey), values);
+    }
+
+    @Override
+    public SortedMap<String, Object> tailMap(String fromKey) {
+        return new RowMap(index.tailMap(fromKey), values);
+    }
+}
@@ -23,7 +23,6 @@ import org.glassfish.wasp.taglibs.standard.resources.Resources;
 import org.glassfish.wasp.taglibs.standard.tag.common.core.Util;
 
 import jakarta.servlet.jsp.JspException;
-import jakarta.servlet.jsp.JspTagException;
 import jakarta.servlet.jsp.PageContext;
 import jakarta.servlet.jsp.jstl.core.Config;
 import jakarta.servlet.jsp.tagext.TagSupport;
@@ -93,19 +92,8 @@ public class SetDataSourceTagSupport extends TagSupport {
                 throw new JspException(Resources.getMessage("SQL_DATASOURCE_NULL"));
             }
 
-            DataSourceWrapper dsw = new DataSourceWrapper();
-            try {
-                // set driver class iff provided by the tag
-                if (driverClassName != null) {
-                    dsw.setDriverClassName(driverClassName);
-                }
-            } catch (Exception e) {
-                throw new JspTagException(Resources.getMessage("DRIVER_INVALID_CLASS", e.toString()), e);
-            }
-            dsw.setJdbcURL(jdbcURL);
-            dsw.setUserName(userName);
-            dsw.setPassword(password);
-            ds = dsw;
+            // Shared with the other tags using the same parameters, so its connection pool is too
+            ds = DataSourceUtil.getDataSource(jdbcURL, driverClassName, userName, password, pageContext);
         }
 
         if (var != null) {
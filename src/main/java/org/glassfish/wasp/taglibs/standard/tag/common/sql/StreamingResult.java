@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2026 Contributors to Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.wasp.taglibs.standard.tag.common.sql;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.SortedMap;
+import java.util.WeakHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.glassfish.wasp.taglibs.standard.resources.Resources;
+
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletRequestWrapper;
+
+/**
+ * <p>
+ * The result of a &lt;query&gt; with a <tt>fetchSize</tt>: instead of copying the <tt>ResultSet</tt>, its rows are
+ * read from the open, forward-only cursor as they are consumed. <tt>getRows()</tt> and <tt>getRowsByIndex()</tt> return
+ * a <tt>Stream</tt> that can be passed to &lt;c:forEach&gt;, which closes it when the loop ends. A streaming result
+ * can only be read once: only one of them can be called, once.
+ * </p>
+ *
+ * <p>
+ * The <tt>ResultSet</tt>, its <tt>Statement</tt> and, outside a &lt;transaction&gt;, the <tt>Connection</tt> are
+ * closed once the last row has been read or the <tt>Stream</tt> is closed, and at the latest when the request that ran
+ * the query ends, whether the rows were read or not. The rows must therefore be read within that request, and within
+ * a &lt;transaction&gt;, before the transaction ends.
+ * </p>
+ */
+public class StreamingResult implements AutoCloseable {
+
+    // The results to close when their request ends
+    private static final Map<ServletRequest, List<StreamingResult>> openResults = new WeakHashMap<>();
+
+    private final String[] columnNames;
+    private final int startRow;
+    private final int maxRows;
+    private ResultSet rs;
+    private Statement statement;
+    private Connection conn;
+    private SortedMap<String, Integer> columnIndex;
+    private boolean consumed;
+    private boolean started;
+    private boolean isLimited;
+    private int rowCount;
+
+    /**
+     * Takes ownership of the given cursor.
+     *
+     * @param rs an open <tt>ResultSet</tt>, positioned before the first row
+     * @param startRow beginning row to be returned
+     * @param maxRows query maximum rows limit
+     * @param conn the <tt>Connection</tt> to close with the cursor, or null if it is owned by a transaction
+     * @exception SQLException if a database error occurs
+     */
+    public StreamingResult(ResultSet rs, int startRow, int maxRows, Connection conn) throws SQLException {
+        this.rs = rs;
+        this.statement = rs.getStatement();
+        this.conn = conn;
+        this.startRow = startRow;
+        this.maxRows = maxRows;
+
+        ResultSetMetaData rsmd = rs.getMetaData();
+        columnNames = new String[rsmd.getColumnCount()];
+        for (int i = 1; i <= columnNames.length; i++) {
+            columnNames[i - 1] = rsmd.getColumnName(i);
+        }
+    }
+
+    /**
+     * Returns the rows as SortedMap objects, keyed by the case insensitive column name, read as the Stream is consumed.
+     *
+     * @return a Stream of SortedMap
+     */
+    public synchronized Stream<SortedMap<String, Object>> getRows() {
+        Stream<Object[]> rows = getRowsByIndex();
+        if (columnIndex == null) {
+            columnIndex = RowMap.indexColumns(columnNames);
+        }
+        SortedMap<String, Integer> index = columnIndex;
+        return rows.map(values -> new RowMap(index, values));
+    }
+
+    /**
+     * Returns the rows as Object[] objects, in the same order as the column names, read as the Stream is consumed.
+     *
+     * @return a Stream of Object[]
+     */
+    public synchronized Stream<Object[]> getRowsByIndex() {
+        if (consumed) {
+            throw new IllegalStateException(Resources.getMessage("SQL_RESULT_CONSUMED"));
+        }
+        consumed = true;
+
+        Spliterator<Object[]> cursor = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Object[]> action) {
+                Object[] row = nextRow();
+                if (row == null) {
+                    return false;
+                }
+                action.accept(row);
+                return true;
+            }
+        };
+        return StreamSupport.stream(cursor, false).onClose(this::close);
+    }
+
+    /**
+     * Returns the names of the columns.
+     */
+    public String[] getColumnNames() {
+        return columnNames;
+    }
+
+    /**
+     * Returns the number of rows read so far.
+     */
+    public synchronized int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns true if the rows were limited by a maximum row setting; only known once all rows have been read.
+     */
+    public synchronized boolean isLimitedByMaxRows() {
+        return isLimited;
+    }
+
+    /**
+     * Closes the <tt>ResultSet</tt>, its <tt>Statement</tt> and, if owned, the <tt>Connection</tt>.
+     */
+    @Override
+    public synchronized void close() {
+        if (rs == null) {
+            return;
+        }
+
+        // Not much we can do about failures here
+        try {
+            rs.close();
+        } catch (SQLException e) {
+        }
+        try {
+            if (statement != null) {
+                statement.close();
+            }
+        } catch (SQLException e) {
+        }
+        try {
+            if (conn != null) {
+                conn.close();
+            }
+        } catch (SQLException e) {
+        }
+        rs = null;
+        statement = null;
+        conn = null;
+    }
+
+    /*
+     * Has the given result closed when the given request ends, see DataSourceCleanupListener.
+     */
+    static void closeWithRequest(ServletRequest request, StreamingResult result) {
+        request = unwrap(request);
+        synchronized (openResults) {
+            List<StreamingResult> results = openResults.computeIfAbsent(request, r -> new ArrayList<>());
+            // The container may reuse its request objects
+            results.removeIf(StreamingResult::isClosed);
+            results.add(result);
+        }
+    }
+
+    /*
+     * Closes the results of the given request that are still open.
+     */
+    static void closeAll(ServletRequest request) {
+        List<StreamingResult> results;
+        synchronized (openResults) {
+            results = openResults.remove(unwrap(request));
+        }
+        if (results != null) {
+            for (StreamingResult result : results) {
+                result.close();
+            }
+        }
+    }
+
+    private static ServletRequest unwrap(ServletRequest request) {
+        while (request instanceof ServletRequestWrapper) {
+            request = ((ServletRequestWrapper) request).getRequest();
+        }
+        return request;
+    }
+
+    private synchronized boolean isClosed() {
+        return rs == null;
+    }
+
+    // Reads the next row, honoring startRow and maxRows, and closes the cursor after the last one
+    private synchronized Object[] nextRow() {
+        if (rs == null) {
+            return null;
+        }
+        try {
+            if (!started) {
+                started = true;
+                for (int i = 0; i < startRow; i++) {
+                    rs.next();
+                }
+            }
+            if (!rs.next()) {
+                close();
+                return null;
+            }
+            if (maxRows != -1 && rowCount == maxRows) {
+                isLimited = true;
+                close();
+                return null;
+            }
+            rowCount++;
+            return ResultImpl.readRow(rs, columnNames.length);
+        } catch (SQLException e) {
+            close();
+            throw new IllegalStateException(Resources.getMessage("SQL_PROCESS_ERROR", e.getMessage()), e);
+        }
+    }
+}
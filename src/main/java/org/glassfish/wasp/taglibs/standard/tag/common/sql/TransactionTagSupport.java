@@ -18,7 +18,11 @@
 package org.glassfish.wasp.taglibs.standard.tag.common.sql;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.sql.DataSource;
 
@@ -32,6 +36,15 @@ import jakarta.servlet.jsp.tagext.TryCatchFinally;
 /**
  * <p>
  * Tag handler for &lt;Transaction&gt; in JSTL.
+ * </p>
+ *
+ * <p>
+ * The nested &lt;query&gt; and &lt;update&gt; actions share the <code>PreparedStatement</code>s of the transaction, so
+ * a statement repeated with different parameters is only prepared once. With a <code>batchSize</code>, the nested
+ * &lt;update&gt; actions that do not expose their update count are added to a JDBC batch instead of being executed
+ * one by one. The batch is executed when an action with a different statement is executed, when it reaches
+ * <code>batchSize</code> updates, and before the transaction is committed.
+ * </p>
  *
  * @author Hans Bergsten
  */
@@ -46,11 +59,15 @@ public abstract class TransactionTagSupport extends TagSupport implements TryCat
     private static final String TRANSACTION_REPEATABLE_READ = "repeatable_read";
     private static final String TRANSACTION_SERIALIZABLE = "serializable";
 
+    // The maximum number of PreparedStatements kept open by a transaction
+    private static final int STATEMENT_CACHE_SIZE = 32;
+
     // *********************************************************************
     // Protected state
 
     protected Object rawDataSource;
     protected boolean dataSourceSpecified;
+    protected int batchSize;
 
     // *********************************************************************
     // Private state
@@ -58,6 +75,10 @@ public abstract class TransactionTagSupport extends TagSupport implements TryCat
     private Connection conn;
     private int isolation;
     private int origIsolation;
+    private Map<String, PreparedStatement> statements;
+    private PreparedStatement batch;
+    private String batchSql;
+    private int batchCount;
 
     // *********************************************************************
     // Constructor and initialization
@@ -71,6 +92,7 @@ public abstract class TransactionTagSupport extends TagSupport implements TryCat
         conn = null;
         dataSourceSpecified = false;
         rawDataSource = null;
+        batchSize = 0;
         isolation = Connection.TRANSACTION_NONE;
     }
 
@@ -87,6 +109,9 @@ public abstract class TransactionTagSupport extends TagSupport implements TryCat
         if ((rawDataSource == null) && dataSourceSpecified) {
             throw new JspException(Resources.getMessage("SQL_DATASOURCE_NULL"));
         }
+        if (batchSize < 0) {
+            throw new JspException(Resources.getMessage("PARAM_BAD_VALUE"));
+        }
 
         DataSource dataSource = DataSourceUtil.getDataSource(rawDataSource, pageContext);
 
@@ -100,6 +125,9 @@ public abstract class TransactionTagSupport extends TagSupport implements TryCat
                 conn.setTransactionIsolation(isolation);
             }
             conn.setAutoCommit(false);
+            if (batchSize > 0 && !conn.getMetaData().supportsBatchUpdates()) {
+                batchSize = 0;
+            }
         } catch (SQLException e) {
             throw new JspTagException(Resources.getMessage("ERROR_GET_CONNECTION", e.toString()), e);
         }
@@ -112,6 +140,11 @@ public abstract class TransactionTagSupport extends TagSupport implements TryCat
      */
     @Override
     public int doEndTag() throws JspException {
+        try {
+            executeBatch();
+        } catch (SQLException e) {
+            throw new JspException(batchSql + ": " + e.getMessage(), e);
+        }
         try {
             conn.commit();
         } catch (SQLException e) {
@@ -140,6 +173,7 @@ public abstract class TransactionTagSupport extends TagSupport implements TryCat
      */
     @Override
     public void doFinally() {
+        closeStatements();
         if (conn != null) {
             try {
                 if ((isolation != Connection.TRANSACTION_NONE) && (isolation != origIsolation)) {
@@ -187,4 +221,99 @@ public abstract class TransactionTagSupport extends TagSupport implements TryCat
     public Connection getSharedConnection() {
         return conn;
     }
+
+    // *********************************************************************
+    // Statement sharing and batching, for the nested <query> and <update>
+
+    /*
+     * Returns the transaction's PreparedStatement for the given SQL, preparing it on first use, after executing the
+     * pending batch. The statement must not be closed by the caller.
+     */
+    PreparedStatement prepareStatement(String sql) throws SQLException {
+        executeBatch();
+        return getStatement(sql);
+    }
+
+    /*
+     * Whether <update> actions that do not expose their update count should be added to the batch.
+     */
+    boolean isBatching() {
+        return batchSize > 0;
+    }
+
+    /*
+     * Adds an update to the batch, executing the pending one first if it is for another statement, and the batch itself
+     * once it is full.
+     */
+    void addBatch(String sql, List<Object> parameters) throws SQLException {
+        if (batch != null && !batchSql.equals(sql)) {
+            executeBatch();
+        }
+        PreparedStatement ps = getStatement(sql);
+        UpdateTagSupport.setParameters(ps, parameters);
+        ps.addBatch();
+        batch = ps;
+        batchSql = sql;
+        if (++batchCount >= batchSize) {
+            executeBatch();
+        }
+    }
+
+    /*
+     * Executes the pending batch, if any.
+     */
+    void executeBatch() throws SQLException {
+        if (batch != null) {
+            PreparedStatement ps = batch;
+            batch = null;
+            batchCount = 0;
+            ps.executeBatch();
+        }
+    }
+
+    private PreparedStatement getStatement(String sql) throws SQLException {
+        if (statements == null) {
+            statements = new LinkedHashMap<>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > STATEMENT_CACHE_SIZE) {
+                        close(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        PreparedStatement ps = statements.get(sql);
+        if (ps == null) {
+            ps = conn.prepareStatement(sql);
+            statements.put(sql, ps);
+        } else {
+            ps.clearParameters();
+        }
+        return ps;
+    }
+
+    private void closeStatements() {
+        if (statements != null) {
+            for (PreparedStatement ps : statements.values()) {
+                close(ps);
+            }
+        }
+        statements = null;
+        batch = null;
+        batchSql = null;
+        batchCount = 0;
+    }
+
+    private static void close(PreparedStatement ps) {
+        try {
+            ps.close();
+        } catch (SQLException e) {
+            // Not much we can do
+        }
+    }
 }
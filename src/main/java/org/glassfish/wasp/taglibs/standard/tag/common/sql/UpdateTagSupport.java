@@ -63,6 +63,7 @@ public abstract class UpdateTagSupport extends BodyTagSupport implements TryCatc
     private Connection conn;
     private List<Object> parameters;
     private boolean isPartOfTransaction;
+    private TransactionTagSupport transaction;
 
     // *********************************************************************
     // Constructor and initialization
@@ -145,7 +146,12 @@ public abstract class UpdateTagSupport extends BodyTagSupport implements TryCatc
 
         int result = 0;
         try {
-            PreparedStatement ps = conn.prepareStatement(sqlStatement);
+            if (transaction != null && var == null && transaction.isBatching()) {
+                // Nobody needs the update count, so the update can wait in the batch
+                transaction.addBatch(sqlStatement, parameters);
+                return EVAL_PAGE;
+            }
+            PreparedStatement ps = transaction != null ? transaction.prepareStatement(sqlStatement) : conn.prepareStatement(sqlStatement);
             setParameters(ps, parameters);
             result = ps.executeUpdate();
         } catch (Throwable e) {
@@ -180,6 +186,7 @@ public abstract class UpdateTagSupport extends BodyTagSupport implements TryCatc
 
         parameters = null;
         conn = null;
+        transaction = null;
     }
 
     // *********************************************************************
@@ -211,6 +218,7 @@ public abstract class UpdateTagSupport extends BodyTagSupport implements TryCatc
             }
             conn = parent.getSharedConnection();
             isPartOfTransaction = true;
+            transaction = parent;
         } else {
             if ((rawDataSource == null) && dataSourceSpecified) {
                 throw new JspException(Resources.getMessage("SQL_DATASOURCE_NULL"));
@@ -226,7 +234,7 @@ public abstract class UpdateTagSupport extends BodyTagSupport implements TryCatc
         return conn;
     }
 
-    private void setParameters(PreparedStatement ps, List parameters) throws SQLException {
+    static void setParameters(PreparedStatement ps, List parameters) throws SQLException {
         if (parameters != null) {
             for (int i = 0; i < parameters.size(); i++) {
                 /*
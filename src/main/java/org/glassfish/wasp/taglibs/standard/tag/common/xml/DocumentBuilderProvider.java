@@ -16,20 +16,39 @@
 
 package org.glassfish.wasp.taglibs.standard.tag.common.xml;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
 import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.SAXException;
 
 /**
  * Provides preconfigured {@link DocumentBuilder} instances.
+ * <p>
+ * Creating a parser is expensive compared to parsing the small documents tags usually deal with, so the tags borrow
+ * them from bounded pools with the <code>acquire</code> methods and hand them back with the matching
+ * <code>release</code> method, which resets them to their initial configuration first.
  *
  * @author David Matejcek
  */
 public class DocumentBuilderProvider {
 
+    // The maximum number of idle instances kept by each pool
+    private static final int POOL_SIZE = 16;
+
+    private static final BlockingQueue<DocumentBuilder> BUILDERS = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final BlockingQueue<DocumentBuilder> SECURE_BUILDERS = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final BlockingQueue<SAXParser> SAX_PARSERS = new ArrayBlockingQueue<>(POOL_SIZE);
+
     private static final DocumentBuilderFactory DBF;
     private static final DocumentBuilderFactory DBF_SECURE;
+    private static final SAXParserFactory SPF;
     static {
         DBF = DocumentBuilderFactory.newInstance();
         DBF.setNamespaceAware(true);
@@ -43,6 +62,10 @@ public class DocumentBuilderProvider {
         } catch (ParserConfigurationException e) {
             throw new Error("Parser does not support secure processing");
         }
+
+        SPF = SAXParserFactory.newInstance();
+        SPF.setNamespaceAware(true);
+        SPF.setValidating(false);
     }
 
     /**
@@ -77,4 +100,87 @@ public class DocumentBuilderProvider {
             throw new Error("Could not initialize the DocumentBuilder!", e);
         }
     }
+
+    /**
+     * Returns a pooled {@link DocumentBuilder} configured as by {@link #createDocumentBuilder()}, creating one if the pool
+     * is empty. It must be used by one thread at a time, and handed back with {@link #releaseDocumentBuilder}.
+     *
+     * @return {@link DocumentBuilder} instance.
+     */
+    public static DocumentBuilder acquireDocumentBuilder() {
+        DocumentBuilder db = BUILDERS.poll();
+        return db != null ? db : createDocumentBuilder();
+    }
+
+    /**
+     * Hands back a {@link DocumentBuilder} obtained from {@link #acquireDocumentBuilder()}.
+     *
+     * @param db the builder, which must not be used afterwards.
+     */
+    public static void releaseDocumentBuilder(DocumentBuilder db) {
+        release(BUILDERS, db);
+    }
+
+    /**
+     * Returns a pooled {@link DocumentBuilder} configured as by {@link #createSecureDocumentBuilder()}, creating one if
+     * the pool is empty. It must be used by one thread at a time, and handed back with
+     * {@link #releaseSecureDocumentBuilder}.
+     *
+     * @return {@link DocumentBuilder} instance.
+     */
+    public static DocumentBuilder acquireSecureDocumentBuilder() {
+        DocumentBuilder db = SECURE_BUILDERS.poll();
+        return db != null ? db : createSecureDocumentBuilder();
+    }
+
+    /**
+     * Hands back a {@link DocumentBuilder} obtained from {@link #acquireSecureDocumentBuilder()}.
+     *
+     * @param db the builder, which must not be used afterwards.
+     */
+    public static void releaseSecureDocumentBuilder(DocumentBuilder db) {
+        release(SECURE_BUILDERS, db);
+    }
+
+    /**
+     * Returns a pooled namespace-aware {@link SAXParser} with disabled validation, creating one if the pool is empty. It
+     * must be used by one thread at a time, and handed back with {@link #releaseSAXParser}.
+     *
+     * @return {@link SAXParser} instance.
+     */
+    public static SAXParser acquireSAXParser() {
+        SAXParser parser = SAX_PARSERS.poll();
+        if (parser != null) {
+            return parser;
+        }
+        try {
+            return SPF.newSAXParser();
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new Error("Could not initialize the SAXParser!", e);
+        }
+    }
+
+    /**
+     * Hands back a {@link SAXParser} obtained from {@link #acquireSAXParser()}.
+     *
+     * @param parser the parser, which must not be used afterwards.
+     */
+    public static void releaseSAXParser(SAXParser parser) {
+        try {
+            parser.reset();
+        } catch (UnsupportedOperationException e) {
+            return;
+        }
+        SAX_PARSERS.offer(parser);
+    }
+
+    private static void release(BlockingQueue<DocumentBuilder> pool, DocumentBuilder db) {
+        // An implementation that cannot be reset is not reused
+        try {
+            db.reset();
+        } catch (UnsupportedOperationException e) {
+            return;
+        }
+        pool.offer(db);
+    }
 }
@@ -63,7 +63,7 @@ public abstract class ExprSupport extends TagSupport {
     public int doStartTag() throws JspException {
         try {
             XPathUtil xu = new XPathUtil(pageContext);
-            String result = xu.valueOf(XPathUtil.getContext(this), select);
+            String result = xu.valueOf(XPathUtil.getEvaluationContext(this), select);
             org.glassfish.wasp.taglibs.standard.tag.common.core.OutSupport.out(pageContext, escapeXml, result);
             return SKIP_BODY;
         } catch (java.io.IOException ex) {
@@ -51,7 +51,7 @@ public class ForEachTag extends LoopTagSupport {
     protected void prepare() throws JspTagException {
         nodesIndex = 0;
         XPathUtil xu = new XPathUtil(pageContext);
-        nodes = xu.selectNodes(XPathUtil.getContext(this), select);
+        nodes = xu.selectNodes(XPathUtil.getEvaluationContext(this), select);
     }
 
     @Override
@@ -52,7 +52,7 @@ public class IfTag extends ConditionalTagSupport {
     @Override
     protected boolean condition() throws JspTagException {
         XPathUtil xu = new XPathUtil(pageContext);
-        return (xu.booleanValueOf(XPathUtil.getContext(this), select));
+        return (xu.booleanValueOf(XPathUtil.getEvaluationContext(this), select));
     }
 
     // *********************************************************************
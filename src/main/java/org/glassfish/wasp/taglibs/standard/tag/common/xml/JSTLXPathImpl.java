@@ -19,9 +19,12 @@
 package org.glassfish.wasp.taglibs.standard.tag.common.xml;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
 import javax.xml.namespace.NamespaceContext;
 import javax.xml.namespace.QName;
+import javax.xml.parsers.DocumentBuilder;
 import javax.xml.transform.TransformerException;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
@@ -40,6 +43,7 @@ import org.apache.xpath.objects.XNodeSet;
 import org.apache.xpath.objects.XObject;
 import org.apache.xpath.res.XPATHErrorResources;
 import org.apache.xpath.res.XPATHMessages;
+import org.glassfish.wasp.taglibs.standard.tag.common.core.BoundedCache;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.traversal.NodeIterator;
@@ -66,6 +70,13 @@ class JSTLXPathImpl implements javax.xml.xpath.XPath {
     private NamespaceContext namespaceContext;
     private JAXPPrefixResolver prefixResolver;
 
+    private static final int CACHE_SIZE = 512;
+
+    /*
+     * Compiled expressions, keyed by the expression and the namespace context it was compiled with
+     */
+    private static final BoundedCache<List<Object>, XPath> compiledExpressions = new BoundedCache<>(CACHE_SIZE);
+
     // By default Extension Functions are allowed in XPath Expressions. If
     // Secure Processing Feature is set on XPathFactory then the invocation of
     // extensions function need to throw XPathFunctionException
@@ -136,12 +147,15 @@ class JSTLXPathImpl implements javax.xml.xpath.XPath {
 
     @Override
     public XPathExpression compile(String expression) throws XPathExpressionException {
-        // This is never used in JSTL
         if (expression == null) {
             String fmsg = XPATHMessages.createXPATHMessage(XPATHErrorResources.ER_ARG_CANNOT_BE_NULL, new Object[] { "XPath expression" });
             throw new NullPointerException(fmsg);
         }
-        return null;
+        try {
+            return new CompiledExpression(getXPath(expression), variableResolver, functionResolver, prefixResolver);
+        } catch (TransformerException te) {
+            throw new XPathExpressionException(te);
+        }
     }
 
     @Override
@@ -163,7 +177,7 @@ class JSTLXPathImpl implements javax.xml.xpath.XPath {
         }
 
         try {
-            XObject resultObject = eval(expression, item);
+            XObject resultObject = eval(getXPath(expression), item, variableResolver, functionResolver, prefixResolver);
             return getResultAsType(resultObject, returnType);
         } catch (NullPointerException npe) {
             // If VariableResolver returns null Or if we get
@@ -211,8 +225,8 @@ class JSTLXPathImpl implements javax.xml.xpath.XPath {
         }
 
         try {
-            Document document = DocumentBuilderProvider.createDocumentBuilder().parse(source);
-            XObject resultObject = eval(expression, document);
+            Document document = parse(source);
+            XObject resultObject = eval(getXPath(expression), document, variableResolver, functionResolver, prefixResolver);
             return getResultAsType(resultObject, returnType);
         } catch (SAXException e) {
             throw new XPathExpressionException(e);
@@ -232,8 +246,22 @@ class JSTLXPathImpl implements javax.xml.xpath.XPath {
         return (String) this.evaluate(expression, source, XPathConstants.STRING);
     }
 
-    private XObject eval(String expression, Object contextItem) throws TransformerException {
-        XPath xpath = new XPath(expression, null, prefixResolver, XPath.SELECT);
+    /*
+     * Returns the compiled form of an expression for the current namespace context. Compiled expressions hold no state
+     * of their own while they are executed, so they are shared by all evaluations.
+     */
+    private XPath getXPath(String expression) throws TransformerException {
+        List<Object> key = Arrays.asList(expression, namespaceContext);
+        XPath xpath = compiledExpressions.get(key);
+        if (xpath == null) {
+            xpath = new XPath(expression, null, prefixResolver, XPath.SELECT);
+            compiledExpressions.put(key, xpath);
+        }
+        return xpath;
+    }
+
+    private XObject eval(XPath xpath, Object contextItem, XPathVariableResolver variableResolver, XPathFunctionResolver functionResolver,
+            JAXPPrefixResolver prefixResolver) throws TransformerException {
         final XPathContext xpathSupport;
         if (functionResolver != null) {
             JAXPExtensionsProvider jep = new JAXPExtensionsProvider(functionResolver, featureSecureProcessing);
@@ -251,13 +279,25 @@ class JSTLXPathImpl implements javax.xml.xpath.XPath {
         return xpath.execute(xpathSupport, DTM.NULL, prefixResolver);
     }
 
-    private boolean isSupported(QName returnType) {
+    /*
+     * Parses an InputSource with a pooled DocumentBuilder.
+     */
+    private static Document parse(InputSource source) throws SAXException, IOException {
+        DocumentBuilder db = DocumentBuilderProvider.acquireDocumentBuilder();
+        try {
+            return db.parse(source);
+        } finally {
+            DocumentBuilderProvider.releaseDocumentBuilder(db);
+        }
+    }
+
+    private static boolean isSupported(QName returnType) {
         return returnType.equals(XPathConstants.STRING) || returnType.equals(XPathConstants.NUMBER)
                 || returnType.equals(XPathConstants.BOOLEAN) || returnType.equals(XPathConstants.NODE)
                 || returnType.equals(XPathConstants.NODESET) || returnType.equals(JSTLXPathConstants.OBJECT);
     }
 
-    private Object getResultAsType(XObject resultObject, QName returnType) throws TransformerException {
+    private static Object getResultAsType(XObject resultObject, QName returnType) throws TransformerException {
         if (returnType.equals(XPathConstants.STRING)) {
             return resultObject.str();
         }
@@ -286,4 +326,71 @@ class JSTLXPathImpl implements javax.xml.xpath.XPath {
                 new Object[] { returnType.toString() });
         throw new IllegalArgumentException(fmsg);
     }
+
+    /*
+     * An expression compiled by compile(String), evaluated with the resolvers that were set at that time.
+     */
+    private final class CompiledExpression implements XPathExpression {
+
+        private final XPath xpath;
+        private final XPathVariableResolver variableResolver;
+        private final XPathFunctionResolver functionResolver;
+        private final JAXPPrefixResolver prefixResolver;
+
+        CompiledExpression(XPath xpath, XPathVariableResolver variableResolver, XPathFunctionResolver functionResolver,
+                JAXPPrefixResolver prefixResolver) {
+            this.xpath = xpath;
+            this.variableResolver = variableResolver;
+            this.functionResolver = functionResolver;
+            this.prefixResolver = prefixResolver;
+        }
+
+        @Override
+        public Object evaluate(Object item, QName returnType) throws XPathExpressionException {
+            if (returnType == null) {
+                String fmsg = XPATHMessages.createXPATHMessage(XPATHErrorResources.ER_ARG_CANNOT_BE_NULL, new Object[] { "returnType" });
+                throw new NullPointerException(fmsg);
+            }
+            if (!isSupported(returnType)) {
+                String fmsg = XPATHMessages.createXPATHMessage(XPATHErrorResources.ER_UNSUPPORTED_RETURN_TYPE,
+                        new Object[] { returnType.toString() });
+                throw new IllegalArgumentException(fmsg);
+            }
+
+            try {
+                return getResultAsType(eval(xpath, item, variableResolver, functionResolver, prefixResolver), returnType);
+            } catch (NullPointerException npe) {
+                throw new XPathExpressionException(npe);
+            } catch (TransformerException te) {
+                Throwable nestedException = te.getException();
+                if (nestedException instanceof XPathFunctionException) {
+                    throw (XPathFunctionException) nestedException;
+                }
+                throw new XPathExpressionException(te);
+            }
+        }
+
+        @Override
+        public String evaluate(Object item) throws XPathExpressionException {
+            return (String) evaluate(item, XPathConstants.STRING);
+        }
+
+        @Override
+        public Object evaluate(InputSource source, QName returnType) throws XPathExpressionException {
+            if (source == null) {
+                String fmsg = XPATHMessages.createXPATHMessage(XPATHErrorResources.ER_ARG_CANNOT_BE_NULL, new Object[] { "source" });
+                throw new NullPointerException(fmsg);
+            }
+            try {
+                return evaluate(parse(source), returnType);
+            } catch (SAXException | IOException e) {
+                throw new XPathExpressionException(e);
+            }
+        }
+
+        @Override
+        public String evaluate(InputSource source) throws XPathExpressionException {
+            return (String) evaluate(source, XPathConstants.STRING);
+        }
+    }
 }
@@ -26,13 +26,19 @@ import java.io.StringReader;
 
 import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.SAXParser;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.sax.SAXTransformerFactory;
 import javax.xml.transform.sax.TransformerHandler;
 
+import org.glassfish.wasp.taglibs.standard.extra.spath.ParseException;
+import org.glassfish.wasp.taglibs.standard.extra.spath.Path;
+import org.glassfish.wasp.taglibs.standard.extra.spath.SPathFilter;
+import org.glassfish.wasp.taglibs.standard.extra.spath.SPathParser;
 import org.glassfish.wasp.taglibs.standard.resources.Resources;
+import org.glassfish.wasp.taglibs.standard.tag.common.core.BoundedCache;
 import org.glassfish.wasp.taglibs.standard.tag.common.core.ImportSupport;
 import org.glassfish.wasp.taglibs.standard.tag.common.core.Util;
 import org.w3c.dom.Document;
@@ -41,7 +47,6 @@ import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.XMLFilter;
 import org.xml.sax.XMLReader;
-import org.xml.sax.helpers.XMLReaderFactory;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.jsp.JspException;
@@ -69,6 +74,11 @@ public abstract class ParseSupport extends BodyTagSupport {
     // *********************************************************************
     // Private state
 
+    private static final int CACHE_SIZE = 128;
+
+    // SPath expressions given as 'filter', compiled once
+    private static final BoundedCache<String, Path> spathExpressions = new BoundedCache<>(CACHE_SIZE);
+
     private String var; // 'var' attribute
     private String varDom; // 'varDom' attribute
     private int scope; // processed 'scope' attr
@@ -107,7 +117,7 @@ public abstract class ParseSupport extends BodyTagSupport {
     public int doEndTag() throws JspException {
         try {
 
-            db = DocumentBuilderProvider.createSecureDocumentBuilder();
+            db = DocumentBuilderProvider.acquireSecureDocumentBuilder();
 
             // if we've gotten a filter, set up a transformer to support it
             if (filter != null) {
@@ -161,6 +171,11 @@ public abstract class ParseSupport extends BodyTagSupport {
             throw new JspException(ex);
         } catch (TransformerConfigurationException ex) {
             throw new JspException(ex);
+        } finally {
+            if (db != null) {
+                DocumentBuilderProvider.releaseSecureDocumentBuilder(db);
+                db = null;
+            }
         }
     }
 
@@ -170,6 +185,37 @@ public abstract class ParseSupport extends BodyTagSupport {
         init();
     }
 
+    // *********************************************************************
+    // Utility methods for subclasses
+
+    /**
+     * Returns the XMLFilter to apply for the given 'filter' attribute, which is either an XMLFilter or an SPath
+     * expression. An SPath expression streams the document through an SPathFilter, so that only the elements it selects
+     * and the elements enclosing them are built into the resulting Document.
+     */
+    protected static XMLFilter getFilter(Object filter) throws JspTagException {
+        if (filter == null || filter instanceof XMLFilter) {
+            return (XMLFilter) filter;
+        }
+        if (!(filter instanceof String)) {
+            throw new JspTagException(Resources.getMessage("PARSE_INVALID_FILTER"));
+        }
+
+        String expression = (String) filter;
+        Path path = spathExpressions.get(expression);
+        if (path == null) {
+            try {
+                path = new SPathParser(expression).expression();
+            } catch (ParseException ex) {
+                throw new JspTagException(ex.toString(), ex);
+            }
+            spathExpressions.put(expression, path);
+        }
+
+        // the filter keeps track of where it is in the document, so each parse needs its own
+        return new SPathFilter(path, true);
+    }
+
     // *********************************************************************
     // Private utility methods
 
@@ -181,15 +227,20 @@ public abstract class ParseSupport extends BodyTagSupport {
 
             // use TrAX to adapt SAX events to a Document object
             th.setResult(new DOMResult(o));
-            XMLReader xr = XMLReaderFactory.createXMLReader();
-            xr.setEntityResolver(new JstlEntityResolver(pageContext));
-            // (note that we overwrite the filter's parent. this seems
-            // to be expected usage. we could cache and reset the old
-            // parent, but you can't setParent(null), so this wouldn't
-            // be perfect.)
-            f.setParent(xr);
-            f.setContentHandler(th);
-            f.parse(s);
+            SAXParser parser = DocumentBuilderProvider.acquireSAXParser();
+            try {
+                XMLReader xr = parser.getXMLReader();
+                xr.setEntityResolver(new JstlEntityResolver(pageContext));
+                // (note that we overwrite the filter's parent. this seems
+                // to be expected usage. we could cache and reset the old
+                // parent, but you can't setParent(null), so this wouldn't
+                // be perfect.)
+                f.setParent(xr);
+                f.setContentHandler(th);
+                f.parse(s);
+            } finally {
+                DocumentBuilderProvider.releaseSAXParser(parser);
+            }
             return o;
         } else {
             return parseInputSource(s);
@@ -68,7 +68,7 @@ public class SetTag extends TagSupport {
     public int doStartTag() throws JspException {
         // process the query
         XPathUtil xu = new XPathUtil(pageContext);
-        List result = xu.selectNodes(XPathUtil.getContext(this), select);
+        List result = xu.selectNodes(XPathUtil.getEvaluationContext(this), select);
         Object ret = result;
 
         // unwrap primitive types if that's what we received
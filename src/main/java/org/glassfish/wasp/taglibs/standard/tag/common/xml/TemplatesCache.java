@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2026 Contributors to Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.wasp.taglibs.standard.tag.common.xml;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.stream.StreamSource;
+
+import org.glassfish.wasp.taglibs.standard.tag.common.core.BoundedCache;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.jsp.PageContext;
+
+/**
+ * Keeps the compiled stylesheets used by &lt;transform&gt; so that each transformation only has to create a
+ * Transformer. Stylesheets are identified by their content when given as a String, or by their URL when given as a
+ * StreamSource. An entry is dropped as soon as one of the files it was compiled from has been modified.
+ */
+final class TemplatesCache {
+
+    private static final int CACHE_SIZE = 64;
+
+    /*
+     * The cached stylesheets of each web application
+     */
+    private static final Map<ServletContext, BoundedCache<List<Object>, Entry>> templates = new WeakHashMap<>();
+
+    private TemplatesCache() {
+    }
+
+    /**
+     * Returns the key identifying the given stylesheet, or <code>null</code> if it cannot be cached.
+     */
+    static List<Object> getKey(PageContext pageContext, Object xslt, String systemId) {
+        // Relative imports and includes resolve against the directory of the page
+        String pagePath = ((HttpServletRequest) pageContext.getRequest()).getServletPath();
+        String pageDir = pagePath == null ? "" : pagePath.substring(0, pagePath.lastIndexOf("/") + 1);
+
+        if (xslt instanceof String) {
+            return Arrays.asList(pageDir, systemId, xslt);
+        }
+        if (xslt instanceof StreamSource) {
+            StreamSource source = (StreamSource) xslt;
+            if (source.getInputStream() == null && source.getReader() == null && source.getSystemId() != null) {
+                return Arrays.asList(pageDir, source.getSystemId());
+            }
+        }
+
+        // Readers can only be read once, and other sources may be changed in place
+        return null;
+    }
+
+    /**
+     * Returns the stylesheet cached under the given key, or <code>null</code> if there is none or it is out of date.
+     */
+    static Templates get(PageContext pageContext, List<Object> key) {
+        BoundedCache<List<Object>, Entry> cache = getCache(pageContext.getServletContext());
+        Entry entry = cache.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.isCurrent()) {
+            cache.remove(key);
+            return null;
+        }
+
+        return entry.templates;
+    }
+
+    /**
+     * Caches a stylesheet compiled from the given files, unless they could not all be tracked.
+     */
+    static void put(PageContext pageContext, List<Object> key, Templates compiled, Dependencies dependencies) {
+        if (dependencies.untracked) {
+            return;
+        }
+
+        getCache(pageContext.getServletContext()).put(key, new Entry(compiled, dependencies));
+    }
+
+    private static BoundedCache<List<Object>, Entry> getCache(ServletContext servletContext) {
+        synchronized (templates) {
+            return templates.computeIfAbsent(servletContext, c -> new BoundedCache<>(CACHE_SIZE));
+        }
+    }
+
+    /**
+     * The files a stylesheet was compiled from, recorded as they are resolved. Resources of the web application that are
+     * not plain files only change when it is redeployed, which also discards its cache.
+     */
+    static final class Dependencies {
+
+        private final List<File> files = new ArrayList<>();
+        private final List<Long> lastModified = new ArrayList<>();
+        private boolean untracked;
+
+        /**
+         * Records a resource of the web application.
+         */
+        void addResource(ServletContext servletContext, String path) {
+            try {
+                URL url = servletContext.getResource(path);
+                if (url != null && "file".equals(url.getProtocol())) {
+                    addFile(url);
+                }
+            } catch (MalformedURLException e) {
+                untracked = true;
+            }
+        }
+
+        /**
+         * Records a document loaded from a URL, relative to the given base if it has one.
+         */
+        void addUrl(String base, String href) {
+            try {
+                URL url = base == null ? new URL(href) : new URL(new URL(base), href);
+                if ("file".equals(url.getProtocol())) {
+                    addFile(url);
+                } else if (!"jar".equals(url.getProtocol())) {
+                    // Remote documents may change at any time
+                    untracked = true;
+                }
+            } catch (MalformedURLException e) {
+                untracked = true;
+            }
+        }
+
+        private void addFile(URL url) {
+            try {
+                File file = new File(url.toURI());
+                files.add(file);
+                lastModified.add(file.lastModified());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                untracked = true;
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        final Templates templates;
+        private final File[] files;
+        private final long[] lastModified;
+
+        Entry(Templates templates, Dependencies dependencies) {
+            this.templates = templates;
+            this.files = dependencies.files.toArray(new File[0]);
+            this.lastModified = new long[files.length];
+            for (int i = 0; i < files.length; i++) {
+                lastModified[i] = dependencies.lastModified.get(i);
+            }
+        }
+
+        boolean isCurrent() {
+            for (int i = 0; i < files.length; i++) {
+                if (files[i].lastModified() != lastModified[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
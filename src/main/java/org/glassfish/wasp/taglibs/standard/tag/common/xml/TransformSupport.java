@@ -28,8 +28,10 @@ import java.util.List;
 import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
@@ -49,7 +51,6 @@ import org.w3c.dom.Node;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
-import org.xml.sax.helpers.XMLReaderFactory;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.jsp.JspException;
@@ -82,7 +83,7 @@ public abstract class TransformSupport extends BodyTagSupport {
     private int scope; // processed 'scope' attr
     private Transformer t; // actual Transformer
     private TransformerFactory tf; // reusable factory
-    private DocumentBuilder db; // reusable factory
+    private SAXParser parser; // pooled parser of the Source being read
 
     // *********************************************************************
     // Constructor and initialization
@@ -114,9 +115,6 @@ public abstract class TransformSupport extends BodyTagSupport {
 
             // ************************************
             // Initialize
-            if (db == null) {
-                db = DocumentBuilderProvider.createSecureDocumentBuilder();
-            }
             // set up the TransformerFactory if necessary
             if (tf == null) {
                 tf = TransformerFactory.newInstance();
@@ -130,17 +128,15 @@ public abstract class TransformSupport extends BodyTagSupport {
             // ************************************
             // Produce transformer
 
-            Source s;
             if (xslt != null) {
                 if (!(xslt instanceof String) && !(xslt instanceof Reader) && !(xslt instanceof javax.xml.transform.Source)) {
                     throw new JspTagException(Resources.getMessage("TRANSFORM_XSLT_UNRECOGNIZED"));
                 }
-                s = getSource(xslt, xsltSystemId);
             } else {
                 throw new JspTagException(Resources.getMessage("TRANSFORM_NO_TRANSFORMER"));
             }
-            tf.setURIResolver(new JstlUriResolver(pageContext));
-            t = tf.newTransformer(s);
+            t = getTemplates().newTransformer();
+            t.setURIResolver(new JstlUriResolver(pageContext, null));
 
             return EVAL_BODY_BUFFERED;
 
@@ -167,10 +163,13 @@ public abstract class TransformSupport extends BodyTagSupport {
             // if we haven't gotten a source, use the body (which may be empty)
             Object xml = this.xml;
             if (xml == null) { // still equal
-            	if (bodyContent != null && bodyContent.getString() != null)
-            	xml = bodyContent.getString().trim();
-            	else
-            	xml = "";
+                // parse the body where it is rather than copying it into a String
+                Reader body = bodyContent != null ? bodyContent.getReader() : null;
+                if (body != null) {
+                    xml = skipLeadingWhitespace(body);
+                } else {
+                    xml = "";
+                }
             }
 
             // let the Source be with you
@@ -185,7 +184,9 @@ public abstract class TransformSupport extends BodyTagSupport {
                 t.transform(source, result);
             } else if (var != null) {
                 // we need a Document
+                DocumentBuilder db = DocumentBuilderProvider.acquireSecureDocumentBuilder();
                 Document d = db.newDocument();
+                DocumentBuilderProvider.releaseSecureDocumentBuilder(db);
                 Result doc = new DOMResult(d);
                 t.transform(source, doc);
                 pageContext.setAttribute(var, d, scope);
@@ -203,6 +204,8 @@ public abstract class TransformSupport extends BodyTagSupport {
             throw new JspException(ex);
         } catch (TransformerException ex) {
             throw new JspException(ex);
+        } finally {
+            releaseSAXParser();
         }
     }
 
@@ -223,6 +226,57 @@ public abstract class TransformSupport extends BodyTagSupport {
     // *********************************************************************
     // Utility methods
 
+    /**
+     * Returns the compiled form of our stylesheet, compiling it only if it is not already cached.
+     */
+    private Templates getTemplates() throws SAXException, ParserConfigurationException, IOException, TransformerConfigurationException {
+        List<Object> key = TemplatesCache.getKey(pageContext, xslt, xsltSystemId);
+        if (key != null) {
+            Templates templates = TemplatesCache.get(pageContext, key);
+            if (templates != null) {
+                return templates;
+            }
+        }
+
+        Source s = getSource(xslt, xsltSystemId);
+        TemplatesCache.Dependencies dependencies = new TemplatesCache.Dependencies();
+        if (s instanceof StreamSource) {
+            dependencies.addUrl(null, s.getSystemId());
+        }
+
+        // The factory hands its resolver to what it compiles, so detach it from the page afterwards
+        JstlUriResolver resolver = new JstlUriResolver(pageContext, dependencies);
+        tf.setURIResolver(resolver);
+        Templates templates;
+        try {
+            templates = tf.newTemplates(s);
+        } finally {
+            resolver.detach();
+            releaseSAXParser();
+        }
+
+        if (key != null) {
+            TemplatesCache.put(pageContext, key, templates, dependencies);
+        }
+        return templates;
+    }
+
+    /**
+     * Positions the given Reader on its first non-whitespace character, the way String.trim() would, so that an XML
+     * declaration following some whitespace in the body is still accepted.
+     */
+    private static Reader skipLeadingWhitespace(Reader r) throws IOException {
+        int c;
+        do {
+            r.mark(1);
+            c = r.read();
+        } while (c != -1 && c <= ' ');
+        if (c != -1) {
+            r.reset();
+        }
+        return r;
+    }
+
     /**
      * Wraps systemId with a "jstl:" prefix to prevent the parser from thinking that the URI is truly relative and resolving
      * it against the current directory in the filesystem.
@@ -253,7 +307,8 @@ public abstract class TransformSupport extends BodyTagSupport {
         } else if (o instanceof Reader) {
             // explicitly go through SAX to maintain control
             // over how relative external entities resolve
-            XMLReader xr = XMLReaderFactory.createXMLReader();
+            parser = DocumentBuilderProvider.acquireSAXParser();
+            XMLReader xr = parser.getXMLReader();
             xr.setEntityResolver(new ParseSupport.JstlEntityResolver(pageContext));
             InputSource s = new InputSource((Reader) o);
             s.setSystemId(wrapSystemId(systemId));
@@ -275,6 +330,16 @@ public abstract class TransformSupport extends BodyTagSupport {
         }
     }
 
+    /**
+     * Hands back the parser of the last Source read from a Reader, once it has been consumed.
+     */
+    private void releaseSAXParser() {
+        if (parser != null) {
+            DocumentBuilderProvider.releaseSAXParser(parser);
+            parser = null;
+        }
+    }
+
     // *********************************************************************
     // Tag attributes
 
@@ -312,6 +377,18 @@ public abstract class TransformSupport extends BodyTagSupport {
         public void write(char[] cbuf, int off, int len) throws IOException {
             w.write(cbuf, off, len);
         }
+
+        // pass the serializer's output through without copying it
+
+        @Override
+        public void write(int c) throws IOException {
+            w.write(c);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            w.write(str, off, len);
+        }
     }
 
     // *********************************************************************
@@ -319,14 +396,24 @@ public abstract class TransformSupport extends BodyTagSupport {
 
     /** Lets us resolve relative external entities. */
     private static class JstlUriResolver implements URIResolver {
-        private final PageContext ctx;
+        private PageContext ctx;
+        private final TemplatesCache.Dependencies dependencies;
 
-        public JstlUriResolver(PageContext ctx) {
+        public JstlUriResolver(PageContext ctx, TemplatesCache.Dependencies dependencies) {
             this.ctx = ctx;
+            this.dependencies = dependencies;
+        }
+
+        /** Stops resolving against the page, which may be reused once the tag is done. */
+        void detach() {
+            ctx = null;
         }
 
         @Override
         public Source resolve(String href, String base) throws TransformerException {
+            if (ctx == null) {
+                return null;
+            }
 
             // pass if we don't have a systemId
             if (href == null) {
@@ -343,6 +430,9 @@ public abstract class TransformSupport extends BodyTagSupport {
 
             // we're only concerned with relative URLs
             if (ImportSupport.isAbsoluteUrl(href) || (base != null && ImportSupport.isAbsoluteUrl(base))) {
+                if (dependencies != null) {
+                    dependencies.addUrl(ImportSupport.isAbsoluteUrl(href) ? null : base, href);
+                }
                 return null;
             }
 
@@ -359,19 +449,17 @@ public abstract class TransformSupport extends BodyTagSupport {
             // for relative URLs, load and wrap the resource.
             // don't bother checking for 'null' since we specifically want
             // the parser to fail if the resource doesn't exist
-            InputStream s;
-            if (target.startsWith("/")) {
-                s = ctx.getServletContext().getResourceAsStream(target);
-                if (s == null) {
-                    throw new TransformerException(Resources.getMessage("UNABLE_TO_RESOLVE_ENTITY", href));
-                }
-            } else {
+            if (!target.startsWith("/")) {
                 String pagePath = ((HttpServletRequest) ctx.getRequest()).getServletPath();
                 String basePath = pagePath.substring(0, pagePath.lastIndexOf("/"));
-                s = ctx.getServletContext().getResourceAsStream(basePath + "/" + target);
-                if (s == null) {
-                    throw new TransformerException(Resources.getMessage("UNABLE_TO_RESOLVE_ENTITY", href));
-                }
+                target = basePath + "/" + target;
+            }
+            InputStream s = ctx.getServletContext().getResourceAsStream(target);
+            if (s == null) {
+                throw new TransformerException(Resources.getMessage("UNABLE_TO_RESOLVE_ENTITY", href));
+            }
+            if (dependencies != null) {
+                dependencies.addResource(ctx.getServletContext(), target);
             }
             return new StreamSource(s);
         }
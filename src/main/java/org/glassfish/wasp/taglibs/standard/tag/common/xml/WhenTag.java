@@ -53,7 +53,7 @@ public class WhenTag extends WhenTagSupport {
     @Override
     protected boolean condition() throws JspTagException {
         XPathUtil xu = new XPathUtil(pageContext);
-        return (xu.booleanValueOf(XPathUtil.getContext(this), select));
+        return (xu.booleanValueOf(XPathUtil.getEvaluationContext(this), select));
     }
 
     // *********************************************************************
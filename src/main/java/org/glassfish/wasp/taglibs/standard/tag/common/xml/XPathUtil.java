@@ -20,6 +20,7 @@
 package org.glassfish.wasp.taglibs.standard.tag.common.xml;
 
 import java.util.List;
+import java.util.Vector;
 
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
@@ -28,8 +29,10 @@ import javax.xml.xpath.XPathFactory;
 import javax.xml.xpath.XPathVariableResolver;
 
 import org.glassfish.wasp.taglibs.standard.resources.Resources;
+import org.w3c.dom.DOMImplementation;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
 
 import jakarta.servlet.jsp.JspTagException;
 import jakarta.servlet.jsp.PageContext;
@@ -59,6 +62,15 @@ public class XPathUtil {
     private static final XPathFactory XPATH_FACTORY = new JSTLXPathFactory();
     private static final JSTLXPathNamespaceContext JSTL_XPATH_NS_CTX = initXPathNamespaceContext();
 
+    private static final DOMImplementation DOM_IMPLEMENTATION = DocumentBuilderProvider.createDocumentBuilder().getDOMImplementation();
+
+    /*
+     * The context of the expressions that the tags of this package evaluate outside <x:forEach>. The DOM is not
+     * thread-safe even for reads, so each thread has its own; selectNodes() and selectSingleNode() hand out a new empty
+     * document whenever a selection would expose it.
+     */
+    private static final ThreadLocal<Document> EMPTY_DOCUMENT = ThreadLocal.withInitial(XPathUtil::newEmptyDocument);
+
     private final PageContext pageContext;
 
     /**
@@ -105,6 +117,9 @@ public class XPathUtil {
             xpath.setNamespaceContext(JSTL_XPATH_NS_CTX);
             xpath.setXPathVariableResolver(new JSTLXPathVariableResolver(pageContext));
             Object nl = xpath.evaluate(xpathString, contextNode, JSTLXPathConstants.OBJECT);
+            if (contextNode == EMPTY_DOCUMENT.get()) {
+                return detachEmptyDocument(nl, contextNode);
+            }
             return new JSTLNodeList(nl);
         } catch (XPathExpressionException ex) {
             throw new JspTagException(ex.toString(), ex);
@@ -120,12 +135,20 @@ public class XPathUtil {
             XPath xpath = XPATH_FACTORY.newXPath();
             xpath.setNamespaceContext(JSTL_XPATH_NS_CTX);
             xpath.setXPathVariableResolver(jxvr);
-            return (Node) xpath.evaluate(xpathString, contextNode, XPathConstants.NODE);
+            Node node = (Node) xpath.evaluate(xpathString, contextNode, XPathConstants.NODE);
+            if (node != null && node == EMPTY_DOCUMENT.get()) {
+                return newEmptyDocument();
+            }
+            return node;
         } catch (XPathExpressionException ex) {
             throw new JspTagException(ex.toString(), ex);
         }
     }
 
+    /**
+     * Returns the context node of the expressions of the given tag: the current node of the enclosing &lt;x:forEach&gt;,
+     * or else a new empty document.
+     */
     public static Node getContext(Tag t) throws JspTagException {
         ForEachTag xt = (ForEachTag) TagSupport.findAncestorWithClass(t, ForEachTag.class);
         if (xt == null) {
@@ -134,6 +157,18 @@ public class XPathUtil {
         return xt.getContext();
     }
 
+    /*
+     * Like getContext(Tag), but outside <x:forEach> returns the empty document of the current thread, which must only be
+     * passed to the evaluation methods of this class.
+     */
+    static Node getEvaluationContext(Tag t) throws JspTagException {
+        ForEachTag xt = (ForEachTag) TagSupport.findAncestorWithClass(t, ForEachTag.class);
+        if (xt == null) {
+            return EMPTY_DOCUMENT.get();
+        }
+        return xt.getContext();
+    }
+
     /**
      * Initialize globally useful data.
      */
@@ -152,14 +187,30 @@ public class XPathUtil {
     }
 
     /**
-     * Create a new empty document.
-     *
-     * This method always allocates a new document as its root node might be exposed to other tags and potentially be
-     * mutated.
+     * Replaces the shared empty document in the result of an expression evaluated against it, as the result might be
+     * exposed to other tags and potentially be mutated.
+     */
+    private static JSTLNodeList detachEmptyDocument(Object nl, Node emptyDocument) {
+        if (nl == emptyDocument) {
+            return new JSTLNodeList(newEmptyDocument());
+        }
+        if (nl instanceof NodeList nodes) {
+            Vector<Object> nodeVector = new Vector<>(nodes.getLength());
+            for (int i = 0; i < nodes.getLength(); i++) {
+                Node node = nodes.item(i);
+                nodeVector.add(node == emptyDocument ? newEmptyDocument() : node);
+            }
+            return new JSTLNodeList(nodeVector);
+        }
+        return new JSTLNodeList(nl);
+    }
+
+    /**
+     * Create a new empty document without going through a DocumentBuilder.
      *
      * @return a new empty document
      */
     private static Document newEmptyDocument() {
-        return DocumentBuilderProvider.createDocumentBuilder().newDocument();
+        return DOM_IMPLEMENTATION.createDocument(null, null, null);
     }
 }
@@ -20,7 +20,6 @@ package org.glassfish.wasp.taglibs.standard.tag.el.xml;
 import org.glassfish.wasp.taglibs.standard.tag.common.core.NullAttributeException;
 import org.glassfish.wasp.taglibs.standard.tag.common.xml.ParseSupport;
 import org.glassfish.wasp.taglibs.standard.tag.el.core.ExpressionUtil;
-import org.xml.sax.XMLFilter;
 
 import jakarta.servlet.jsp.JspException;
 
@@ -110,7 +109,7 @@ public class ParseTag extends ParseSupport {
         systemId = (String) ExpressionUtil.evalNotNull("parse", "systemId", systemId_, String.class, this, pageContext);
 
         try {
-            filter = (XMLFilter) ExpressionUtil.evalNotNull("parse", "filter", filter_, XMLFilter.class, this, pageContext);
+            filter = getFilter(ExpressionUtil.evalNotNull("parse", "filter", filter_, Object.class, this, pageContext));
         } catch (NullAttributeException ex) {
             // explicitly let 'filter' be null
             filter = null;
@@ -63,6 +63,14 @@ public class QueryTag extends QueryTagSupport {
         this.maxRowsSpecified = true;
     }
 
+    /**
+     * A positive fetchSize makes the rows of the result be read from the database as they are iterated over, that many
+     * at a time, instead of being copied up front.
+     */
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
     /**
      * Setter method for the SQL statement to use for the query. The statement may contain parameter markers (question
      * marks, ?). If so, the parameter values must be set using nested value elements.
@@ -43,6 +43,13 @@ public class TransactionTag extends TransactionTagSupport {
         this.dataSourceSpecified = true;
     }
 
+    /**
+     * Setter method for the number of nested updates executed together as a batch; 0, the default, disables batching.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
     /**
      * Setter method for the Transaction Isolation level.
      */
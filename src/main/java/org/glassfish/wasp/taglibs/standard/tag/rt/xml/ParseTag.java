@@ -18,6 +18,7 @@
 package org.glassfish.wasp.taglibs.standard.tag.rt.xml;
 
 import org.glassfish.wasp.taglibs.standard.tag.common.xml.ParseSupport;
+
 import org.xml.sax.XMLFilter;
 
 import jakarta.servlet.jsp.JspTagException;
@@ -49,9 +50,13 @@ public class ParseTag extends ParseSupport {
         this.systemId = systemId;
     }
 
-    // for tag attribute
     public void setFilter(XMLFilter filter) throws JspTagException {
         this.filter = filter;
     }
 
+    // for tag attribute (see ParseTagBeanInfo); either an XMLFilter or an SPath expression
+    public void setFilter(Object filter) throws JspTagException {
+        this.filter = getFilter(filter);
+    }
+
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2026 Contributors to Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.glassfish.wasp.taglibs.standard.tag.rt.xml;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.beans.SimpleBeanInfo;
+
+import org.glassfish.wasp.taglibs.standard.tag.common.xml.ParseSupport;
+
+/**
+ * Bean information for &lt;parse&gt;. Plain introspection would pick <code>setFilter(XMLFilter)</code> as the setter of
+ * the 'filter' attribute; the tag uses <code>setFilter(Object)</code> instead, so that the attribute accepts an SPath
+ * expression as well as an XMLFilter.
+ */
+public class ParseTagBeanInfo extends SimpleBeanInfo {
+
+    @Override
+    public BeanInfo[] getAdditionalBeanInfo() {
+        // the attributes ParseTag inherits
+        try {
+            return new BeanInfo[] { Introspector.getBeanInfo(ParseSupport.class) };
+        } catch (IntrospectionException ex) {
+            return null;
+        }
+    }
+
+    @Override
+    public PropertyDescriptor[] getPropertyDescriptors() {
+        try {
+            return new PropertyDescriptor[] {
+                new PropertyDescriptor("xml", null, ParseTag.class.getMethod("setXml", Object.class)),
+                new PropertyDescriptor("doc", null, ParseTag.class.getMethod("setDoc", Object.class)),
+                new PropertyDescriptor("systemId", null, ParseTag.class.getMethod("setSystemId", String.class)),
+                new PropertyDescriptor("filter", null, ParseTag.class.getMethod("setFilter", Object.class)) };
+        } catch (IntrospectionException | NoSuchMethodException ex) {
+            // fall back to plain introspection
+            return null;
+        }
+    }
+}
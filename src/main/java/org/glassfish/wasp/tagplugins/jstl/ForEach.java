@@ -22,15 +22,16 @@ import org.glassfish.wasp.compiler.tagplugin.TagPluginContext;
 
 public final class ForEach implements TagPlugin {
 
-    private boolean hasVar, hasBegin, hasEnd, hasStep;
+    private static final String STATUS_CLASS = "_jspx_ForEachStatus";
+    private static final String TO_ITERATOR = "_jspx_forEachIterator";
+
+    private boolean hasVar, hasBegin, hasEnd, hasStep, hasVarStatus;
 
     @Override
     public void doTag(TagPluginContext ctxt) {
 
-        String index;
-
-        boolean hasVarStatus = ctxt.isAttributeSpecified("varStatus");
-        if (hasVarStatus) {
+        // Deferred items need the VariableMapper bookkeeping done by the tag handler
+        if (ctxt.isDeferredAttribute("items")) {
             ctxt.dontUseTagPlugin();
             return;
         }
@@ -40,218 +41,226 @@ public final class ForEach implements TagPlugin {
         hasEnd = ctxt.isAttributeSpecified("end");
         hasStep = ctxt.isAttributeSpecified("step");
 
-        boolean hasItems = ctxt.isAttributeSpecified("items");
-        if (hasItems) {
-            doCollection(ctxt);
-            return;
+        // Only keep the status up to date if the body can read it
+        hasVarStatus = ctxt.isAttributeSpecified("varStatus");
+        if (hasVarStatus && ctxt.isConstantAttribute("varStatus")) {
+            hasVarStatus = ctxt.isReferencedInBody(ctxt.getConstantAttribute("varStatus"));
+        }
+
+        String beginV = ctxt.getTemporaryVariableName();
+        ctxt.generateJavaSource("int " + beginV + " = ");
+        if (hasBegin) {
+            ctxt.generateAttribute("begin");
+        } else {
+            ctxt.generateJavaSource("0");
+        }
+        ctxt.generateJavaSource(";");
+        if (hasBegin) {
+            generateCheck(ctxt, beginV + " < 0", "'begin' < 0");
+        }
+
+        String endV = ctxt.getTemporaryVariableName();
+        ctxt.generateJavaSource("int " + endV + " = ");
+        if (hasEnd) {
+            ctxt.generateAttribute("end");
+        } else {
+            ctxt.generateJavaSource("Integer.MAX_VALUE");
+        }
+        ctxt.generateJavaSource(";");
+        if (hasEnd) {
+            generateCheck(ctxt, endV + " < 0", "'end' < 0");
         }
 
-        // We must have a begin and end attributes
-        index = ctxt.getTemporaryVariableName();
-        ctxt.generateJavaSource("for (int " + index + " = ");
-        ctxt.generateAttribute("begin");
-        ctxt.generateJavaSource("; " + index + " <= ");
-        ctxt.generateAttribute("end");
+        String stepV = ctxt.getTemporaryVariableName();
+        ctxt.generateJavaSource("int " + stepV + " = ");
         if (hasStep) {
-            ctxt.generateJavaSource("; " + index + "+=");
             ctxt.generateAttribute("step");
-            ctxt.generateJavaSource(") {");
         } else {
-            ctxt.generateJavaSource("; " + index + "++) {");
+            ctxt.generateJavaSource("1");
+        }
+        ctxt.generateJavaSource(";");
+        if (hasStep) {
+            generateCheck(ctxt, stepV + " < 1", "'step' <= 0");
         }
 
-        // If var is specified and the body contains an EL, then sycn
-        // the var attribute
-        if (hasVar /* && ctxt.hasEL() */) {
+        String statusV = null;
+        if (hasVarStatus) {
+            generateStatusClass(ctxt);
+            statusV = ctxt.getTemporaryVariableName();
+            ctxt.generateJavaSource(STATUS_CLASS + " " + statusV + " = new " + STATUS_CLASS + "(" + (hasBegin ? "Integer.valueOf(" + beginV + ")" : "null") + ", "
+                    + (hasEnd ? "Integer.valueOf(" + endV + ")" : "null") + ", " + (hasStep ? "Integer.valueOf(" + stepV + ")" : "null") + ");");
             ctxt.generateJavaSource("_jspx_page_context.setAttribute(");
+            ctxt.generateAttribute("varStatus");
+            ctxt.generateJavaSource(", " + statusV + ");");
+        }
+
+        if (ctxt.isAttributeSpecified("items")) {
+            doCollection(ctxt, beginV, endV, stepV, statusV);
+        } else {
+            doRange(ctxt, beginV, endV, stepV, statusV);
+        }
+
+        // Like the tag handler, remove the variables once the loop is done
+        if (hasVar) {
+            ctxt.generateJavaSource("_jspx_page_context.removeAttribute(");
             ctxt.generateAttribute("var");
-            ctxt.generateJavaSource(", String.valueOf(" + index + "));");
+            ctxt.generateJavaSource(", PageContext.PAGE_SCOPE);");
         }
+        if (hasVarStatus) {
+            ctxt.generateJavaSource("_jspx_page_context.removeAttribute(");
+            ctxt.generateAttribute("varStatus");
+            ctxt.generateJavaSource(", PageContext.PAGE_SCOPE);");
+        }
+    }
+
+    /**
+     * Generate codes for iterating over the indices from begin to end.
+     */
+    private void doRange(TagPluginContext ctxt, String beginV, String endV, String stepV, String statusV) {
+
+        String indexV = ctxt.getTemporaryVariableName();
+        ctxt.generateJavaSource("for (int " + indexV + " = " + beginV + "; " + indexV + " <= " + endV + "; " + indexV + " += " + stepV + ") {");
+
+        String currentV = ctxt.getTemporaryVariableName();
+        ctxt.generateJavaSource("Integer " + currentV + " = Integer.valueOf(" + indexV + ");");
+        generateExpose(ctxt, currentV, indexV, statusV, "(long) " + indexV + " + " + stepV + " > " + endV);
+
         ctxt.generateBody();
+        ctxt.generateJavaSource("if (" + indexV + " > " + endV + " - " + stepV + ") break;");
         ctxt.generateJavaSource("}");
     }
 
     /**
-     * Generate codes for Collections The pseudo code is:
+     * Generate codes for iterating over the items, mirroring the way LoopTagSupport applies begin, end and step.
      */
-    private void doCollection(TagPluginContext ctxt) {
+    private void doCollection(TagPluginContext ctxt, String beginV, String endV, String stepV, String statusV) {
 
-        ctxt.generateImport("java.util.*");
-        generateIterators(ctxt);
+        generateIteratorFactory(ctxt);
 
         String itemsV = ctxt.getTemporaryVariableName();
-        ctxt.generateJavaSource("Object " + itemsV + "= ");
+        ctxt.generateJavaSource("Object " + itemsV + " = ");
         ctxt.generateAttribute("items");
         ctxt.generateJavaSource(";");
 
-        String indexV = null, beginV = null, endV = null, stepV = null;
-        if (hasBegin) {
-            beginV = ctxt.getTemporaryVariableName();
-            ctxt.generateJavaSource("int " + beginV + " = ");
-            ctxt.generateAttribute("begin");
-            ctxt.generateJavaSource(";");
-        }
-        if (hasEnd) {
-            indexV = ctxt.getTemporaryVariableName();
-            ctxt.generateJavaSource("int " + indexV + " = 0;");
-            endV = ctxt.getTemporaryVariableName();
-            ctxt.generateJavaSource("int " + endV + " = ");
-            ctxt.generateAttribute("end");
-            ctxt.generateJavaSource(";");
-        }
-        if (hasStep) {
-            stepV = ctxt.getTemporaryVariableName();
-            ctxt.generateJavaSource("int " + stepV + " = ");
-            ctxt.generateAttribute("step");
-            ctxt.generateJavaSource(";");
-        }
-
         String iterV = ctxt.getTemporaryVariableName();
-        ctxt.generateJavaSource("Iterator " + iterV + " = null;");
-        // Object[]
-        ctxt.generateJavaSource("if (" + itemsV + " instanceof Object[])");
-        ctxt.generateJavaSource(iterV + "=toIterator((Object[])" + itemsV + ");");
-        // boolean[]
-        ctxt.generateJavaSource("else if (" + itemsV + " instanceof boolean[])");
-        ctxt.generateJavaSource(iterV + "=toIterator((boolean[])" + itemsV + ");");
-        // byte[]
-        ctxt.generateJavaSource("else if (" + itemsV + " instanceof byte[])");
-        ctxt.generateJavaSource(iterV + "=toIterator((byte[])" + itemsV + ");");
-        // char[]
-        ctxt.generateJavaSource("else if (" + itemsV + " instanceof char[])");
-        ctxt.generateJavaSource(iterV + "=toIterator((char[])" + itemsV + ");");
-        // short[]
-        ctxt.generateJavaSource("else if (" + itemsV + " instanceof short[])");
-        ctxt.generateJavaSource(iterV + "=toIterator((short[])" + itemsV + ");");
-        // int[]
-        ctxt.generateJavaSource("else if (" + itemsV + " instanceof int[])");
-        ctxt.generateJavaSource(iterV + "=toIterator((int[])" + itemsV + ");");
-        // long[]
-        ctxt.generateJavaSource("else if (" + itemsV + " instanceof long[])");
-        ctxt.generateJavaSource(iterV + "=toIterator((long[])" + itemsV + ");");
-        // float[]
-        ctxt.generateJavaSource("else if (" + itemsV + " instanceof float[])");
-        ctxt.generateJavaSource(iterV + "=toIterator((float[])" + itemsV + ");");
-        // double[]
-        ctxt.generateJavaSource("else if (" + itemsV + " instanceof double[])");
-        ctxt.generateJavaSource(iterV + "=toIterator((double[])" + itemsV + ");");
-
-        // Collection
-        ctxt.generateJavaSource("else if (" + itemsV + " instanceof Collection)");
-        ctxt.generateJavaSource(iterV + "=((Collection)" + itemsV + ").iterator();");
-
-        // Iterator
-        ctxt.generateJavaSource("else if (" + itemsV + " instanceof Iterator)");
-        ctxt.generateJavaSource(iterV + "=(Iterator)" + itemsV + ";");
-
-        // Enumeration
-        ctxt.generateJavaSource("else if (" + itemsV + " instanceof Enumeration)");
-        ctxt.generateJavaSource(iterV + "=toIterator((Enumeration)" + itemsV + ");");
-
-        // Map
-        ctxt.generateJavaSource("else if (" + itemsV + " instanceof Map)");
-        ctxt.generateJavaSource(iterV + "=((Map)" + itemsV + ").entrySet().iterator();");
+        ctxt.generateJavaSource("java.util.Iterator " + iterV + " = " + TO_ITERATOR + "(" + itemsV + ");");
 
-        if (hasBegin) {
-            String tV = ctxt.getTemporaryVariableName();
-            ctxt.generateJavaSource("for (int " + tV + "=" + beginV + ";" + tV + ">0 && " + iterV + ".hasNext(); " + tV + "--)");
-            ctxt.generateJavaSource(iterV + ".next();");
-        }
+        // Like the tag handler's doFinally(), close a Stream however the loop ends
+        ctxt.generateJavaSource("try {");
 
-        ctxt.generateJavaSource("while (" + iterV + ".hasNext()){");
-        if (hasVar) {
-            ctxt.generateJavaSource("_jspx_page_context.setAttribute(");
-            ctxt.generateAttribute("var");
-            ctxt.generateJavaSource(", " + iterV + ".next());");
-        }
+        // Skip to begin
+        String tV = ctxt.getTemporaryVariableName();
+        ctxt.generateJavaSource("for (int " + tV + " = " + beginV + "; " + tV + " > 0 && " + iterV + ".hasNext(); " + tV + "--) " + iterV + ".next();");
+
+        String indexV = ctxt.getTemporaryVariableName();
+        ctxt.generateJavaSource("for (int " + indexV + " = " + beginV + "; " + indexV + " <= " + endV + " && " + iterV + ".hasNext(); " + indexV + " += "
+                + stepV + ") {");
+
+        String currentV = ctxt.getTemporaryVariableName();
+        ctxt.generateJavaSource("Object " + currentV + " = " + iterV + ".next();");
+
+        // Drop the items between this one and the next, without reading past end
+        tV = ctxt.getTemporaryVariableName();
+        ctxt.generateJavaSource("for (int " + tV + " = 1; " + tV + " < " + stepV + " && " + indexV + " + " + tV + " <= " + endV + " && " + iterV + ".hasNext(); "
+                + tV + "++) " + iterV + ".next();");
+
+        generateExpose(ctxt, currentV, indexV, statusV, "!" + iterV + ".hasNext() || (long) " + indexV + " + " + stepV + " > " + endV);
 
         ctxt.generateBody();
+        ctxt.generateJavaSource("if (" + indexV + " > " + endV + " - " + stepV + ") break;");
+        ctxt.generateJavaSource("}");
 
-        if (hasStep) {
-            String tV = ctxt.getTemporaryVariableName();
-            ctxt.generateJavaSource("for (int " + tV + "=" + stepV + "-1;" + tV + ">0 && " + iterV + ".hasNext(); " + tV + "--)");
-            ctxt.generateJavaSource(iterV + ".next();");
+        ctxt.generateJavaSource("} finally {");
+        ctxt.generateJavaSource("if (" + itemsV + " instanceof java.util.stream.BaseStream) ((java.util.stream.BaseStream) " + itemsV + ").close();");
+        ctxt.generateJavaSource("}");
+    }
+
+    /**
+     * Generate codes that fail like the validation in LoopTagSupport, which the tag handler runs as the attribute is
+     * set.
+     */
+    private void generateCheck(TagPluginContext ctxt, String condition, String message) {
+        ctxt.generateJavaSource("if (" + condition + ") throw new JspTagException(\"" + message + "\");");
+    }
+
+    /**
+     * Generate codes that expose the current item and, if needed, the loop status.
+     */
+    private void generateExpose(TagPluginContext ctxt, String currentV, String indexV, String statusV, String lastCondition) {
+        if (hasVar) {
+            ctxt.generateJavaSource("_jspx_page_context.setAttribute(");
+            ctxt.generateAttribute("var");
+            ctxt.generateJavaSource(", " + currentV + ");");
         }
-        if (hasEnd) {
-            if (hasStep) {
-                ctxt.generateJavaSource(indexV + "+=" + stepV + ";");
-            } else {
-                ctxt.generateJavaSource(indexV + "++;");
-            }
-            if (hasBegin) {
-                ctxt.generateJavaSource("if(" + beginV + "+" + indexV + ">" + endV + ")");
-            } else {
-                ctxt.generateJavaSource("if(" + indexV + ">" + endV + ")");
-            }
-            ctxt.generateJavaSource("break;");
+        if (statusV != null) {
+            ctxt.generateJavaSource(statusV + ".current = " + currentV + ";");
+            ctxt.generateJavaSource(statusV + ".index = " + indexV + ";");
+            ctxt.generateJavaSource(statusV + ".count++;");
+            ctxt.generateJavaSource(statusV + ".last = " + lastCondition + ";");
         }
-        ctxt.generateJavaSource("}"); // while
     }
 
     /**
-     * Generate iterators for data types supported in items
+     * Generate a method that returns an Iterator over any of the types supported in items. Primitives are boxed as they
+     * are returned.
      */
-    private void generateIterators(TagPluginContext ctxt) {
-
-        // Object[]
-        ctxt.generateDeclaration("ObjectArrayIterator",
-                "private Iterator toIterator(final Object[] a){\n" + "  return (new Iterator() {\n" + "    int index=0;\n" + "    public boolean hasNext() {\n"
-                        + "      return index < a.length;}\n" + "    public Object next() {\n" + "      return a[index++];}\n" + "    public void remove() {}\n"
-                        + "  });\n" + "}");
-
-        // boolean[]
-        ctxt.generateDeclaration("booleanArrayIterator",
-                "private Iterator toIterator(final boolean[] a){\n" + "  return (new Iterator() {\n" + "    int index=0;\n" + "    public boolean hasNext() {\n"
-                        + "      return index < a.length;}\n" + "    public Object next() {\n" + "      return new Boolean(a[index++]);}\n"
-                        + "    public void remove() {}\n" + "  });\n" + "}");
-
-        // byte[]
-        ctxt.generateDeclaration("byteArrayIterator",
-                "private Iterator toIterator(final byte[] a){\n" + "  return (new Iterator() {\n" + "    int index=0;\n" + "    public boolean hasNext() {\n"
-                        + "      return index < a.length;}\n" + "    public Object next() {\n" + "      return new Byte(a[index++]);}\n"
-                        + "    public void remove() {}\n" + "  });\n" + "}");
-
-        // char[]
-        ctxt.generateDeclaration("charArrayIterator",
-                "private Iterator toIterator(final char[] a){\n" + "  return (new Iterator() {\n" + "    int index=0;\n" + "    public boolean hasNext() {\n"
-                        + "      return index < a.length;}\n" + "    public Object next() {\n" + "      return new Character(a[index++]);}\n"
-                        + "    public void remove() {}\n" + "  });\n" + "}");
-
-        // short[]
-        ctxt.generateDeclaration("shortArrayIterator",
-                "private Iterator toIterator(final short[] a){\n" + "  return (new Iterator() {\n" + "    int index=0;\n" + "    public boolean hasNext() {\n"
-                        + "      return index < a.length;}\n" + "    public Object next() {\n" + "      return new Short(a[index++]);}\n"
-                        + "    public void remove() {}\n" + "  });\n" + "}");
-
-        // int[]
-        ctxt.generateDeclaration("intArrayIterator",
-                "private Iterator toIterator(final int[] a){\n" + "  return (new Iterator() {\n" + "    int index=0;\n" + "    public boolean hasNext() {\n"
-                        + "      return index < a.length;}\n" + "    public Object next() {\n" + "      return new Integer(a[index++]);}\n"
-                        + "    public void remove() {}\n" + "  });\n" + "}");
-
-        // long[]
-        ctxt.generateDeclaration("longArrayIterator",
-                "private Iterator toIterator(final long[] a){\n" + "  return (new Iterator() {\n" + "    int index=0;\n" + "    public boolean hasNext() {\n"
-                        + "      return index < a.length;}\n" + "    public Object next() {\n" + "      return new Long(a[index++]);}\n"
-                        + "    public void remove() {}\n" + "  });\n" + "}");
-
-        // float[]
-        ctxt.generateDeclaration("floatArrayIterator",
-                "private Iterator toIterator(final float[] a){\n" + "  return (new Iterator() {\n" + "    int index=0;\n" + "    public boolean hasNext() {\n"
-                        + "      return index < a.length;}\n" + "    public Object next() {\n" + "      return new Float(a[index++]);}\n"
-                        + "    public void remove() {}\n" + "  });\n" + "}");
-
-        // double[]
-        ctxt.generateDeclaration("doubleArrayIterator",
-                "private Iterator toIterator(final double[] a){\n" + "  return (new Iterator() {\n" + "    int index=0;\n" + "    public boolean hasNext() {\n"
-                        + "      return index < a.length;}\n" + "    public Object next() {\n" + "      return new Double(a[index++]);}\n"
-                        + "    public void remove() {}\n" + "  });\n" + "}");
-
-        // Enumeration
-        ctxt.generateDeclaration("enumIterator",
-                "private Iterator toIterator(final Enumeration e){\n" + "  return (new Iterator() {\n" + "    public boolean hasNext() {\n"
-                        + "      return e.hasMoreElements();}\n" + "    public Object next() {\n" + "      return e.nextElement();}\n"
-                        + "    public void remove() {}\n" + "  });\n" + "}");
+    private void generateIteratorFactory(TagPluginContext ctxt) {
+        ctxt.generateDeclaration("ForEachIterator",
+                "private static java.util.Iterator " + TO_ITERATOR + "(final Object items) throws JspTagException {\n"
+                        + "  if (items == null)\n"
+                        + "    return java.util.Collections.emptyIterator();\n"
+                        + "  if (items instanceof Object[])\n"
+                        + "    return java.util.Arrays.asList((Object[]) items).iterator();\n"
+                        + "  if (items instanceof java.util.Collection)\n"
+                        + "    return ((java.util.Collection) items).iterator();\n"
+                        + "  if (items instanceof java.util.Iterator)\n"
+                        + "    return (java.util.Iterator) items;\n"
+                        + "  if (items instanceof java.util.Enumeration)\n"
+                        + "    return ((java.util.Enumeration) items).asIterator();\n"
+                        + "  if (items instanceof java.util.Map)\n"
+                        + "    return ((java.util.Map) items).entrySet().iterator();\n"
+                        + "  if (items instanceof String)\n"
+                        + "    return new java.util.StringTokenizer((String) items, \",\").asIterator();\n"
+                        + "  if (items instanceof java.util.stream.BaseStream)\n"
+                        + "    return ((java.util.stream.BaseStream) items).iterator();\n"
+                        + "  if (items instanceof Iterable)\n"
+                        + "    return ((Iterable) items).iterator();\n"
+                        + "  if (items instanceof java.util.Spliterator)\n"
+                        + "    return java.util.Spliterators.iterator((java.util.Spliterator) items);\n"
+                        + "  if (items.getClass().isArray()) {\n"
+                        + "    final int length = java.lang.reflect.Array.getLength(items);\n"
+                        + "    return new java.util.Iterator() {\n"
+                        + "      int index = 0;\n"
+                        + "      public boolean hasNext() {\n"
+                        + "        return index < length;}\n"
+                        + "      public Object next() {\n"
+                        + "        return java.lang.reflect.Array.get(items, index++);}\n"
+                        + "    };\n"
+                        + "  }\n"
+                        + "  throw new JspTagException(org.glassfish.wasp.taglibs.standard.resources.Resources.getMessage(\"FOREACH_BAD_ITEMS\"));\n"
+                        + "}");
+    }
 
+    /**
+     * Generate a LoopTagStatus whose fields are updated in place by the generated loop.
+     */
+    private void generateStatusClass(TagPluginContext ctxt) {
+        ctxt.generateDeclaration("ForEachStatus",
+                "private static final class " + STATUS_CLASS + " implements jakarta.servlet.jsp.jstl.core.LoopTagStatus {\n"
+                        + "  private final Integer begin, end, step;\n"
+                        + "  Object current;\n"
+                        + "  int index, count;\n"
+                        + "  boolean last;\n"
+                        + "  " + STATUS_CLASS + "(Integer begin, Integer end, Integer step) {\n"
+                        + "    this.begin = begin; this.end = end; this.step = step;}\n"
+                        + "  public Object getCurrent() { return current; }\n"
+                        + "  public int getIndex() { return index; }\n"
+                        + "  public int getCount() { return count; }\n"
+                        + "  public boolean isFirst() { return count == 1; }\n"
+                        + "  public boolean isLast() { return last; }\n"
+                        + "  public Integer getBegin() { return begin; }\n"
+                        + "  public Integer getEnd() { return end; }\n"
+                        + "  public Integer getStep() { return step; }\n"
+                        + "}");
     }
 }
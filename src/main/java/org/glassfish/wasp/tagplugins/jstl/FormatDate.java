@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2026 Contributors to Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.wasp.tagplugins.jstl;
+
+import org.glassfish.wasp.compiler.tagplugin.TagPlugin;
+import org.glassfish.wasp.compiler.tagplugin.TagPluginContext;
+
+/**
+ * Generates inline code for &lt;fmt:formatDate&gt;, which formats through the formatter cache in
+ * <code>Formatters</code>.
+ *
+ * <p>
+ * A tag inside a &lt;fmt:bundle&gt; or &lt;fmt:timeZone&gt; is left to the tag handler, which takes its locale or time
+ * zone from that tag.
+ */
+public final class FormatDate implements TagPlugin {
+
+    private static final String FORMATTERS = "org.glassfish.wasp.taglibs.standard.tag.common.fmt.Formatters";
+    private static final String BUNDLE_SUPPORT = "org.glassfish.wasp.taglibs.standard.tag.common.fmt.BundleSupport";
+    private static final String TIME_ZONE_SUPPORT = "org.glassfish.wasp.taglibs.standard.tag.common.fmt.TimeZoneSupport";
+
+    @Override
+    public void doTag(TagPluginContext ctxt) {
+        if (ctxt.isNestedInTag(BUNDLE_SUPPORT) || ctxt.isNestedInTag(TIME_ZONE_SUPPORT)) {
+            ctxt.dontUseTagPlugin();
+            return;
+        }
+
+        String valueV = PluginUtil.generateAttributeVariable(ctxt, "java.util.Date", "value");
+        String typeV = PluginUtil.generateAttributeVariable(ctxt, "String", "type");
+        String dateStyleV = PluginUtil.generateAttributeVariable(ctxt, "String", "dateStyle");
+        String timeStyleV = PluginUtil.generateAttributeVariable(ctxt, "String", "timeStyle");
+        String patternV = PluginUtil.generateAttributeVariable(ctxt, "String", "pattern");
+        String timeZoneV = PluginUtil.generateAttributeVariable(ctxt, "Object", "timeZone");
+        ctxt.generateBody();
+
+        ctxt.generateJavaSource("if (" + valueV + " == null) {");
+        PluginUtil.generateRemoveVar(ctxt);
+        ctxt.generateJavaSource("} else {");
+        String formattedV = ctxt.getTemporaryVariableName();
+        ctxt.generateJavaSource("String " + formattedV + " = " + FORMATTERS + ".formatDate(_jspx_page_context, " + valueV + ", " + typeV + ", "
+                + dateStyleV + ", " + timeStyleV + ", " + patternV + ", " + timeZoneV + ");");
+        PluginUtil.generateExport(ctxt, formattedV);
+        ctxt.generateJavaSource("}");
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2026 Contributors to Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.wasp.tagplugins.jstl;
+
+import org.glassfish.wasp.compiler.tagplugin.TagPlugin;
+import org.glassfish.wasp.compiler.tagplugin.TagPluginContext;
+
+/**
+ * Generates inline code for &lt;fmt:formatNumber&gt;, which formats through the formatter cache in
+ * <code>Formatters</code>. The digit and grouping attributes that are not given on the tag are passed as
+ * <code>null</code>.
+ *
+ * <p>
+ * A tag inside a &lt;fmt:bundle&gt; is left to the tag handler, which takes its locale from that tag.
+ */
+public final class FormatNumber implements TagPlugin {
+
+    private static final String FORMATTERS = "org.glassfish.wasp.taglibs.standard.tag.common.fmt.Formatters";
+    private static final String BUNDLE_SUPPORT = "org.glassfish.wasp.taglibs.standard.tag.common.fmt.BundleSupport";
+
+    private static final String[][] FORMATTER_SETTINGS = {
+            { "groupingUsed", "boolean", "Boolean" },
+            { "maxIntegerDigits", "int", "Integer" },
+            { "minIntegerDigits", "int", "Integer" },
+            { "maxFractionDigits", "int", "Integer" },
+            { "minFractionDigits", "int", "Integer" } };
+
+    @Override
+    public void doTag(TagPluginContext ctxt) {
+        if (ctxt.isNestedInTag(BUNDLE_SUPPORT)) {
+            ctxt.dontUseTagPlugin();
+            return;
+        }
+
+        String inputV = PluginUtil.generateAttributeVariable(ctxt, "Object", "value");
+        String typeV = PluginUtil.generateAttributeVariable(ctxt, "String", "type");
+        String patternV = PluginUtil.generateAttributeVariable(ctxt, "String", "pattern");
+        String currencyCodeV = PluginUtil.generateAttributeVariable(ctxt, "String", "currencyCode");
+        String currencySymbolV = PluginUtil.generateAttributeVariable(ctxt, "String", "currencySymbol");
+        String[] settingVs = new String[FORMATTER_SETTINGS.length];
+        for (int i = 0; i < FORMATTER_SETTINGS.length; i++) {
+            settingVs[i] = PluginUtil.generateAttributeVariable(ctxt, FORMATTER_SETTINGS[i][1], FORMATTER_SETTINGS[i][0]);
+        }
+
+        if (ctxt.hasBody()) {
+            String bodyV = PluginUtil.generateBufferedBody(ctxt);
+            if (!ctxt.isAttributeSpecified("value")) {
+                inputV = bodyV + ".trim()";
+            }
+        } else {
+            ctxt.generateBody();
+        }
+
+        String valueV = ctxt.getTemporaryVariableName();
+        ctxt.generateJavaSource("Object " + valueV + " = " + inputV + ";");
+        ctxt.generateJavaSource("if (" + valueV + " == null || " + valueV + ".equals(\"\")) {");
+        PluginUtil.generateRemoveVar(ctxt);
+        ctxt.generateJavaSource("} else {");
+
+        StringBuilder call = new StringBuilder(FORMATTERS).append(".formatNumber(_jspx_page_context, ").append(valueV);
+        for (String attrV : new String[] { typeV, patternV, currencyCodeV, currencySymbolV }) {
+            call.append(", ").append(attrV);
+        }
+        for (int i = 0; i < FORMATTER_SETTINGS.length; i++) {
+            call.append(", ");
+            if ("null".equals(settingVs[i])) {
+                call.append("null");
+            } else {
+                call.append(FORMATTER_SETTINGS[i][2]).append(".valueOf(").append(settingVs[i]).append(")");
+            }
+        }
+        call.append(");");
+
+        String formattedV = ctxt.getTemporaryVariableName();
+        ctxt.generateJavaSource("String " + formattedV + " = " + call);
+        PluginUtil.generateExport(ctxt, formattedV);
+        ctxt.generateJavaSource("}");
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2026 Contributors to Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.wasp.tagplugins.jstl;
+
+import org.glassfish.wasp.compiler.tagplugin.TagPlugin;
+import org.glassfish.wasp.compiler.tagplugin.TagPluginContext;
+
+/**
+ * Generates inline code for &lt;fmt:message&gt;, looking the message up through <code>Formatters</code>, which
+ * resolves the default localization context once per page and caches compiled message formats. Nested
+ * &lt;fmt:param&gt; tags, handled by the {@link MessageParam} plugin, add their arguments to a local list.
+ *
+ * <p>
+ * A message inside a &lt;fmt:bundle&gt; is left to the tag handler, which gets its bundle and prefix from that tag.
+ */
+public final class Message implements TagPlugin {
+
+    static final String MESSAGE_PARAMS = "messageParams";
+
+    private static final String FORMATTERS = "org.glassfish.wasp.taglibs.standard.tag.common.fmt.Formatters";
+    private static final String BUNDLE_SUPPORT = "org.glassfish.wasp.taglibs.standard.tag.common.fmt.BundleSupport";
+    private static final String PARAM_TAG = "org.glassfish.wasp.taglibs.standard.tag.rt.fmt.ParamTag";
+
+    @Override
+    public void doTag(TagPluginContext ctxt) {
+        if (ctxt.isNestedInTag(BUNDLE_SUPPORT) || !ctxt.hasOnlyChildTags(PARAM_TAG)) {
+            ctxt.dontUseTagPlugin();
+            return;
+        }
+
+        String bundleV = PluginUtil.generateAttributeVariable(ctxt, "jakarta.servlet.jsp.jstl.fmt.LocalizationContext", "bundle");
+        String keyV = PluginUtil.generateAttributeVariable(ctxt, "String", "key");
+
+        String paramsV = null;
+        if (ctxt.hasBody()) {
+            paramsV = ctxt.getTemporaryVariableName();
+            ctxt.generateJavaSource("java.util.List<Object> " + paramsV + " = new java.util.ArrayList<>();");
+            ctxt.setPluginAttribute(MESSAGE_PARAMS, paramsV);
+
+            String bodyV = PluginUtil.generateBufferedBody(ctxt);
+            if (!ctxt.isAttributeSpecified("key")) {
+                keyV = bodyV + ".trim()";
+            }
+        } else {
+            ctxt.generateBody();
+        }
+
+        String messageV = ctxt.getTemporaryVariableName();
+        ctxt.generateJavaSource("String " + messageV + " = " + keyV + ";");
+        ctxt.generateJavaSource("if (" + messageV + " == null || " + messageV + ".equals(\"\")) {");
+        ctxt.generateJavaSource("out.print(\"??????\");");
+        ctxt.generateJavaSource("} else {");
+        ctxt.generateJavaSource(messageV + " = " + FORMATTERS + ".getMessage(_jspx_page_context, " + ("null".equals(bundleV) ? "" : bundleV + ", ")
+                + messageV + ", " + (paramsV == null ? "null" : paramsV + ".toArray()") + ");");
+        PluginUtil.generateExport(ctxt, messageV);
+        ctxt.generateJavaSource("}");
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2026 Contributors to Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.wasp.tagplugins.jstl;
+
+import org.glassfish.wasp.compiler.tagplugin.TagPlugin;
+import org.glassfish.wasp.compiler.tagplugin.TagPluginContext;
+
+/**
+ * Generates inline code for a &lt;fmt:param&gt; nested in a &lt;fmt:message&gt; handled by the {@link Message}
+ * plugin, adding the argument to the enclosing message's list. Anywhere else the tag handler is used.
+ */
+public final class MessageParam implements TagPlugin {
+
+    @Override
+    public void doTag(TagPluginContext ctxt) {
+        TagPluginContext parent = ctxt.getParentContext();
+        String paramsV = parent == null ? null : (String) parent.getPluginAttribute(Message.MESSAGE_PARAMS);
+        if (paramsV == null) {
+            ctxt.dontUseTagPlugin();
+            return;
+        }
+
+        String valueV = PluginUtil.generateAttributeVariable(ctxt, "Object", "value");
+        if (ctxt.hasBody()) {
+            String bodyV = PluginUtil.generateBufferedBody(ctxt);
+            if (!ctxt.isAttributeSpecified("value")) {
+                valueV = bodyV + ".trim()";
+            }
+        } else {
+            ctxt.generateBody();
+            if (!ctxt.isAttributeSpecified("value")) {
+                valueV = "\"\"";
+            }
+        }
+        ctxt.generateJavaSource(paramsV + ".add(" + valueV + ");");
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2026 Contributors to Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.wasp.tagplugins.jstl;
+
+import org.glassfish.wasp.compiler.tagplugin.TagPlugin;
+import org.glassfish.wasp.compiler.tagplugin.TagPluginContext;
+
+/**
+ * Generates an inline write for &lt;c:out&gt;. The value, or else the default, or else the trimmed body, is printed
+ * through <code>OutSupport.out</code>, which escapes XML straight into the writer.
+ */
+public final class Out implements TagPlugin {
+
+    private static final String OUT_SUPPORT = "org.glassfish.wasp.taglibs.standard.tag.common.core.OutSupport";
+
+    @Override
+    public void doTag(TagPluginContext ctxt) {
+        String valueV = ctxt.getTemporaryVariableName();
+        ctxt.generateJavaSource("Object " + valueV + " = ");
+        ctxt.generateAttribute("value");
+        ctxt.generateJavaSource(";");
+
+        String defaultV = null;
+        if (ctxt.isAttributeSpecified("default")) {
+            defaultV = ctxt.getTemporaryVariableName();
+            ctxt.generateJavaSource("String " + defaultV + " = ");
+            ctxt.generateAttribute("default");
+            ctxt.generateJavaSource(";");
+        }
+
+        String escapeXml;
+        if (!ctxt.isAttributeSpecified("escapeXml")) {
+            escapeXml = "true";
+        } else if (ctxt.isConstantAttribute("escapeXml")) {
+            escapeXml = String.valueOf(Boolean.parseBoolean(ctxt.getConstantAttribute("escapeXml")));
+        } else {
+            escapeXml = ctxt.getTemporaryVariableName();
+            ctxt.generateJavaSource("boolean " + escapeXml + " = ");
+            ctxt.generateAttribute("escapeXml");
+            ctxt.generateJavaSource(";");
+        }
+
+        String print = OUT_SUPPORT + ".out(_jspx_page_context, " + escapeXml + ", ";
+        ctxt.generateJavaSource("if (" + valueV + " != null) {");
+        ctxt.generateJavaSource(print + valueV + ");");
+        if (defaultV != null) {
+            ctxt.generateJavaSource("} else if (" + defaultV + " != null) {");
+            ctxt.generateJavaSource(print + defaultV + ");");
+        }
+        ctxt.generateJavaSource("} else {");
+        if (ctxt.hasBody()) {
+            String bodyV = PluginUtil.generateBufferedBody(ctxt);
+            ctxt.generateJavaSource(print + bodyV + ".trim());");
+        } else {
+            ctxt.generateBody();
+        }
+        ctxt.generateJavaSource("}");
+    }
+}
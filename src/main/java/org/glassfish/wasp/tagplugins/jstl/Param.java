@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2026 Contributors to Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.wasp.tagplugins.jstl;
+
+import org.glassfish.wasp.compiler.tagplugin.TagPlugin;
+import org.glassfish.wasp.compiler.tagplugin.TagPluginContext;
+
+/**
+ * Generates inline code for a &lt;c:param&gt; nested in a &lt;c:url&gt; handled by the {@link Url} plugin, adding the
+ * encoded parameter to the enclosing <code>ParamManager</code>. Anywhere else the tag handler is used.
+ */
+public final class Param implements TagPlugin {
+
+    @Override
+    public void doTag(TagPluginContext ctxt) {
+        TagPluginContext parent = ctxt.getParentContext();
+        String paramsV = parent == null ? null : (String) parent.getPluginAttribute(Url.PARAM_MANAGER);
+        if (paramsV == null) {
+            ctxt.dontUseTagPlugin();
+            return;
+        }
+
+        String nameV = ctxt.getTemporaryVariableName();
+        ctxt.generateJavaSource("String " + nameV + " = ");
+        ctxt.generateAttribute("name");
+        ctxt.generateJavaSource(";");
+
+        String valueV = ctxt.getTemporaryVariableName();
+        ctxt.generateJavaSource("String " + valueV + " = ");
+        if (ctxt.isAttributeSpecified("value")) {
+            ctxt.generateAttribute("value");
+        } else {
+            ctxt.generateJavaSource("null");
+        }
+        ctxt.generateJavaSource(";");
+
+        String bodyV = null;
+        if (ctxt.hasBody()) {
+            bodyV = PluginUtil.generateBufferedBody(ctxt);
+        } else {
+            ctxt.generateBody();
+        }
+
+        ctxt.generateJavaSource("if (" + nameV + " != null && !" + nameV + ".equals(\"\")) {");
+        ctxt.generateJavaSource("if (" + valueV + " == null) " + valueV + " = " + (bodyV == null ? "\"\"" : bodyV + ".trim()") + ";");
+        String encV = ctxt.getTemporaryVariableName();
+        ctxt.generateJavaSource("String " + encV + " = _jspx_page_context.getResponse().getCharacterEncoding();");
+        ctxt.generateJavaSource(paramsV + ".addParameter(org.glassfish.wasp.taglibs.standard.tag.common.core.Util.URLEncode(" + nameV + ", " + encV
+                + "), org.glassfish.wasp.taglibs.standard.tag.common.core.Util.URLEncode(" + valueV + ", " + encV + "));");
+        ctxt.generateJavaSource("}");
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2026 Contributors to Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.wasp.tagplugins.jstl;
+
+import jakarta.servlet.jsp.PageContext;
+
+import org.glassfish.wasp.compiler.tagplugin.TagPluginContext;
+import org.glassfish.wasp.taglibs.standard.tag.common.core.Util;
+
+/**
+ * Code generation helpers shared by the JSTL tag plugins.
+ */
+final class PluginUtil {
+
+    private PluginUtil() {
+    }
+
+    /**
+     * Returns the <code>PageContext</code> constant for a translation-time scope name, following the same rules as the
+     * tag handlers.
+     */
+    static String scopeConstant(String scope) {
+        switch (Util.getScope(scope)) {
+        case PageContext.REQUEST_SCOPE:
+            return "PageContext.REQUEST_SCOPE";
+        case PageContext.SESSION_SCOPE:
+            return "PageContext.SESSION_SCOPE";
+        case PageContext.APPLICATION_SCOPE:
+            return "PageContext.APPLICATION_SCOPE";
+        default:
+            return "PageContext.PAGE_SCOPE";
+        }
+    }
+
+    /**
+     * Generates the body of the tag into a pushed <code>BodyContent</code>, the way a tag handler returning
+     * <code>EVAL_BODY_BUFFERED</code> sees it. The <code>BodyContent</code> is popped even if the body throws, so the
+     * rest of the page is not written into it.
+     *
+     * @return The name of the variable that holds the body content as a String
+     */
+    static String generateBufferedBody(TagPluginContext ctxt) {
+        String bodyV = ctxt.getTemporaryVariableName();
+        ctxt.generateJavaSource("String " + bodyV + ";");
+        ctxt.generatePushBody();
+        ctxt.generateJavaSource("try {");
+        ctxt.generateBody();
+        ctxt.generateJavaSource(bodyV + " = ((jakarta.servlet.jsp.tagext.BodyContent) out).getString();");
+        ctxt.generateJavaSource("} finally {");
+        ctxt.generatePopBody();
+        ctxt.generateJavaSource("}");
+        return bodyV;
+    }
+
+    /**
+     * Generates a local variable of the given type holding the value of an attribute.
+     *
+     * @return The name of the variable, or <code>"null"</code> if the attribute is not specified
+     */
+    static String generateAttributeVariable(TagPluginContext ctxt, String type, String attribute) {
+        if (!ctxt.isAttributeSpecified(attribute)) {
+            return "null";
+        }
+        String attrV = ctxt.getTemporaryVariableName();
+        ctxt.generateJavaSource(type + " " + attrV + " = ");
+        ctxt.generateAttribute(attribute);
+        ctxt.generateJavaSource(";");
+        return attrV;
+    }
+
+    /**
+     * Generates the code that exports the result of a tag: it is stored in the scoped variable named by the
+     * <code>var</code> and <code>scope</code> attributes if <code>var</code> is specified, and written out otherwise.
+     */
+    static void generateExport(TagPluginContext ctxt, String resultV) {
+        if (ctxt.isAttributeSpecified("var")) {
+            ctxt.generateJavaSource("_jspx_page_context.setAttribute(");
+            ctxt.generateAttribute("var");
+            ctxt.generateJavaSource(", " + resultV + ", " + scopeConstant(ctxt.getConstantAttribute("scope")) + ");");
+        } else {
+            ctxt.generateJavaSource("out.print(" + resultV + ");");
+        }
+    }
+
+    /**
+     * Generates the code that removes the scoped variable named by the <code>var</code> and <code>scope</code>
+     * attributes, if <code>var</code> is specified.
+     */
+    static void generateRemoveVar(TagPluginContext ctxt) {
+        if (ctxt.isAttributeSpecified("var")) {
+            ctxt.generateJavaSource("_jspx_page_context.removeAttribute(");
+            ctxt.generateAttribute("var");
+            ctxt.generateJavaSource(", " + scopeConstant(ctxt.getConstantAttribute("scope")) + ");");
+        }
+    }
+}
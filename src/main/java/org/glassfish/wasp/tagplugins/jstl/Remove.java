@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2026 Contributors to Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.wasp.tagplugins.jstl;
+
+import org.glassfish.wasp.compiler.tagplugin.TagPlugin;
+import org.glassfish.wasp.compiler.tagplugin.TagPluginContext;
+
+/**
+ * Generates an inline <code>removeAttribute</code> for &lt;c:remove&gt;.
+ */
+public final class Remove implements TagPlugin {
+
+    @Override
+    public void doTag(TagPluginContext ctxt) {
+        ctxt.generateJavaSource("_jspx_page_context.removeAttribute(");
+        ctxt.generateAttribute("var");
+        if (ctxt.isAttributeSpecified("scope")) {
+            ctxt.generateJavaSource(", " + PluginUtil.scopeConstant(ctxt.getConstantAttribute("scope")));
+        }
+        ctxt.generateJavaSource(");");
+    }
+}
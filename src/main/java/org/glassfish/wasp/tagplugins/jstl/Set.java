@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2026 Contributors to Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.wasp.tagplugins.jstl;
+
+import org.glassfish.wasp.compiler.tagplugin.TagPlugin;
+import org.glassfish.wasp.compiler.tagplugin.TagPluginContext;
+
+/**
+ * Generates an inline store for &lt;c:set var="..."&gt;. Values for the request, session and application scopes are
+ * stored with a direct <code>setAttribute</code>; everything else goes through <code>SetSupport.setVariable</code>, like
+ * the tag handler. Setting a target property, or a deferred value, is left to the tag handler.
+ */
+public final class Set implements TagPlugin {
+
+    private static final String SET_SUPPORT = "org.glassfish.wasp.taglibs.standard.tag.common.core.SetSupport";
+
+    @Override
+    public void doTag(TagPluginContext ctxt) {
+        if (!ctxt.isAttributeSpecified("var") || ctxt.isAttributeSpecified("target") || ctxt.isDeferredAttribute("value")) {
+            ctxt.dontUseTagPlugin();
+            return;
+        }
+
+        boolean scopeSpecified = ctxt.isAttributeSpecified("scope");
+        String scope = PluginUtil.scopeConstant(ctxt.getConstantAttribute("scope"));
+
+        String resultV = ctxt.getTemporaryVariableName();
+        if (ctxt.isAttributeSpecified("value")) {
+            ctxt.generateJavaSource("Object " + resultV + " = ");
+            ctxt.generateAttribute("value");
+            ctxt.generateJavaSource(";");
+            if (ctxt.hasBody()) {
+                // The body is still evaluated, and its output dropped
+                PluginUtil.generateBufferedBody(ctxt);
+            } else {
+                ctxt.generateBody();
+            }
+        } else if (ctxt.hasBody()) {
+            String bodyV = PluginUtil.generateBufferedBody(ctxt);
+            ctxt.generateJavaSource("Object " + resultV + " = " + bodyV + ".trim();");
+        } else {
+            ctxt.generateBody();
+            ctxt.generateJavaSource("Object " + resultV + " = \"\";");
+        }
+
+        if (!"PageContext.PAGE_SCOPE".equals(scope)) {
+            // Storing in the page scope also clears the variable mapping, so only the other scopes skip SetSupport
+            ctxt.generateJavaSource("if (" + resultV + " != null && !(" + resultV + " instanceof jakarta.el.ValueExpression)) {");
+            ctxt.generateJavaSource("_jspx_page_context.setAttribute(");
+            ctxt.generateAttribute("var");
+            ctxt.generateJavaSource(", " + resultV + ", " + scope + ");");
+            ctxt.generateJavaSource("} else {");
+        }
+        ctxt.generateJavaSource(SET_SUPPORT + ".setVariable(_jspx_page_context, ");
+        ctxt.generateAttribute("var");
+        ctxt.generateJavaSource(", " + resultV + ", " + scope + ", " + scopeSpecified + ");");
+        if (!"PageContext.PAGE_SCOPE".equals(scope)) {
+            ctxt.generateJavaSource("}");
+        }
+    }
+}
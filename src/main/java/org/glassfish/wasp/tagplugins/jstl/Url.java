@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2026 Contributors to Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.glassfish.wasp.tagplugins.jstl;
+
+import org.glassfish.wasp.compiler.tagplugin.TagPlugin;
+import org.glassfish.wasp.compiler.tagplugin.TagPluginContext;
+
+/**
+ * Generates inline code for &lt;c:url&gt;. The nested &lt;c:param&gt; tags, which must all be handled by the
+ * {@link Param} plugin, add their parameters straight to a local <code>ParamManager</code>; the rewritten URL is then
+ * either written to the page or stored in <code>var</code>.
+ */
+public final class Url implements TagPlugin {
+
+    static final String PARAM_MANAGER = "paramManager";
+
+    private static final String URL_SUPPORT = "org.glassfish.wasp.taglibs.standard.tag.common.core.UrlSupport";
+    private static final String PARAM_TAG = "org.glassfish.wasp.taglibs.standard.tag.rt.core.ParamTag";
+
+    @Override
+    public void doTag(TagPluginContext ctxt) {
+        // Any other tag in the body may look for a ParamParent ancestor
+        if (!ctxt.hasOnlyChildTags(PARAM_TAG)) {
+            ctxt.dontUseTagPlugin();
+            return;
+        }
+
+        String valueV = ctxt.getTemporaryVariableName();
+        ctxt.generateJavaSource("String " + valueV + " = ");
+        ctxt.generateAttribute("value");
+        ctxt.generateJavaSource(";");
+
+        String contextV = PluginUtil.generateAttributeVariable(ctxt, "String", "context");
+
+        String paramsV = "null";
+        if (ctxt.hasBody()) {
+            paramsV = ctxt.getTemporaryVariableName();
+            ctxt.generateJavaSource(
+                    "org.glassfish.wasp.taglibs.standard.tag.common.core.ParamSupport.ParamManager " + paramsV
+                            + " = new org.glassfish.wasp.taglibs.standard.tag.common.core.ParamSupport.ParamManager();");
+            ctxt.setPluginAttribute(PARAM_MANAGER, paramsV);
+
+            // The tag handler buffers its body and never writes it out
+            PluginUtil.generateBufferedBody(ctxt);
+        } else {
+            ctxt.generateBody();
+        }
+
+        String baseV = ctxt.getTemporaryVariableName();
+        ctxt.generateJavaSource("String " + baseV + " = " + URL_SUPPORT + ".resolveUrl(" + valueV + ", " + contextV + ", _jspx_page_context);");
+
+        if (ctxt.isAttributeSpecified("var")) {
+            String urlV = ctxt.getTemporaryVariableName();
+            ctxt.generateJavaSource("String " + urlV + " = " + URL_SUPPORT + ".rewriteUrl(" + baseV + ", " + paramsV + ", _jspx_page_context);");
+            PluginUtil.generateExport(ctxt, urlV);
+        } else {
+            ctxt.generateJavaSource(URL_SUPPORT + ".writeUrl(" + baseV + ", " + paramsV + ", _jspx_page_context, out);");
+        }
+    }
+}